@@ -0,0 +1,85 @@
+package org.cytoscape.cyndex2.benchmarks;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.cytoscape.application.CyApplicationManager;
+import org.cytoscape.cyndex2.internal.CxTaskFactoryManager;
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkFactory;
+import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.NetworkTestSupport;
+import org.cytoscape.model.subnetwork.CyRootNetworkManager;
+import org.cytoscape.service.util.CyServiceRegistrar;
+import org.cytoscape.work.TaskMonitor;
+
+/**
+ * Stands in for the Cytoscape runtime: the services the app looks up are
+ * backed by the in-memory model of NetworkTestSupport, and stand-in CX reader
+ * and writer factories are registered with {@link CxTaskFactoryManager} under
+ * the ids of the CX Support app's factories. Benchmarks built on it measure
+ * the app's overhead only, not CX Support or Cytoscape's network model.
+ */
+public final class BenchmarkSupport {
+
+	public static final TaskMonitor NO_OP_MONITOR = new TaskMonitor() {
+		@Override
+		public void setTitle(String title) {
+		}
+
+		@Override
+		public void setProgress(double progress) {
+		}
+
+		@Override
+		public void setStatusMessage(String statusMessage) {
+		}
+
+		@Override
+		public void showMessage(Level level, String message) {
+		}
+	};
+
+	private static NetworkTestSupport networkSupport;
+
+	private BenchmarkSupport() {
+	}
+
+	public static synchronized NetworkTestSupport install() {
+		if (networkSupport != null) {
+			return networkSupport;
+		}
+		networkSupport = new NetworkTestSupport();
+
+		final CyServiceRegistrar registrar = mock(CyServiceRegistrar.class);
+		when(registrar.getService(CyNetworkManager.class)).thenReturn(networkSupport.getNetworkManager());
+		when(registrar.getService(CyNetworkFactory.class)).thenReturn(networkSupport.getNetworkFactory());
+		when(registrar.getService(CyRootNetworkManager.class)).thenReturn(networkSupport.getRootNetworkFactory());
+		when(registrar.getService(CyApplicationManager.class)).thenReturn(mock(CyApplicationManager.class));
+		CyServiceModule.setServiceRegistrar(registrar);
+
+		CxTaskFactoryManager.INSTANCE.addReaderFactory(new StreamingCxReaderFactory(networkSupport),
+				Collections.singletonMap("id", "cytoscapeCxNetworkReaderFactory"));
+		CxTaskFactoryManager.INSTANCE.addWriterFactory(new StreamingCxWriterFactory(),
+				Collections.singletonMap("id", "cxNetworkWriterFactory"));
+		return networkSupport;
+	}
+
+	/**
+	 * Destroys the networks registered by imports, so that iterations do not
+	 * accumulate them.
+	 */
+	public static synchronized void clearNetworks() {
+		if (networkSupport == null) {
+			return;
+		}
+		final CyNetworkManager networkManager = networkSupport.getNetworkManager();
+		for (CyNetwork network : new ArrayList<>(networkManager.getNetworkSet())) {
+			networkManager.destroyNetwork(network);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package org.cytoscape.cyndex2.benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.cytoscape.cyndex2.internal.task.NetworkImportTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Imports CX through a {@link NetworkImportTask} run, which adds byte
+ * counting, tracing and network registration to the CX reader. The reader is
+ * the stand-in registered by {@link BenchmarkSupport}, not CX Support, so
+ * only the app's overhead is comparable between runs: the figures do not
+ * predict import times inside Cytoscape.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx8g", "-Djava.awt.headless=true" })
+public class CxImportBenchmark {
+
+	/** "gal" for gal.cx, otherwise the number of edges of a synthetic network */
+	@Param({ SyntheticCx.GAL, "10000", "100000", "1000000", "5000000" })
+	public String network;
+
+	private File cxFile;
+
+	@Setup(Level.Trial)
+	public void createFixture() throws Exception {
+		BenchmarkSupport.install();
+		cxFile = SyntheticCx.createFile(network);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFixture() {
+		cxFile.delete();
+	}
+
+	@TearDown(Level.Iteration)
+	public void clearNetworks() {
+		BenchmarkSupport.clearNetworks();
+	}
+
+	@Benchmark
+	public long importTask() throws Exception {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(cxFile))) {
+			final NetworkImportTask task = new NetworkImportTask(in);
+			task.run(BenchmarkSupport.NO_OP_MONITOR);
+			return task.getSUID();
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package org.cytoscape.cyndex2.benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import org.cytoscape.cyndex2.internal.CxTaskFactoryManager;
+import org.cytoscape.cyndex2.internal.rest.FakeNdexServer;
+import org.cytoscape.cyndex2.internal.rest.parameter.NDExBasicSaveParameters;
+import org.cytoscape.cyndex2.internal.task.NDExExportTaskFactory;
+import org.cytoscape.cyndex2.internal.util.SyntheticCxGenerator;
+import org.cytoscape.io.read.AbstractCyNetworkReader;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.work.TaskIterator;
+
+/**
+ * Allocation and peak-heap regression check for exports through
+ * {@link NDExExportTaskFactory}: CX writing, the in-memory copy and the upload
+ * to a local {@link FakeNdexServer}. Networks come from
+ * {@link SyntheticCxGenerator}.
+ *
+ * Bytes allocated by the exporting thread (ThreadMXBean) and the heap peak
+ * above the heap in use before the export are divided by the edge count and
+ * compared with the baselines file. The check fails when either figure grows
+ * past the file's tolerance, or when a size has no baseline. Run with
+ * {@code --record} to write the current figures as the new baselines.
+ *
+ * Usage: {@code ExportAllocationCheck [--record] [--baseline FILE] [--sizes 100000,1000000]}
+ */
+public final class ExportAllocationCheck {
+
+	private static final String DEFAULT_BASELINE = "baselines/export-allocation.properties";
+	private static final String DEFAULT_SIZES = "100000,1000000,5000000";
+
+	private static final String ALLOCATED = "allocated";
+	private static final String PEAK = "peak";
+
+	// Each figure is the minimum of several runs, after warm-up runs
+	private static final int WARMUP_RUNS = 2;
+	private static final int MEASURED_RUNS = 3;
+
+	private static class Result {
+		final long edges;
+		long allocated = Long.MAX_VALUE;
+		long peak = Long.MAX_VALUE;
+
+		Result(long edges) {
+			this.edges = edges;
+		}
+
+		double get(String figure) {
+			return (figure.equals(ALLOCATED) ? allocated : peak) / (double) edges;
+		}
+	}
+
+	private ExportAllocationCheck() {
+	}
+
+	public static void main(final String[] args) throws Exception {
+		boolean record = false;
+		File baselineFile = new File(DEFAULT_BASELINE);
+		String sizes = DEFAULT_SIZES;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--record")) {
+				record = true;
+			} else if (args[i].equals("--baseline")) {
+				baselineFile = new File(args[++i]);
+			} else if (args[i].equals("--sizes")) {
+				sizes = args[++i];
+			} else {
+				System.err.println("Unknown option " + args[i]);
+				System.exit(2);
+			}
+		}
+
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported()) {
+			System.err.println("This JVM does not count allocated bytes per thread");
+			System.exit(2);
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		final Properties baselines = new Properties();
+		if (baselineFile.isFile()) {
+			try (InputStream in = new FileInputStream(baselineFile)) {
+				baselines.load(in);
+			}
+		}
+
+		BenchmarkSupport.install();
+		final List<Result> results = new ArrayList<>();
+		try (FakeNdexServer server = new FakeNdexServer()) {
+			server.addUser("benchmark", "benchmark");
+			server.setKeepUploads(false);
+			for (String size : sizes.split(",")) {
+				results.add(measure(Long.parseLong(size.trim()), server, threads));
+				BenchmarkSupport.clearNetworks();
+			}
+		}
+
+		if (record) {
+			writeBaselines(baselineFile, baselines, results);
+			System.out.println("Recorded baselines in " + baselineFile);
+			return;
+		}
+		if (!check(baselines, results)) {
+			System.exit(1);
+		}
+	}
+
+	private static Result measure(final long edges, final FakeNdexServer server,
+			final com.sun.management.ThreadMXBean threads) throws Exception {
+		final CyNetwork network = load(edges);
+		final NDExBasicSaveParameters params = new NDExBasicSaveParameters();
+		params.username = "benchmark";
+		params.password = "benchmark";
+		params.serverUrl = server.getUrl();
+		params.metadata = new HashMap<>();
+
+		final Result result = new Result(edges);
+		final long thread = Thread.currentThread().getId();
+		for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+			System.gc();
+			final List<MemoryPoolMXBean> pools = getHeapPools();
+			long before = 0;
+			for (MemoryPoolMXBean pool : pools) {
+				pool.resetPeakUsage();
+				before += pool.getUsage().getUsed();
+			}
+			final long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+
+			export(network, params);
+
+			final long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+			// Pools peak at different times, so the sum is an upper bound
+			long peak = 0;
+			for (MemoryPoolMXBean pool : pools) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+			if (run >= WARMUP_RUNS) {
+				result.allocated = Math.min(result.allocated, allocated);
+				result.peak = Math.min(result.peak, Math.max(0, peak - before));
+			}
+		}
+		return result;
+	}
+
+	private static CyNetwork load(final long edges) throws Exception {
+		final File cxFile = SyntheticCx.createFile(Long.toString(edges));
+		try (InputStream in = new BufferedInputStream(new FileInputStream(cxFile))) {
+			final AbstractCyNetworkReader reader = (AbstractCyNetworkReader) CxTaskFactoryManager.INSTANCE
+					.getCxReaderFactory().createTaskIterator(in, null).next();
+			reader.run(BenchmarkSupport.NO_OP_MONITOR);
+			final CyNetwork network = reader.getNetworks()[0];
+			// The export task looks the network up by SUID
+			BenchmarkSupport.install().getNetworkManager().addNetwork(network);
+			return network;
+		} finally {
+			cxFile.delete();
+		}
+	}
+
+	private static void export(final CyNetwork network, final NDExBasicSaveParameters params) throws Exception {
+		final TaskIterator tasks = new NDExExportTaskFactory(params, false).createTaskIterator(network);
+		while (tasks.hasNext()) {
+			tasks.next().run(BenchmarkSupport.NO_OP_MONITOR);
+		}
+	}
+
+	private static List<MemoryPoolMXBean> getHeapPools() {
+		final List<MemoryPoolMXBean> pools = new ArrayList<>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				pools.add(pool);
+			}
+		}
+		return pools;
+	}
+
+	private static boolean check(final Properties baselines, final List<Result> results) {
+		boolean passed = true;
+		System.out.println(String.format(Locale.ROOT, "%-10s %-10s %12s %12s %8s", "edges", "figure", "bytes/edge",
+				"baseline", "change"));
+		for (Result result : results) {
+			for (String figure : new String[] { ALLOCATED, PEAK }) {
+				final double current = result.get(figure);
+				final String baseline = baselines.getProperty(figure + "." + result.edges);
+				if (baseline == null) {
+					System.out.println(String.format(Locale.ROOT, "%-10d %-10s %12.1f %12s %8s  FAIL: no baseline, "
+							+ "run with --record", result.edges, figure, current, "-", "-"));
+					passed = false;
+					continue;
+				}
+				final double expected = Double.parseDouble(baseline);
+				final double tolerance = Double.parseDouble(baselines.getProperty("tolerance." + figure, "0.1"));
+				final double change = expected > 0 ? current / expected - 1 : 0;
+				String verdict = "";
+				if (change > tolerance) {
+					verdict = String.format(Locale.ROOT, "  FAIL: over the %.0f%% tolerance", tolerance * 100);
+					passed = false;
+				} else if (change < -tolerance) {
+					verdict = "  improved, consider --record";
+				}
+				System.out.println(String.format(Locale.ROOT, "%-10d %-10s %12.1f %12.1f %+7.1f%%%s", result.edges,
+						figure, current, expected, change * 100, verdict));
+			}
+		}
+		return passed;
+	}
+
+	private static void writeBaselines(final File file, final Properties previous, final List<Result> results)
+			throws IOException {
+		final File dir = file.getAbsoluteFile().getParentFile();
+		if (dir != null) {
+			dir.mkdirs();
+		}
+		try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+			out.println("# Bytes per edge for an NDExExportTaskFactory export, written by ExportAllocationCheck --record.");
+			out.println("# allocated: bytes allocated by the exporting thread; peak: heap peak above the heap in use");
+			out.println("# before the export. The check fails when a figure grows past its tolerance (0.1 = 10%).");
+			out.println("# Java " + System.getProperty("java.version") + ", " + System.getProperty("os.arch")
+					+ ", -Xmx" + (Runtime.getRuntime().maxMemory() >> 20) + "m");
+			out.println();
+			out.println("tolerance." + ALLOCATED + "=" + previous.getProperty("tolerance." + ALLOCATED, "0.1"));
+			out.println("tolerance." + PEAK + "=" + previous.getProperty("tolerance." + PEAK, "0.25"));
+			for (Result result : results) {
+				out.println();
+				for (String figure : new String[] { ALLOCATED, PEAK }) {
+					out.println(String.format(Locale.ROOT, "%s.%d=%.1f", figure, result.edges, result.get(figure)));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package org.cytoscape.cyndex2.benchmarks;
+
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cytoscape.application.CyApplicationManager;
+import org.cytoscape.io.read.AbstractCyNetworkReader;
+import org.cytoscape.io.read.AbstractInputStreamTaskFactory;
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkFactory;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.NetworkTestSupport;
+import org.cytoscape.view.model.CyNetworkView;
+import org.cytoscape.work.TaskIterator;
+import org.cytoscape.work.TaskMonitor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Stand-in CX reader used in place of the CX Support app, which is only
+ * available inside Cytoscape. It streams the nodes, edges and network
+ * attributes aspects into a network and skips every other aspect. Its cost
+ * has nothing to do with CX Support's, so benchmarks using it only measure
+ * the app's overhead around the reader.
+ */
+public class StreamingCxReaderFactory extends AbstractInputStreamTaskFactory {
+
+	private static final JsonFactory JSON = new JsonFactory();
+
+	private final NetworkTestSupport networkSupport;
+
+	public StreamingCxReaderFactory(final NetworkTestSupport networkSupport) {
+		super(null);
+		this.networkSupport = networkSupport;
+	}
+
+	@Override
+	public TaskIterator createTaskIterator(final InputStream is, final String inputName) {
+		return new TaskIterator(new Reader(is));
+	}
+
+	private class Reader extends AbstractCyNetworkReader {
+		private final InputStream in;
+		private final CyNetworkFactory networkFactory;
+
+		Reader(final InputStream in) {
+			super(in, mock(CyApplicationManager.class), networkSupport.getNetworkFactory(),
+					networkSupport.getNetworkManager(), networkSupport.getRootNetworkFactory());
+			this.in = in;
+			this.networkFactory = networkSupport.getNetworkFactory();
+		}
+
+		@Override
+		public void run(final TaskMonitor taskMonitor) throws Exception {
+			final CyNetwork network = networkFactory.createNetwork();
+			final Map<Long, CyNode> nodes = new HashMap<>();
+			try (JsonParser parser = JSON.createParser(in)) {
+				if (parser.nextToken() != JsonToken.START_ARRAY) {
+					throw new IOException("CX must start with an array");
+				}
+				while (parser.nextToken() == JsonToken.START_OBJECT) {
+					while (parser.nextToken() == JsonToken.FIELD_NAME) {
+						final String aspect = parser.getCurrentName();
+						parser.nextToken();
+						switch (aspect) {
+						case "nodes":
+							readNodes(parser, network, nodes);
+							break;
+						case "edges":
+							readEdges(parser, network, nodes);
+							break;
+						case "networkAttributes":
+							readNetworkAttributes(parser, network);
+							break;
+						default:
+							parser.skipChildren();
+						}
+					}
+				}
+			}
+			networks = new CyNetwork[] { network };
+		}
+
+		@Override
+		public CyNetworkView buildCyNetworkView(final CyNetwork network) {
+			// Views are not benchmarked
+			return null;
+		}
+	}
+
+	private static void readNodes(final JsonParser parser, final CyNetwork network, final Map<Long, CyNode> nodes)
+			throws IOException {
+		while (parser.nextToken() == JsonToken.START_OBJECT) {
+			long id = -1;
+			String name = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				final String field = parser.getCurrentName();
+				parser.nextToken();
+				if ("@id".equals(field)) {
+					id = parser.getLongValue();
+				} else if ("n".equals(field)) {
+					name = parser.getText();
+				} else {
+					parser.skipChildren();
+				}
+			}
+			final CyNode node = network.addNode();
+			nodes.put(id, node);
+			if (name != null) {
+				network.getRow(node).set(CyNetwork.NAME, name);
+			}
+		}
+	}
+
+	private static void readEdges(final JsonParser parser, final CyNetwork network, final Map<Long, CyNode> nodes)
+			throws IOException {
+		while (parser.nextToken() == JsonToken.START_OBJECT) {
+			long source = -1;
+			long target = -1;
+			String interaction = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				final String field = parser.getCurrentName();
+				parser.nextToken();
+				if ("s".equals(field)) {
+					source = parser.getLongValue();
+				} else if ("t".equals(field)) {
+					target = parser.getLongValue();
+				} else if ("i".equals(field)) {
+					interaction = parser.getText();
+				} else {
+					parser.skipChildren();
+				}
+			}
+			final CyNode sourceNode = nodes.get(source);
+			final CyNode targetNode = nodes.get(target);
+			if (sourceNode == null || targetNode == null) {
+				throw new IOException("Edge refers to a missing node");
+			}
+			final CyEdge edge = network.addEdge(sourceNode, targetNode, true);
+			if (interaction != null) {
+				network.getRow(edge).set(CyEdge.INTERACTION, interaction);
+			}
+		}
+	}
+
+	private static void readNetworkAttributes(final JsonParser parser, final CyNetwork network) throws IOException {
+		while (parser.nextToken() == JsonToken.START_OBJECT) {
+			String name = null;
+			String value = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				final String field = parser.getCurrentName();
+				parser.nextToken();
+				if ("n".equals(field)) {
+					name = parser.getText();
+				} else if ("v".equals(field) && parser.currentToken().isScalarValue()) {
+					value = parser.getText();
+				} else {
+					parser.skipChildren();
+				}
+			}
+			if (CyNetwork.NAME.equals(name)) {
+				network.getRow(network).set(CyNetwork.NAME, value);
+			}
+		}
+	}
+}
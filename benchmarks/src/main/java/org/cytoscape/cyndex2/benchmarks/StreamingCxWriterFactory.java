@@ -0,0 +1,123 @@
+package org.cytoscape.cyndex2.benchmarks;
+
+import java.io.OutputStream;
+
+import org.cytoscape.io.CyFileFilter;
+import org.cytoscape.io.write.CyNetworkViewWriterFactory;
+import org.cytoscape.io.write.CyWriter;
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.view.model.CyNetworkView;
+import org.cytoscape.work.TaskMonitor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Stand-in CX writer used in place of the CX Support app. It writes the
+ * network attributes, nodes and edges aspects of a network with their names
+ * and interactions. Like {@link StreamingCxReaderFactory}, it is not a
+ * measure of CX Support, only something for the app's overhead to wrap.
+ */
+public class StreamingCxWriterFactory implements CyNetworkViewWriterFactory {
+
+	private static final JsonFactory JSON = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+	@Override
+	public CyFileFilter getFileFilter() {
+		return null;
+	}
+
+	@Override
+	public CyWriter createWriter(final OutputStream out, final CyNetworkView view) {
+		return createWriter(out, view.getModel());
+	}
+
+	@Override
+	public CyWriter createWriter(final OutputStream out, final CyNetwork network) {
+		return new Writer(out, network);
+	}
+
+	/**
+	 * Has the tunable setters that NDExExportTaskFactory looks up on the CX
+	 * Support writer; they do not change the output.
+	 */
+	public static class Writer implements CyWriter {
+		private final OutputStream out;
+		private final CyNetwork network;
+
+		Writer(final OutputStream out, final CyNetwork network) {
+			this.out = out;
+			this.network = network;
+		}
+
+		public void setWriteSiblings(final Boolean writeSiblings) {
+		}
+
+		public void setUseCxId(final Boolean useCxId) {
+		}
+
+		@Override
+		public void run(final TaskMonitor taskMonitor) throws Exception {
+			try (JsonGenerator generator = JSON.createGenerator(out)) {
+				generator.writeStartArray();
+				SyntheticCx.writePreamble(generator, network.getNodeCount(), network.getEdgeCount());
+
+				generator.writeStartObject();
+				generator.writeArrayFieldStart("networkAttributes");
+				final CyRow networkRow = network.getRow(network);
+				for (CyColumn column : network.getDefaultNetworkTable().getColumns()) {
+					final Object value = networkRow.getRaw(column.getName());
+					if (value != null && !CyNetwork.SUID.equals(column.getName())) {
+						generator.writeStartObject();
+						generator.writeStringField("n", column.getName());
+						generator.writeStringField("v", value.toString());
+						generator.writeEndObject();
+					}
+				}
+				generator.writeEndArray();
+				generator.writeEndObject();
+
+				generator.writeStartObject();
+				generator.writeArrayFieldStart("nodes");
+				for (CyNode node : network.getNodeList()) {
+					generator.writeStartObject();
+					generator.writeNumberField("@id", node.getSUID());
+					final String name = network.getRow(node).get(CyNetwork.NAME, String.class);
+					if (name != null) {
+						generator.writeStringField("n", name);
+					}
+					generator.writeEndObject();
+				}
+				generator.writeEndArray();
+				generator.writeEndObject();
+
+				generator.writeStartObject();
+				generator.writeArrayFieldStart("edges");
+				for (CyEdge edge : network.getEdgeList()) {
+					generator.writeStartObject();
+					generator.writeNumberField("@id", edge.getSUID());
+					generator.writeNumberField("s", edge.getSource().getSUID());
+					generator.writeNumberField("t", edge.getTarget().getSUID());
+					final String interaction = network.getRow(edge).get(CyEdge.INTERACTION, String.class);
+					if (interaction != null) {
+						generator.writeStringField("i", interaction);
+					}
+					generator.writeEndObject();
+				}
+				generator.writeEndArray();
+				generator.writeEndObject();
+
+				SyntheticCx.writeStatus(generator);
+				generator.writeEndArray();
+			}
+		}
+
+		@Override
+		public void cancel() {
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package org.cytoscape.cyndex2.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.cytoscape.cyndex2.internal.util.SyntheticCxGenerator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * CX fixtures for the benchmarks: {@code gal.cx} from the test resources, or
+ * a network from {@link SyntheticCxGenerator} with a given number of edges and
+ * half as many nodes. Synthetic networks are streamed to a temporary file and
+ * are the same for the same size.
+ */
+public final class SyntheticCx {
+
+	public static final String GAL = "gal";
+
+	private SyntheticCx() {
+	}
+
+	/**
+	 * Returns a temporary file with the CX of the named network: "gal" or an
+	 * edge count. The caller deletes it.
+	 */
+	public static File createFile(final String network) throws IOException {
+		final File file = File.createTempFile("cyndex2-bench-" + network + "-", ".cx");
+		file.deleteOnExit();
+		if (GAL.equals(network)) {
+			try (InputStream in = SyntheticCx.class.getResourceAsStream("/gal.cx")) {
+				Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			return file;
+		}
+		new SyntheticCxGenerator().edges(Long.parseLong(network)).write(file);
+		return file;
+	}
+
+	static void writePreamble(final JsonGenerator generator, final long nodes, final long edges)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("numberVerification");
+		generator.writeStartObject();
+		generator.writeNumberField("longNumber", 281474976710655L);
+		generator.writeEndObject();
+		generator.writeEndArray();
+		generator.writeEndObject();
+
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("metaData");
+		writeMetaData(generator, "nodes", nodes);
+		writeMetaData(generator, "edges", edges);
+		writeMetaData(generator, "networkAttributes", 1);
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private static void writeMetaData(final JsonGenerator generator, final String name, final long count)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("name", name);
+		generator.writeNumberField("elementCount", count);
+		generator.writeStringField("version", "1.0");
+		generator.writeNumberField("consistencyGroup", 1);
+		generator.writeEndObject();
+	}
+
+	static void writeStatus(final JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("status");
+		generator.writeStartObject();
+		generator.writeStringField("error", "");
+		generator.writeBooleanField("success", true);
+		generator.writeEndObject();
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+}
@@ -0,0 +1,72 @@
+package org.cytoscape.cyndex2.internal.rest.endpoints.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cytoscape.cyndex2.benchmarks.BenchmarkSupport;
+import org.cytoscape.cyndex2.internal.rest.response.SummaryResponse;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.NetworkTestSupport;
+import org.cytoscape.model.subnetwork.CyRootNetwork;
+import org.cytoscape.model.subnetwork.CySubNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Builds the collection summary returned by the summary endpoints, for
+ * collections with a growing number of member networks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SummaryBenchmark {
+
+	private static final int COLUMNS = 20;
+
+	@Param({ "1", "10", "100" })
+	public int subnetworks;
+
+	private CyRootNetwork root;
+	private CySubNetwork current;
+
+	@Setup(Level.Trial)
+	public void createCollection() {
+		final NetworkTestSupport networkSupport = BenchmarkSupport.install();
+		current = (CySubNetwork) networkSupport.getNetwork();
+		root = current.getRootNetwork();
+		addColumns(root, root.getDefaultNetworkTable());
+		addColumns(current, current.getDefaultNetworkTable());
+		for (int i = 1; i < subnetworks; i++) {
+			final CySubNetwork subnetwork = root.addSubNetwork();
+			addColumns(subnetwork, subnetwork.getDefaultNetworkTable());
+		}
+	}
+
+	private static void addColumns(final CyNetwork network, final CyTable table) {
+		for (int i = 0; i < COLUMNS; i++) {
+			final String column = "column" + i;
+			if (table.getColumn(column) == null) {
+				table.createColumn(column, String.class, false);
+			}
+			table.getRow(network.getSUID()).set(column, "value " + i);
+		}
+	}
+
+	@Benchmark
+	public SummaryResponse buildSummary() {
+		return NdexNetworkResourceImpl.buildSummary(root, current);
+	}
+}
@@ -0,0 +1,84 @@
+package org.cytoscape.cyndex2.internal.task;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.cytoscape.cyndex2.benchmarks.BenchmarkSupport;
+import org.cytoscape.cyndex2.benchmarks.SyntheticCx;
+import org.cytoscape.cyndex2.internal.CxTaskFactoryManager;
+import org.cytoscape.cyndex2.internal.rest.parameter.NDExBasicSaveParameters;
+import org.cytoscape.io.read.AbstractCyNetworkReader;
+import org.cytoscape.model.CyNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writes networks as CX the way the export task wrapper does, into an
+ * in-memory buffer that is then copied, and saves upload metadata to the
+ * network table. The CX writer is the stand-in registered by
+ * {@link BenchmarkSupport}, so only the app's overhead is comparable between
+ * runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx8g", "-Djava.awt.headless=true" })
+public class CxExportBenchmark {
+
+	private static final int METADATA_COLUMNS = 20;
+
+	/** "gal" for gal.cx, otherwise the number of edges of a synthetic network */
+	@Param({ SyntheticCx.GAL, "10000", "100000", "1000000", "5000000" })
+	public String network;
+
+	private CyNetwork cyNetwork;
+	private NDExExportTaskFactory exportFactory;
+
+	@Setup(Level.Trial)
+	public void loadNetwork() throws Exception {
+		BenchmarkSupport.install();
+		final File cxFile = SyntheticCx.createFile(network);
+		try (InputStream in = new BufferedInputStream(new FileInputStream(cxFile))) {
+			final AbstractCyNetworkReader reader = (AbstractCyNetworkReader) CxTaskFactoryManager.INSTANCE
+					.getCxReaderFactory().createTaskIterator(in, null).next();
+			reader.run(BenchmarkSupport.NO_OP_MONITOR);
+			cyNetwork = reader.getNetworks()[0];
+		} finally {
+			cxFile.delete();
+		}
+		exportFactory = new NDExExportTaskFactory(new NDExBasicSaveParameters(), false);
+	}
+
+	@Benchmark
+	public byte[] writeCx() throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportFactory.writeCx(cyNetwork, false, out, BenchmarkSupport.NO_OP_MONITOR);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public CyNetwork saveMetadata() {
+		for (int i = 0; i < METADATA_COLUMNS; i++) {
+			NDExExportTaskFactory.saveMetadata("benchmark" + i, "value " + i, cyNetwork);
+		}
+		return cyNetwork;
+	}
+}
@@ -9,6 +9,8 @@ import static org.cytoscape.work.ServiceProperties.PREFERRED_MENU;
 import static org.cytoscape.work.ServiceProperties.TITLE;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Dictionary;
 import java.util.Properties;
 
@@ -18,16 +20,26 @@ import org.cytoscape.application.CyApplicationConfiguration;
 import org.cytoscape.application.CyApplicationManager;
 import org.cytoscape.application.swing.CyAction;
 import org.cytoscape.cyndex2.internal.rest.NdexClient;
+import org.cytoscape.cyndex2.internal.rest.NdexSearchClient;
 import org.cytoscape.cyndex2.internal.rest.endpoints.NdexBaseResource;
+import org.cytoscape.cyndex2.internal.rest.endpoints.NdexDiagnosticsResource;
+import org.cytoscape.cyndex2.internal.rest.endpoints.NdexMetricsResource;
 import org.cytoscape.cyndex2.internal.rest.endpoints.NdexNetworkResource;
+import org.cytoscape.cyndex2.internal.rest.endpoints.NdexSearchResource;
 import org.cytoscape.cyndex2.internal.rest.endpoints.NdexStatusResource;
+import org.cytoscape.cyndex2.internal.rest.endpoints.NdexWebAppResource;
 import org.cytoscape.cyndex2.internal.rest.endpoints.impl.NdexBaseResourceImpl;
+import org.cytoscape.cyndex2.internal.rest.endpoints.impl.NdexDiagnosticsResourceImpl;
+import org.cytoscape.cyndex2.internal.rest.endpoints.impl.NdexMetricsResourceImpl;
 import org.cytoscape.cyndex2.internal.rest.endpoints.impl.NdexNetworkResourceImpl;
+import org.cytoscape.cyndex2.internal.rest.endpoints.impl.NdexSearchResourceImpl;
 import org.cytoscape.cyndex2.internal.rest.endpoints.impl.NdexStatusResourceImpl;
+import org.cytoscape.cyndex2.internal.rest.endpoints.impl.NdexWebAppResourceImpl;
 import org.cytoscape.cyndex2.internal.rest.errors.ErrorBuilder;
 import org.cytoscape.cyndex2.internal.task.OpenBrowseTaskFactory;
 import org.cytoscape.cyndex2.internal.task.OpenSaveCollectionTaskFactory;
 import org.cytoscape.cyndex2.internal.task.OpenSaveTaskFactory;
+import org.cytoscape.cyndex2.internal.task.UpgradePreviewTaskFactory;
 import org.cytoscape.cyndex2.internal.ui.ImportNetworkFromNDExTaskFactory;
 import org.cytoscape.cyndex2.internal.ui.MainToolBarAction;
 import org.cytoscape.cyndex2.internal.ui.SaveNetworkToNDExTaskFactory;
@@ -35,7 +47,11 @@ import org.cytoscape.cyndex2.internal.util.BrowserManager;
 import org.cytoscape.cyndex2.internal.util.CIServiceManager;
 import org.cytoscape.cyndex2.internal.util.ExternalAppManager;
 import org.cytoscape.cyndex2.internal.util.IconUtil;
+import org.cytoscape.cyndex2.internal.util.LocalNetworkIndex;
+import org.cytoscape.cyndex2.internal.util.Metrics;
+import org.cytoscape.cyndex2.internal.util.StartupTimings;
 import org.cytoscape.cyndex2.internal.util.StringResources;
+import org.cytoscape.cyndex2.internal.util.ValidationCache;
 import org.cytoscape.io.read.InputStreamTaskFactory;
 import org.cytoscape.io.write.CyNetworkViewWriterFactory;
 import org.cytoscape.model.CyNetworkManager;
@@ -43,6 +59,7 @@ import org.cytoscape.property.CyProperty;
 import org.cytoscape.service.util.AbstractCyActivator;
 import org.cytoscape.service.util.CyServiceRegistrar;
 import org.cytoscape.task.NetworkCollectionTaskFactory;
+import org.cytoscape.task.NetworkTaskFactory;
 import org.cytoscape.task.RootNetworkCollectionTaskFactory;
 import org.cytoscape.work.TaskFactory;
 import org.cytoscape.work.TaskManager;
@@ -56,7 +73,13 @@ public class CyActivator extends AbstractCyActivator {
 
 	// Logger for this activator
 	private static final Logger logger = LoggerFactory.getLogger(CyActivator.class);
-	public static final String WEB_APP_VERSION = "0.1.3";
+	// Resource filtered from the pom by Maven
+	private static final String APP_PROPERTIES = "/cyndex2.properties";
+	// Set from webapp.version in the pom
+	public static final String WEB_APP_VERSION = loadWebAppVersion();
+
+	// Timing group of the activation phases
+	private static final String ACTIVATION = "activation";
 
 	private static CyProperty<Properties> cyProps;
 
@@ -64,8 +87,13 @@ public class CyActivator extends AbstractCyActivator {
 	private static String cytoscapeVersion;
 	private static String appName;
 	private static boolean hasCyNDEx1;
+	private static BundleContext bundleContext;
+	private static boolean bundlesScanned;
 
 	private CIServiceManager ciServiceManager;
+	private static NdexSearchClient searchClient;
+	// Set by shutDown(), so that deferred activation opens nothing afterwards
+	private static boolean shuttingDown;
 	public static TaskManager<?, ?> taskManager;
 
 	public CyActivator() {
@@ -75,9 +103,41 @@ public class CyActivator extends AbstractCyActivator {
 	}
 	
 	public static String getProperty(String prop) {
+		// Not available before the app has started, or in tests
+		if (cyProps == null) {
+			return null;
+		}
 		return cyProps.getProperties().getProperty(prop);
 	}
 
+	private static String loadWebAppVersion() {
+		final Properties props = new Properties();
+		try (InputStream is = CyActivator.class.getResourceAsStream(APP_PROPERTIES)) {
+			if (is != null) {
+				props.load(is);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not read " + APP_PROPERTIES, e);
+		}
+		final String version = props.getProperty("webapp.version");
+		if (version == null || version.isEmpty() || version.startsWith("${")) {
+			throw new IllegalStateException("No web app version in " + APP_PROPERTIES + ", build with Maven");
+		}
+		return version.trim();
+	}
+
+	public static long getLongProperty(String prop, long defaultValue) {
+		String val = getProperty(prop);
+		if (val == null) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(val.trim());
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
 	public static String getCyRESTPort() {
 		String port = cyProps.getProperties().getProperty("rest.port");
 		if (port == null) {
@@ -95,20 +155,17 @@ public class CyActivator extends AbstractCyActivator {
 	@Override
 	@SuppressWarnings("unchecked")
 	public void start(BundleContext bc) throws InvalidSyntaxException {
-		
-		for (Bundle b : bc.getBundles()) {
-			// System.out.println(b.getSymbolicName());
-			if (b.getSymbolicName().equals("org.cytoscape.api-bundle")) {
-				cytoscapeVersion = b.getVersion().toString();
-				// break;
-			} else if (b.getSymbolicName().equals("org.cytoscape.ndex.cyNDEx")) {
-				/*
-				 * Version v = b.getVersion(); System.out.println(v); int st = b.getState();
-				 * System.out.println(st);
-				 */
-				hasCyNDEx1 = true;
-			}
+		final StartupTimings timings = StartupTimings.INSTANCE;
+		timings.bundleStarted();
+		final StartupTimings.Phase activation = timings.start(ACTIVATION);
+		timings.transition(ACTIVATION, "bundleInfo");
+		synchronized (CyActivator.class) {
+			shuttingDown = false;
 		}
+
+		// Other bundles are scanned the first time their information is needed
+		bundleContext = bc;
+		bundlesScanned = false;
 		Bundle currentBundle = bc.getBundle();
 
 		appVersion = currentBundle.getVersion().toString();
@@ -118,6 +175,7 @@ public class CyActivator extends AbstractCyActivator {
 
 		
 		// Import dependencies
+		timings.transition(ACTIVATION, "services");
 		final CyServiceRegistrar serviceRegistrar = getService(bc, CyServiceRegistrar.class);
 		CyServiceModule.setServiceRegistrar(serviceRegistrar);
 		final CyApplicationConfiguration config = getService(bc, CyApplicationConfiguration.class);
@@ -137,13 +195,14 @@ public class CyActivator extends AbstractCyActivator {
 
 		ciServiceManager = new CIServiceManager(bc);
 
-		// Create subdirectories in config dir for jxbrowser
+		// Subdirectories in config dir for jxbrowser are created when the browser is first opened
+		timings.transition(ACTIVATION, "browserDirectories");
 		final CyNetworkManager netmgr = getService(bc, CyNetworkManager.class);
 		File jxBrowserDir = new File(config.getConfigurationDirectoryLocation(), "jxbrowser");
-		jxBrowserDir.mkdir();
 		BrowserManager.setDataDirectory(new File(jxBrowserDir, "data"));
 		
 		// TF for NDEx Save Network
+		timings.transition(ACTIVATION, "taskFactories");
 		final OpenSaveTaskFactory ndexSaveNetworkTaskFactory = new OpenSaveTaskFactory(appManager);
 		final Properties ndexSaveNetworkTaskFactoryProps = new Properties();
 
@@ -170,7 +229,7 @@ public class CyActivator extends AbstractCyActivator {
 		// TF for NDEx Load
 		Icon icon = IconUtil.getNdexIcon();
 		
-		final OpenBrowseTaskFactory ndexTaskFactory = new OpenBrowseTaskFactory(icon);
+		final OpenBrowseTaskFactory ndexTaskFactory = new OpenBrowseTaskFactory(icon, CyActivator::getSearchClient);
 		final Properties ndexTaskFactoryProps = new Properties();
 		// ndexTaskFactoryProps.setProperty(IN_MENU_BAR, "false");
 		ndexTaskFactoryProps.setProperty(PREFERRED_MENU, "File.Import");
@@ -179,6 +238,7 @@ public class CyActivator extends AbstractCyActivator {
 		registerAllServices(bc, ndexTaskFactory, ndexTaskFactoryProps);
 
 		// Expose CyREST endpoints
+		timings.transition(ACTIVATION, "rest");
 		final ErrorBuilder errorBuilder = new ErrorBuilder(ciServiceManager, config);
 		final NdexClient ndexClient = new NdexClient(errorBuilder);
 		CyServiceModule.setErrorBuilder(errorBuilder);
@@ -196,6 +256,23 @@ public class CyActivator extends AbstractCyActivator {
 		registerService(bc, new NdexNetworkResourceImpl(ndexClient, appManager, netmgr, ciServiceManager),
 				NdexNetworkResource.class, new Properties());
 
+		// Web app assets packaged in this bundle
+		registerService(bc, new NdexWebAppResourceImpl(), NdexWebAppResource.class, new Properties());
+
+		// Local search and bulk summaries
+		registerService(bc, new NdexSearchResourceImpl(ndexClient, ciServiceManager), NdexSearchResource.class,
+				new Properties());
+
+		// Metrics
+		registerService(bc, new NdexMetricsResourceImpl(ciServiceManager), NdexMetricsResource.class,
+				new Properties());
+
+		// Diagnostics
+		registerService(bc, new NdexDiagnosticsResourceImpl(ciServiceManager), NdexDiagnosticsResource.class,
+				new Properties());
+
+		timings.transition(ACTIVATION, "contextMenus");
+
 		OpenSaveTaskFactory saveNetworkToNDExContextMenuTaskFactory = new OpenSaveTaskFactory(appManager);
 		Properties saveNetworkToNDExContextMenuProps = new Properties();
 		saveNetworkToNDExContextMenuProps.setProperty(ID, "exportToNDEx");
@@ -215,22 +292,111 @@ public class CyActivator extends AbstractCyActivator {
 		saveCollectionToNDExContextMenuProps.setProperty(MENU_GRAVITY, "1.0");
 		registerService(bc, saveCollectionToNDExContextMenuTaskFactory, RootNetworkCollectionTaskFactory.class,
 				saveCollectionToNDExContextMenuProps);
+
+		Properties upgradePreviewContextMenuProps = new Properties();
+		upgradePreviewContextMenuProps.setProperty(ID, "upgradeNDExPreview");
+		upgradePreviewContextMenuProps.setProperty(TITLE, UpgradePreviewTaskFactory.TITLE);
+		upgradePreviewContextMenuProps.setProperty(IN_NETWORK_PANEL_CONTEXT_MENU, "true");
+		upgradePreviewContextMenuProps.setProperty(MENU_GRAVITY, "2.0");
+		registerService(bc, new UpgradePreviewTaskFactory(), NetworkTaskFactory.class, upgradePreviewContextMenuProps);
+
+		timings.endGroup(ACTIVATION);
+		activation.end();
+
+		startDeferredActivation(configDir);
+	}
+
+	/**
+	 * Opens the caches, reads the local network index, registers the cache
+	 * metrics and creates the search client on a background thread. Together
+	 * they took longer than the rest of activation. Until they are done the
+	 * caches act as empty. shutDown() takes the same lock, so nothing is
+	 * opened once it has closed the caches.
+	 */
+	private static void startDeferredActivation(final File configDir) {
+		final Thread thread = new Thread(() -> {
+			final StartupTimings.Phase phase = StartupTimings.INSTANCE.start("deferred.activation");
+			try {
+				synchronized (CyActivator.class) {
+					if (shuttingDown) {
+						return;
+					}
+					ValidationCache.INSTANCE.open(new File(configDir, ValidationCache.CACHE_DIR));
+					LocalNetworkIndex.INSTANCE.open(configDir);
+					LocalNetworkIndex.INSTANCE.load();
+					Metrics.INSTANCE.registerCache("summary", NdexClient.getSummaryCache()::getHits,
+							NdexClient.getSummaryCache()::getMisses);
+					Metrics.INSTANCE.registerCache("validation", ValidationCache.INSTANCE::getHits,
+							ValidationCache.INSTANCE::getMisses);
+					getSearchClient();
+				}
+			} catch (RuntimeException e) {
+				logger.error("Deferred activation of CyNDEx-2 failed", e);
+			} finally {
+				phase.end();
+			}
+		}, "CyNDEx-2 deferred activation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Returns the NDEx search client, creating it if activation has not done
+	 * so yet. Blocks while deferred activation runs, so call it off the EDT.
+	 *
+	 * @throws IllegalStateException if the app is shutting down
+	 */
+	public static synchronized NdexSearchClient getSearchClient() {
+		if (shuttingDown) {
+			throw new IllegalStateException("CyNDEx-2 is shutting down");
+		}
+		if (searchClient == null) {
+			searchClient = new NdexSearchClient(getProperty("cyndex2.search.serverUrl"));
+			Metrics.INSTANCE.registerCache("search", searchClient.getCache()::getHits,
+					searchClient.getCache()::getMisses);
+		}
+		return searchClient;
 	}
 
 	@Override
 	public void shutDown() {
 		logger.info("Shutting down CyNDEx-2...");
 
-		BrowserManager.clearCache();
 		if (ciServiceManager != null) {
 			ciServiceManager.close();
 		}
 		BrowserManager.shutdown();
+		BrowserManager.clearCacheOnExit();
+		synchronized (CyActivator.class) {
+			shuttingDown = true;
+			if (searchClient != null) {
+				searchClient.close();
+				searchClient = null;
+			}
+			LocalNetworkIndex.INSTANCE.close();
+		}
 		
 		super.shutDown();
 	}
 
+	private static synchronized void scanBundles() {
+		if (bundlesScanned || bundleContext == null) {
+			return;
+		}
+		final StartupTimings.Phase phase = StartupTimings.INSTANCE.start("deferred.scanBundles");
+		for (Bundle b : bundleContext.getBundles()) {
+			if (b.getSymbolicName().equals("org.cytoscape.api-bundle")) {
+				cytoscapeVersion = b.getVersion().toString();
+			} else if (b.getSymbolicName().equals("org.cytoscape.ndex.cyNDEx")) {
+				hasCyNDEx1 = true;
+			}
+		}
+		bundlesScanned = true;
+		phase.end();
+	}
+
 	public static String getCyVersion() {
+		scanBundles();
 		return cytoscapeVersion;
 	}
 
@@ -239,10 +405,12 @@ public class CyActivator extends AbstractCyActivator {
 	}
 
 	public static boolean hasCyNDEx1() {
+		scanBundles();
 		return hasCyNDEx1;
 	}
 
 	public static void setHasCyNDEX1(boolean hasCyNDEx1) {
+		scanBundles();
 		CyActivator.hasCyNDEx1 = hasCyNDEx1;
 	}
 
@@ -1,10 +1,19 @@
 package org.cytoscape.cyndex2.internal.rest;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response.Status;
@@ -12,22 +21,32 @@ import javax.ws.rs.core.Response.Status;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.http.Header;
 import org.apache.http.HttpHeaders;
-import org.apache.http.ParseException;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
-import org.apache.http.util.EntityUtils;
 import org.cytoscape.cyndex2.internal.rest.errors.ErrorBuilder;
 import org.cytoscape.cyndex2.internal.rest.errors.ErrorType;
+import org.cytoscape.cyndex2.internal.util.CountingInputStream;
+import org.cytoscape.cyndex2.internal.util.ExpiringLruCache;
+import org.cytoscape.cyndex2.internal.util.LocalNetworkIndex;
+import org.cytoscape.cyndex2.internal.util.Metrics;
+import org.cytoscape.cyndex2.internal.util.ValidationCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 /**
  * Minimalistic NDEx V2 client
@@ -37,7 +56,20 @@ public class NdexClient {
 
 	private static final Logger logger = LoggerFactory.getLogger(NdexClient.class);
 
-	private static final String PUBLIC_NDEX_URL = "http://www.ndexbio.org/v2";
+	public static final String PUBLIC_NDEX_URL = "http://www.ndexbio.org/v2";
+
+	/** Maximum number of UUIDs sent in one bulk summary request */
+	public static final int SUMMARY_BATCH_SIZE = 500;
+
+	// Thread-safe and reused for every summary response. The stream is left
+	// open so that the rest of the body can still be stored in the cache
+	private static final ObjectReader SUMMARY_READER = new ObjectMapper()
+			.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE).readerFor(RemoteNetworkSummary.class)
+			.without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+	// Shared by all clients; keyed by server, user and network UUID
+	private static final ExpiringLruCache<String, RemoteNetworkSummary> SUMMARY_CACHE = new ExpiringLruCache<>(5000,
+			TimeUnit.MINUTES.toMillis(10));
 
 	private final ObjectMapper mapper;
 	private final ErrorBuilder errorBuilder;
@@ -65,55 +97,158 @@ public class NdexClient {
 		return HttpClients.custom().setDefaultHeaders(headers).build();
 	}
 
-	public Map<String, ?> getSummary(String url, String uuid) throws Exception {
+	public RemoteNetworkSummary getSummary(String url, String uuid) throws WebApplicationException {
 		return getSummary(url, uuid, null, null);
 	}
 
 	/**
-	 * Call network summary API
+	 * Call network summary API. The response is parsed straight from the
+	 * entity stream and the summary is added to the shared summary cache. Once
+	 * the cached summary has expired, a conditional request is sent and a 304
+	 * response reuses the copy in the {@link ValidationCache}. The caller gets
+	 * its own copy of the summary.
 	 */
-	@SuppressWarnings("unchecked")
-	public Map<String, ?> getSummary(String url, String uuid, String userId, String pw) throws WebApplicationException {
-
-		String serverUrl = null;
-		if (url == null || url.isEmpty()) {
-			serverUrl = PUBLIC_NDEX_URL + "/network/" + uuid + "/summary";
-		} else {
-			serverUrl = url + "/network/" + uuid + "/summary";
+	public RemoteNetworkSummary getSummary(String url, String uuid, String userId, String pw)
+			throws WebApplicationException {
+		final String serverUrl = url == null || url.isEmpty() ? PUBLIC_NDEX_URL : url;
+		final String key = getSummaryKey(serverUrl, userId, uuid);
+		final RemoteNetworkSummary cached = SUMMARY_CACHE.get(key);
+		if (cached != null) {
+			return cached.copy();
 		}
 
-		CloseableHttpClient client = getClient(userId, pw);
-		HttpGet httpget = new HttpGet(serverUrl);
+		final ValidationCache.Entry stored = ValidationCache.INSTANCE.lookup(key);
+		final HttpGet httpget = new HttpGet(serverUrl + "/network/" + uuid + "/summary");
+		if (stored != null) {
+			stored.addValidators(httpget);
+		}
+		try (Metrics.Timer timer = Metrics.INSTANCE.phase("summary_fetch").start();
+				CloseableHttpClient client = getClient(userId, pw);
+				CloseableHttpResponse response = executeSummaryRequest(client, httpget)) {
+			final RemoteNetworkSummary summary;
+			if (stored != null && response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+				try (InputStream is = ValidationCache.INSTANCE.open(stored, true)) {
+					summary = SUMMARY_READER.readValue(is);
+				}
+			} else {
+				// Check response
+				getError(response);
+				try (InputStream is = ValidationCache.INSTANCE.cache(key, response, 0, new CountingInputStream(
+						response.getEntity().getContent(), Metrics.INSTANCE.bytesDownloaded()))) {
+					summary = SUMMARY_READER.readValue(is);
+					// Read to the end so the body is stored
+					final byte[] buffer = new byte[1024];
+					while (is.read(buffer) >= 0) {
+					}
+				}
+			}
+			SUMMARY_CACHE.put(key, summary);
+			LocalNetworkIndex.INSTANCE.addAll(Collections.singletonList(summary));
+			NdexSearchClient.addSuggestions(Collections.singletonList(summary));
+			return summary.copy();
+		} catch (IOException e) {
+			logger.error(e.getMessage());
+			throw errorBuilder.buildException(Status.INTERNAL_SERVER_ERROR, "Could not build network summary object.",
+					ErrorType.INTERNAL);
+		}
+	}
 
-		CloseableHttpResponse response = null;
+	private CloseableHttpResponse executeSummaryRequest(CloseableHttpClient client, HttpGet httpget) {
 		try {
-			response = client.execute(httpget);
+			return client.execute(httpget);
 		} catch (Exception e) {
 			logger.error(e.getMessage());
 			throw errorBuilder.buildException(Status.INTERNAL_SERVER_ERROR, "Could not get network summary from NDEx.",
 					ErrorType.NDEX_API);
 		}
+	}
 
-		// Check response
-		getError(response);
+	public static ExpiringLruCache<String, RemoteNetworkSummary> getSummaryCache() {
+		return SUMMARY_CACHE;
+	}
 
-		Map<String, ?> result = null;
-		String val;
-		try {
-			val = EntityUtils.toString(response.getEntity());
-			result = mapper.readValue(val, Map.class);
-			response.close();
-			client.close();
-		} catch (ParseException | IOException e) {
-			e.printStackTrace();
-			logger.error(e.getMessage());
-			throw errorBuilder.buildException(Status.INTERNAL_SERVER_ERROR, "Could not build network summary object.",
-					ErrorType.INTERNAL);
+	private static String getSummaryKey(String serverUrl, String userId, String uuid) {
+		return serverUrl + "\n" + (userId == null ? "" : userId) + "\n" + uuid.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Call bulk network summary API. Summaries are requested in batches of
+	 * {@link #SUMMARY_BATCH_SIZE}, and cached summaries are not requested again.
+	 * The result is keyed by UUID in the given order and holds copies of the
+	 * summaries; networks that do not exist or are not visible to the user are
+	 * left out. UUIDs are compared without regard to case.
+	 */
+	public Map<String, RemoteNetworkSummary> getSummaries(String url, Collection<String> uuids, String userId,
+			String pw) throws WebApplicationException {
+		final String serverUrl = url == null || url.isEmpty() ? PUBLIC_NDEX_URL : url;
+
+		final Map<String, RemoteNetworkSummary> found = new HashMap<>();
+		final Set<String> missing = new LinkedHashSet<>();
+		for (String uuid : uuids) {
+			final String id = uuid.toLowerCase(Locale.ROOT);
+			final RemoteNetworkSummary cached = SUMMARY_CACHE.get(getSummaryKey(serverUrl, userId, id));
+			if (cached != null) {
+				found.put(id, cached);
+			} else {
+				missing.add(id);
+			}
 		}
 
+		final List<RemoteNetworkSummary> fetched = new ArrayList<>();
+		if (!missing.isEmpty()) {
+			try (Metrics.Timer timer = Metrics.INSTANCE.phase("summary_batch_fetch").start();
+					CloseableHttpClient client = getClient(userId, pw)) {
+				final List<String> ids = new ArrayList<>(missing);
+				for (int i = 0; i < ids.size(); i += SUMMARY_BATCH_SIZE) {
+					final List<String> batch = ids.subList(i, Math.min(ids.size(), i + SUMMARY_BATCH_SIZE));
+					final HttpPost httppost = new HttpPost(serverUrl + "/batch/network/summary");
+					httppost.setEntity(new StringEntity(mapper.writeValueAsString(batch), ContentType.APPLICATION_JSON));
+
+					try (CloseableHttpResponse response = client.execute(httppost)) {
+						getError(response);
+						try (InputStream is = new CountingInputStream(response.getEntity().getContent(),
+								Metrics.INSTANCE.bytesDownloaded())) {
+							readSummaries(is, fetched::add);
+						}
+					}
+				}
+			} catch (IOException e) {
+				logger.error(e.getMessage());
+				throw errorBuilder.buildException(Status.INTERNAL_SERVER_ERROR,
+						"Could not get network summaries from NDEx.", ErrorType.NDEX_API);
+			}
+		}
+		for (RemoteNetworkSummary summary : fetched) {
+			if (summary.externalId != null) {
+				SUMMARY_CACHE.put(getSummaryKey(serverUrl, userId, summary.externalId), summary);
+				found.put(summary.externalId.toLowerCase(Locale.ROOT), summary);
+			}
+		}
+		LocalNetworkIndex.INSTANCE.addAll(fetched);
+		NdexSearchClient.addSuggestions(fetched);
+
+		final Map<String, RemoteNetworkSummary> result = new LinkedHashMap<>();
+		for (String uuid : uuids) {
+			final RemoteNetworkSummary summary = found.get(uuid.toLowerCase(Locale.ROOT));
+			if (summary != null) {
+				result.put(uuid, summary.copy());
+			}
+		}
 		return result;
 	}
 
+	/**
+	 * Streams a JSON array of network summaries, handing each to the consumer
+	 * as soon as it has been parsed.
+	 */
+	static void readSummaries(InputStream is, Consumer<RemoteNetworkSummary> consumer) throws IOException {
+		try (MappingIterator<RemoteNetworkSummary> summaries = SUMMARY_READER.readValues(is)) {
+			while (summaries.hasNextValue()) {
+				consumer.accept(summaries.nextValue());
+			}
+		}
+	}
+
 	private final void getError(CloseableHttpResponse response) throws WebApplicationException {
 		final int code = response.getStatusLine().getStatusCode();
 
@@ -0,0 +1,251 @@
+package org.cytoscape.cyndex2.internal.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.cytoscape.cyndex2.internal.util.CountingInputStream;
+import org.cytoscape.cyndex2.internal.util.ExpiringLruCache;
+import org.cytoscape.cyndex2.internal.util.LocalNetworkIndex;
+import org.cytoscape.cyndex2.internal.util.Metrics;
+import org.cytoscape.cyndex2.internal.util.PrefixIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * In-process client for the NDEx V2 network search API. Pages of results are
+ * kept in an LRU cache so repeated and paged searches do not go back to the
+ * server. Callers get copies of cached pages, so they cannot change them.
+ * Typeahead lookups use a separate small cache, so they do not evict the pages
+ * of full searches. Queries, network names and gene symbols seen in results
+ * and in the summaries fetched by {@link NdexClient} feed a prefix index used
+ * for typeahead suggestions, and the summaries are added to the persistent
+ * {@link LocalNetworkIndex}.
+ */
+public class NdexSearchClient {
+
+	private static final Logger logger = LoggerFactory.getLogger(NdexSearchClient.class);
+
+	public static final int PAGE_SIZE = 25;
+
+	private static final int CACHE_SIZE = 64;
+	private static final int SUGGESTION_CACHE_SIZE = 16;
+	private static final long CACHE_TTL = TimeUnit.MINUTES.toMillis(5);
+	private static final int SUGGESTION_INDEX_SIZE = 5000;
+
+	// A search is interactive, so give up rather than leave the dialog waiting
+	private static final int CONNECT_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(10);
+	private static final int SOCKET_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(30);
+
+	// Words such as TP53, BRCA1 or EGFR in summary properties
+	private static final Pattern GENE_SYMBOL = Pattern.compile("\\b[A-Z][A-Z0-9]{1,9}(-[A-Z0-9]+)?\\b");
+
+	// Shared by all clients, since NdexClient adds the summaries it fetches
+	private static final PrefixIndex SUGGESTIONS = new PrefixIndex(SUGGESTION_INDEX_SIZE);
+
+	private final String serverUrl;
+	private final CloseableHttpClient client;
+	private final ObjectMapper mapper;
+	private final ObjectReader resultReader;
+	private final ExpiringLruCache<String, NetworkSearchResult> cache;
+	private final ExpiringLruCache<String, NetworkSearchResult> suggestionCache;
+
+	public NdexSearchClient(final String serverUrl) {
+		this.serverUrl = serverUrl == null || serverUrl.isEmpty() ? NdexClient.PUBLIC_NDEX_URL : serverUrl;
+		final RequestConfig config = RequestConfig.custom().setConnectTimeout(CONNECT_TIMEOUT)
+				.setConnectionRequestTimeout(CONNECT_TIMEOUT).setSocketTimeout(SOCKET_TIMEOUT).build();
+		this.client = HttpClients.custom().useSystemProperties().setDefaultRequestConfig(config).build();
+		this.mapper = new ObjectMapper();
+		this.resultReader = mapper.readerFor(NetworkSearchResult.class);
+		this.cache = new ExpiringLruCache<>(CACHE_SIZE, CACHE_TTL);
+		this.suggestionCache = new ExpiringLruCache<>(SUGGESTION_CACHE_SIZE, CACHE_TTL);
+	}
+
+	/**
+	 * A search that has been prepared but may not have been sent yet. Aborting
+	 * it closes the connection of an in-flight request.
+	 */
+	public class PendingSearch {
+		private final String searchString;
+		private final String key;
+		private final HttpPost post;
+		private final ExpiringLruCache<String, NetworkSearchResult> cache;
+
+		private PendingSearch(String searchString, String key, HttpPost post,
+				ExpiringLruCache<String, NetworkSearchResult> cache) {
+			this.searchString = searchString;
+			this.key = key;
+			this.post = post;
+			this.cache = cache;
+		}
+
+		public NetworkSearchResult get() throws IOException {
+			return execute(this);
+		}
+
+		public void abort() {
+			post.abort();
+		}
+	}
+
+	public String getServerUrl() {
+		return serverUrl;
+	}
+
+	public ExpiringLruCache<String, NetworkSearchResult> getCache() {
+		return cache;
+	}
+
+	public ExpiringLruCache<String, NetworkSearchResult> getSuggestionCache() {
+		return suggestionCache;
+	}
+
+	public static PrefixIndex getSuggestionIndex() {
+		return SUGGESTIONS;
+	}
+
+	/**
+	 * Adds the names of the networks and the gene symbols in their properties
+	 * to the suggestion index.
+	 */
+	public static void addSuggestions(final Collection<RemoteNetworkSummary> summaries) {
+		for (RemoteNetworkSummary summary : summaries) {
+			if (summary == null) {
+				continue;
+			}
+			SUGGESTIONS.add(summary.name);
+			if (summary.properties == null) {
+				continue;
+			}
+			for (Map<String, Object> property : summary.properties) {
+				final Object value = property == null ? null : property.get("value");
+				if (value == null) {
+					continue;
+				}
+				final Matcher matcher = GENE_SYMBOL.matcher(value.toString());
+				while (matcher.find()) {
+					SUGGESTIONS.add(matcher.group());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns suggestions for a prefix from recent searches and from the names
+	 * of networks in the local index. The local index is skipped until it has
+	 * been loaded.
+	 */
+	public List<String> suggest(final String prefix, final int limit) {
+		final Set<String> result = new LinkedHashSet<>(SUGGESTIONS.lookup(prefix, limit));
+		if (result.size() < limit && LocalNetworkIndex.INSTANCE.isLoaded()) {
+			for (RemoteNetworkSummary summary : LocalNetworkIndex.INSTANCE.search(prefix, limit).networks) {
+				if (summary.name != null) {
+					result.add(summary.name);
+				}
+			}
+		}
+		return new ArrayList<>(result).subList(0, Math.min(limit, result.size()));
+	}
+
+	/**
+	 * Returns one page of public networks matching the query. An empty query
+	 * lists all networks.
+	 */
+	public NetworkSearchResult search(final String query, final int start, final int size) throws IOException {
+		return prepareSearch(query, start, size).get();
+	}
+
+	/**
+	 * Prepares a search that can be aborted while it is in flight.
+	 */
+	public PendingSearch prepareSearch(final String query, final int start, final int size) throws IOException {
+		return prepareSearch(query, start, size, cache);
+	}
+
+	/**
+	 * Prepares the small search of a typeahead lookup, whose result is kept in
+	 * the suggestion cache instead of the search cache.
+	 */
+	public PendingSearch prepareSuggestionSearch(final String prefix, final int size) throws IOException {
+		return prepareSearch(prefix, 0, size, suggestionCache);
+	}
+
+	private PendingSearch prepareSearch(final String query, final int start, final int size,
+			final ExpiringLruCache<String, NetworkSearchResult> cache) throws IOException {
+		final String searchString = query == null ? "" : query.trim();
+		final String key = searchString + "\n" + start + "\n" + size;
+
+		// NDEx takes the page number (blocks to skip), not the offset
+		final HttpPost post = new HttpPost(serverUrl + "/search/network?start=" + (start / size) + "&size=" + size);
+		final Map<String, String> body = new HashMap<>();
+		body.put("searchString", searchString);
+		post.setEntity(new StringEntity(mapper.writeValueAsString(body), ContentType.APPLICATION_JSON));
+		return new PendingSearch(searchString, key, post, cache);
+	}
+
+	private NetworkSearchResult execute(final PendingSearch search) throws IOException {
+		final String searchString = search.searchString;
+		final NetworkSearchResult cached = search.cache.get(search.key);
+		if (cached != null) {
+			return cached.copy();
+		}
+
+		try (Metrics.Timer timer = Metrics.INSTANCE.phase("search").start();
+				CloseableHttpResponse response = client.execute(search.post)) {
+			final int code = response.getStatusLine().getStatusCode();
+			if (code != 200) {
+				EntityUtils.consumeQuietly(response.getEntity());
+				throw new IOException("NDEx search failed with HTTP status " + code);
+			}
+			final NetworkSearchResult result;
+			try (InputStream is = new CountingInputStream(response.getEntity().getContent(),
+					Metrics.INSTANCE.bytesDownloaded())) {
+				result = resultReader.readValue(is);
+			}
+			search.cache.put(search.key, result);
+			index(searchString, result);
+			return result.copy();
+		} catch (IOException e) {
+			logger.warn("NDEx search for '" + searchString + "' failed: " + e.getMessage());
+			throw e;
+		}
+	}
+
+	private void index(final String searchString, final NetworkSearchResult result) {
+		if (result.numFound > 0 && !searchString.isEmpty()) {
+			SUGGESTIONS.add(searchString);
+		}
+		if (result.networks != null) {
+			addSuggestions(result.networks);
+			LocalNetworkIndex.INSTANCE.addAll(result.networks);
+		}
+	}
+
+	public void close() {
+		try {
+			client.close();
+		} catch (IOException e) {
+			// IGNORE
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package org.cytoscape.cyndex2.internal.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One page of results from the NDEx V2 network search API.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NetworkSearchResult {
+
+	public long numFound;
+	public int start;
+	public List<RemoteNetworkSummary> networks;
+
+	/**
+	 * Returns a copy of this page with copies of its network summaries.
+	 */
+	public NetworkSearchResult copy() {
+		final NetworkSearchResult copy = new NetworkSearchResult();
+		copy.numFound = numFound;
+		copy.start = start;
+		if (networks != null) {
+			copy.networks = new ArrayList<>(networks.size());
+			for (RemoteNetworkSummary summary : networks) {
+				copy.networks.add(summary == null ? null : summary.copy());
+			}
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,51 @@
+package org.cytoscape.cyndex2.internal.rest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Network summary as returned by the NDEx V2 API. Only the fields used by this
+ * app are mapped.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RemoteNetworkSummary {
+
+	public String externalId;
+	public String name;
+	public String description;
+	public String owner;
+	public String version;
+	public String visibility;
+	public int nodeCount;
+	public int edgeCount;
+	public long cxFileSize;
+	public long modificationTime;
+	public boolean isReadOnly;
+	public List<Map<String, Object>> properties;
+
+	public RemoteNetworkSummary copy() {
+		final RemoteNetworkSummary copy = new RemoteNetworkSummary();
+		copy.externalId = externalId;
+		copy.name = name;
+		copy.description = description;
+		copy.owner = owner;
+		copy.version = version;
+		copy.visibility = visibility;
+		copy.nodeCount = nodeCount;
+		copy.edgeCount = edgeCount;
+		copy.cxFileSize = cxFileSize;
+		copy.modificationTime = modificationTime;
+		copy.isReadOnly = isReadOnly;
+		if (properties != null) {
+			copy.properties = new ArrayList<>(properties.size());
+			for (Map<String, Object> property : properties) {
+				copy.properties.add(property == null ? null : new LinkedHashMap<>(property));
+			}
+		}
+		return copy;
+	}
+}
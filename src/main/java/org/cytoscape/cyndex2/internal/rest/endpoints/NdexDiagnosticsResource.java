@@ -0,0 +1,51 @@
+package org.cytoscape.cyndex2.internal.rest.endpoints;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.cytoscape.ci.model.CIResponse;
+import org.cytoscape.cyndex2.internal.rest.response.StartupDiagnosticsResponse;
+import org.cytoscape.cyndex2.internal.rest.response.TracesResponse;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiOperation;
+
+@Api(tags="Apps: CyNDEx-2")
+@Path("/cyndex2/v1/diagnostics")
+public interface NdexDiagnosticsResource {
+
+	@ApiModel(
+			value="Startup Diagnostics Response",
+			parent=CIResponse.class)
+    public static class CIStartupDiagnosticsResponse extends CIResponse<StartupDiagnosticsResponse>{
+    }
+
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	@Path("/startup")
+	@ApiOperation(
+			value = "Get startup and browser loading timings of the CyNDEx-2 app.",
+			notes = "Wall-clock and CPU timings of bundle activation, JxBrowser installation, browser creation and web app loading.",
+			response = CIStartupDiagnosticsResponse.class)
+	public CIStartupDiagnosticsResponse getStartupDiagnostics();
+
+	@ApiModel(
+			value="Traces Response",
+			parent=CIResponse.class)
+    public static class CITracesResponse extends CIResponse<TracesResponse>{
+    }
+
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	@Path("/traces")
+	@ApiOperation(
+			value = "Get progress of running imports and exports, and traces of recently finished ones.",
+			notes = "Each trace lists the phases of one task with their start, duration, bytes and element counts. "
+					+ "Running tasks also report their progress, transfer rate and estimated time remaining. "
+					+ "The 50 most recent traces are kept.",
+			response = CITracesResponse.class)
+	public CITracesResponse getTraces();
+}
@@ -0,0 +1,42 @@
+package org.cytoscape.cyndex2.internal.rest.endpoints;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.cytoscape.ci.model.CIResponse;
+import org.cytoscape.cyndex2.internal.rest.response.MetricsResponse;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiOperation;
+
+@Api(tags="Apps: CyNDEx-2")
+@Path("/cyndex2/v1/metrics")
+public interface NdexMetricsResource {
+
+	@ApiModel(
+			value="Metrics Response",
+			parent=CIResponse.class)
+    public static class CIMetricsResponse extends CIResponse<MetricsResponse>{
+    }
+
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	@Path("/")
+	@ApiOperation(
+			value = "Get metrics of the CyNDEx-2 app.",
+			notes = "Bytes transferred, durations of import and export phases, retries, cache hit ratios and active jobs.",
+			response = CIMetricsResponse.class)
+	public CIMetricsResponse getMetrics();
+
+	@GET
+	@Produces("text/plain; version=0.0.4")
+	@Path("/prometheus")
+	@ApiOperation(
+			value = "Get metrics of the CyNDEx-2 app in Prometheus text format.",
+			notes = "The same metrics as the JSON endpoint, for scraping by Prometheus.",
+			response = String.class)
+	public String getPrometheusMetrics();
+}
@@ -70,7 +70,9 @@ public interface NdexNetworkResource {
 	@Path("/")
 	@ApiOperation(
 			value = "Import network from NDEx",
-			notes = "Import network(s) from NDEx.",
+			notes = "Import network(s) from NDEx. With a query, only the neighborhood or interconnect of the "
+					+ "query genes is imported, as computed by NDEx. With preview, only the sample NDEx keeps of "
+					+ "large networks is imported.",
 			response = CINdexBaseResponse.class)
 	@ApiResponses(
 			value = {
@@ -102,6 +104,19 @@ public interface NdexNetworkResource {
 			/* @Context HttpServletRequest request /*, byte[] input*//*NdexImportParams params*/);
 
 	
+	@POST
+	@Produces("application/json")
+	@Path("/{suid}/full")
+	@ApiOperation(
+			value = "Replace a preview network with the full NDEx network",
+			notes = "Imports the whole NDEx network that a preview was made from, with the parameters and summary "
+					+ "of the preview import, and then destroys the preview.",
+			response = CINdexBaseResponse.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 400, message = "Network is not a preview", response = CINdexBaseResponse.class), })
+	public CINdexBaseResponse upgradePreviewNetwork(
+			@ApiParam(value="SUID of the preview network") @PathParam("suid") Long suid);
+
 	@POST
 	@Produces("application/json")
 	@Consumes("application/json")
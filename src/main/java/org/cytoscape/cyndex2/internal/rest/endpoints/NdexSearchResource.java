@@ -0,0 +1,56 @@
+package org.cytoscape.cyndex2.internal.rest.endpoints;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+import org.cytoscape.ci.model.CIResponse;
+import org.cytoscape.cyndex2.internal.rest.NetworkSearchResult;
+import org.cytoscape.cyndex2.internal.rest.parameter.NDExSummariesParameters;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+@Api(tags="Apps: CyNDEx-2")
+@Path("/cyndex2/v1/search")
+public interface NdexSearchResource {
+
+	@ApiModel(
+			value="Network Search Response",
+			parent=CIResponse.class)
+    public static class CINetworkSearchResponse extends CIResponse<NetworkSearchResult>{
+    }
+
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	@Path("/local")
+	@ApiOperation(
+			value = "Search networks previously seen by CyNDEx-2.",
+			notes = "Searches the local index of NDEx network summaries returned by earlier searches or imported. "
+					+ "Every word of the query must match the start of a word in the name, owner, UUID, "
+					+ "description or properties. Does not contact NDEx.",
+			response = CINetworkSearchResponse.class)
+	public CINetworkSearchResponse searchLocal(
+			@ApiParam(value="Search words", required=true) @QueryParam("query") final String query,
+			@ApiParam(value="Maximum number of networks to return") @QueryParam("limit") @DefaultValue("25") final int limit);
+
+	@POST
+	@Produces(MediaType.APPLICATION_JSON)
+	@Consumes(MediaType.APPLICATION_JSON)
+	@Path("/summaries")
+	@ApiOperation(
+			value = "Get the summaries of many NDEx networks.",
+			notes = "Fetches the summaries in batches from the NDEx bulk summary API, skipping summaries fetched "
+					+ "in the last minutes. Networks that do not exist or are not visible to the user are left out. "
+					+ "The summaries are added to the local index.",
+			response = CINetworkSearchResponse.class)
+	public CINetworkSearchResponse getSummaries(
+			@ApiParam(value = "Server, networks and credentials", required = true) final NDExSummariesParameters params);
+}
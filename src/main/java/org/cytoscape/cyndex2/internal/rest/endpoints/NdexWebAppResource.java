@@ -0,0 +1,25 @@
+package org.cytoscape.cyndex2.internal.rest.endpoints;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.Response;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+@Api(tags="Apps: CyNDEx-2")
+@Path("/cyndex2/v1/webapp")
+public interface NdexWebAppResource {
+
+	@GET
+	@Path("/{version}/{path: .+}")
+	@ApiOperation(
+			value = "Serve the CyNDEx-2 web app packaged in this bundle.",
+			notes = "Static assets are versioned and may be cached indefinitely by the browser.",
+			hidden=true)
+	public Response getAsset(
+			@ApiParam(value="Web app version") @PathParam("version") final String version,
+			@ApiParam(value="Path of the asset relative to the web app root") @PathParam("path") final String path);
+}
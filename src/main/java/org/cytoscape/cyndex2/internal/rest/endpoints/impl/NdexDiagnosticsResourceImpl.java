@@ -0,0 +1,60 @@
+package org.cytoscape.cyndex2.internal.rest.endpoints.impl;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.cytoscape.ci.CIWrapping;
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.cyndex2.internal.rest.endpoints.NdexDiagnosticsResource;
+import org.cytoscape.cyndex2.internal.rest.errors.ErrorBuilder;
+import org.cytoscape.cyndex2.internal.rest.errors.ErrorType;
+import org.cytoscape.cyndex2.internal.rest.response.StartupDiagnosticsResponse;
+import org.cytoscape.cyndex2.internal.rest.response.TracesResponse;
+import org.cytoscape.cyndex2.internal.util.CIServiceManager;
+import org.cytoscape.cyndex2.internal.util.StartupTimings;
+import org.cytoscape.cyndex2.internal.util.TraceBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class NdexDiagnosticsResourceImpl implements NdexDiagnosticsResource {
+
+	private static final Logger logger = LoggerFactory.getLogger(NdexDiagnosticsResourceImpl.class);
+
+	private final ErrorBuilder errorBuilder;
+	private final CIServiceManager ciServiceManager;
+
+	public NdexDiagnosticsResourceImpl(final CIServiceManager ciServiceManager) {
+		this.ciServiceManager = ciServiceManager;
+		this.errorBuilder = CyServiceModule.INSTANCE.getErrorBuilder();
+	}
+
+	@Override
+	@CIWrapping
+	public CIStartupDiagnosticsResponse getStartupDiagnostics() {
+		final StartupDiagnosticsResponse response = new StartupDiagnosticsResponse();
+		response.bundleStartTime = StartupTimings.INSTANCE.getBundleStartTime();
+		response.phases = StartupTimings.INSTANCE.getPhases();
+		response.recentPhases = StartupTimings.INSTANCE.getRecentPhases();
+		try {
+			return ciServiceManager.getCIResponseFactory().getCIResponse(response, CIStartupDiagnosticsResponse.class);
+		} catch (InstantiationException | IllegalAccessException e) {
+			final String message = "Could not create wrapped CI JSON.";
+			logger.error(message);
+			throw errorBuilder.buildException(Status.INTERNAL_SERVER_ERROR, message, ErrorType.INTERNAL);
+		}
+	}
+
+	@Override
+	@CIWrapping
+	public CITracesResponse getTraces() {
+		final TracesResponse response = new TracesResponse();
+		response.running = TraceBuffer.INSTANCE.getRunning();
+		response.traces = TraceBuffer.INSTANCE.getTraces();
+		try {
+			return ciServiceManager.getCIResponseFactory().getCIResponse(response, CITracesResponse.class);
+		} catch (InstantiationException | IllegalAccessException e) {
+			final String message = "Could not create wrapped CI JSON.";
+			logger.error(message);
+			throw errorBuilder.buildException(Status.INTERNAL_SERVER_ERROR, message, ErrorType.INTERNAL);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package org.cytoscape.cyndex2.internal.rest.endpoints.impl;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.cytoscape.ci.CIWrapping;
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.cyndex2.internal.rest.endpoints.NdexMetricsResource;
+import org.cytoscape.cyndex2.internal.rest.errors.ErrorBuilder;
+import org.cytoscape.cyndex2.internal.rest.errors.ErrorType;
+import org.cytoscape.cyndex2.internal.rest.response.MetricsResponse;
+import org.cytoscape.cyndex2.internal.util.CIServiceManager;
+import org.cytoscape.cyndex2.internal.util.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class NdexMetricsResourceImpl implements NdexMetricsResource {
+
+	private static final Logger logger = LoggerFactory.getLogger(NdexMetricsResourceImpl.class);
+
+	private final ErrorBuilder errorBuilder;
+	private final CIServiceManager ciServiceManager;
+
+	public NdexMetricsResourceImpl(final CIServiceManager ciServiceManager) {
+		this.ciServiceManager = ciServiceManager;
+		this.errorBuilder = CyServiceModule.INSTANCE.getErrorBuilder();
+	}
+
+	@Override
+	@CIWrapping
+	public CIMetricsResponse getMetrics() {
+		final MetricsResponse response = new MetricsResponse();
+		response.metrics = Metrics.INSTANCE.getSamples();
+		try {
+			return ciServiceManager.getCIResponseFactory().getCIResponse(response, CIMetricsResponse.class);
+		} catch (InstantiationException | IllegalAccessException e) {
+			final String message = "Could not create wrapped CI JSON.";
+			logger.error(message);
+			throw errorBuilder.buildException(Status.INTERNAL_SERVER_ERROR, message, ErrorType.INTERNAL);
+		}
+	}
+
+	@Override
+	public String getPrometheusMetrics() {
+		return Metrics.INSTANCE.toPrometheus();
+	}
+}
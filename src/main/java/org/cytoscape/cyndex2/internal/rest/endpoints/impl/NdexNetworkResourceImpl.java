@@ -2,6 +2,7 @@ package org.cytoscape.cyndex2.internal.rest.endpoints.impl;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -9,6 +10,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 
 import javax.swing.SwingUtilities;
 import javax.ws.rs.WebApplicationException;
@@ -32,7 +34,10 @@ import org.cytoscape.cyndex2.internal.rest.response.NdexBaseResponse;
 import org.cytoscape.cyndex2.internal.rest.response.SummaryResponse;
 import org.cytoscape.cyndex2.internal.task.NDExExportTaskFactory;
 import org.cytoscape.cyndex2.internal.task.NDExImportTaskFactory;
+import org.cytoscape.cyndex2.internal.task.UpgradePreviewTaskFactory;
+import org.cytoscape.cyndex2.internal.util.BulkImportEvents;
 import org.cytoscape.cyndex2.internal.util.CIServiceManager;
+import org.cytoscape.cyndex2.internal.util.Metrics;
 import org.cytoscape.cyndex2.internal.util.NetworkUUIDManager;
 import org.cytoscape.io.read.AbstractCyNetworkReader;
 import org.cytoscape.io.read.InputStreamTaskFactory;
@@ -70,6 +75,11 @@ public class NdexNetworkResourceImpl implements NdexNetworkResource {
 
 	private final ErrorBuilder errorBuilder;
 
+	private static final int VISIBILITY_RETRIES = 5;
+
+	// Milliseconds between visibility updates; package visible for tests
+	long visibilityRetryDelay = 2000;
+
 	public NdexNetworkResourceImpl(final NdexClient client,
 			CyApplicationManager appManager, CyNetworkManager networkManager, CIServiceManager ciServiceTracker) {
 
@@ -148,6 +158,30 @@ public class NdexNetworkResourceImpl implements NdexNetworkResource {
 		}
 	}
 
+	@Override
+	@CIWrapping
+	public CINdexBaseResponse upgradePreviewNetwork(final Long suid) {
+		final CyNetwork preview = getNetworkFromSUID(suid);
+		final UpgradePreviewTaskFactory upgradeFactory = new UpgradePreviewTaskFactory();
+		if (!upgradeFactory.isReady(preview)) {
+			final String message = "Network with SUID " + suid
+					+ " is not a preview of an NDEx network imported in this session.";
+			throw errorBuilder.buildException(Status.BAD_REQUEST, message, ErrorType.INVALID_PARAMETERS);
+		}
+		final String uuid = NetworkUUIDManager.getPreviewUUID(preview).toString();
+
+		try {
+			execute(upgradeFactory.createTaskIterator(preview));
+
+			final NdexBaseResponse response = new NdexBaseResponse(upgradeFactory.getSUID(), uuid);
+			return ciServiceManager.getCIResponseFactory().getCIResponse(response, CINdexBaseResponse.class);
+		} catch (InstantiationException | IllegalAccessException e) {
+			final String message = "Could not create wrapped CI JSON. Error: " + e.getMessage();
+			logger.error(message);
+			throw errorBuilder.buildException(Status.INTERNAL_SERVER_ERROR, message, ErrorType.INTERNAL);
+		}
+	}
+
 	@Override
 	@CIWrapping
 	public CINdexBaseResponse saveNetworkToNdex(final Long suid, final NDExSaveParameters params) {
@@ -186,17 +220,25 @@ public class NdexNetworkResourceImpl implements NdexNetworkResource {
 	}
 
 	private final void setVisibility(final NDExSaveParameters params, final String uuid) {
-		int retries = 0;
-		for (; retries < 5; retries++) {
+		try (Metrics.Timer timer = Metrics.INSTANCE.phase("visibility_update").start()) {
+			updateVisibility(params, uuid);
+		}
+	}
+
+	// Package visible for tests
+	void updateVisibility(final NDExSaveParameters params, final String uuid) {
+		for (int retries = 0; retries < VISIBILITY_RETRIES; retries++) {
 			try {
 				client.setVisibility(params.serverUrl, uuid, params.isPublic.booleanValue(), params.username,
 						params.password);
-				break;
+				return;
 			} catch (Exception e) {
-				String message = String.format("Error updating visibility. Retrying (%d/5)...", retries);
+				Metrics.INSTANCE.retries("visibility_update").inc();
+				String message = String.format("Error updating visibility. Retrying (%d/%d)...", retries + 1,
+						VISIBILITY_RETRIES);
 				logger.warn(message);
 				try {
-					Thread.sleep(2000);
+					Thread.sleep(visibilityRetryDelay);
 				} catch (InterruptedException e1) {
 					message = "Failed to wait. This should never happen.";
 					logger.error(message);
@@ -207,15 +249,12 @@ public class NdexNetworkResourceImpl implements NdexNetworkResource {
 
 				}
 			}
-			if (retries >= 5) {
-				final String message = "NDEx appears to be busy.\n"
-						+ "Your network will likely be saved in your account, but will remain private. \n"
-						+ "You can use the NDEx web site to make your network public once NDEx posts it there.";
-				logger.warn(message);
-				throw errorBuilder.buildException(Status.INTERNAL_SERVER_ERROR, message, ErrorType.INTERNAL);
-			}
 		}
-
+		final String message = "NDEx appears to be busy.\n"
+				+ "Your network will likely be saved in your account, but will remain private. \n"
+				+ "You can use the NDEx web site to make your network public once NDEx posts it there.";
+		logger.warn(message);
+		throw errorBuilder.buildException(Status.INTERNAL_SERVER_ERROR, message, ErrorType.INTERNAL);
 	}
 
 	@CIWrapping
@@ -272,7 +311,8 @@ public class NdexNetworkResourceImpl implements NdexNetworkResource {
 		}
 	}
 
-	private final static SummaryResponse buildSummary(final CyRootNetwork root, final CySubNetwork network) {
+	// Package visible for the benchmarks
+	final static SummaryResponse buildSummary(final CyRootNetwork root, final CySubNetwork network) {
 		final SummaryResponse summary = new SummaryResponse();
 
 		// Network local table
@@ -369,6 +409,7 @@ public class NdexNetworkResourceImpl implements NdexNetworkResource {
 					return true;
 				}
 			} catch (Exception e) {
+				Metrics.INSTANCE.retries("network_update").inc();
 				try {
 					Thread.sleep(3000);
 				} catch (InterruptedException e1) {
@@ -396,6 +437,10 @@ public class NdexNetworkResourceImpl implements NdexNetworkResource {
 		CyNetwork network = network_manager.getNetwork(suid);
 		UUID ndexNetworkId = NetworkUUIDManager.getUUID(network);
 		
+		if (NetworkUUIDManager.getPreviewUUID(network) != null) {
+			throw new Exception(
+					"This network is a preview made from an NDEx sample, and saving it would replace the full network with the sample.");
+		}
 		if (ndexNetworkId == null) {
 			throw new Exception(
 					"NDEx network UUID not found. You can only update networks that were imported with CyNDEx2");
@@ -439,12 +484,16 @@ public class NdexNetworkResourceImpl implements NdexNetworkResource {
 		reader.setRootNetworkList(new ListSingleSelection<String>());
 		iter.append(reader);
 		
+		// The size of the CX is unknown until it is read
+		final BulkImportEvents events = BulkImportEvents.start(-1);
 		execute(iter);
 		
-		for (CyNetwork net : reader.getNetworks()) {
-			networkManager.addNetwork(net);
+		try (BulkImportEvents silenced = events.add(reader.getNetworks())) {
+			for (CyNetwork net : reader.getNetworks()) {
+				networkManager.addNetwork(net);
+			}
+			reader.buildCyNetworkView(reader.getNetworks()[0]);
 		}
-		reader.buildCyNetworkView(reader.getNetworks()[0]);
 		
 		Long suid = reader.getNetworks()[0].getSUID();
 		final NdexBaseResponse response = new NdexBaseResponse(suid, "");
@@ -457,11 +506,17 @@ public class NdexNetworkResourceImpl implements NdexNetworkResource {
 		}
 	}
 	
+	/**
+	 * Runs the tasks with the dialog task manager and waits until all of them
+	 * have finished. Safe to call from several request threads at once.
+	 */
 	private void execute(TaskIterator iter) {
 		DialogTaskManager tm = CyServiceModule.getService(DialogTaskManager.class);
 //		SynchronousTaskManager<?> tm = CyServiceModule.getService(SynchronousTaskManager.class);
 		
-		Object lock = new Object();
+		// The tasks may finish before invokeAndWait returns, so a notify on a
+		// plain lock could be missed and leave this thread waiting forever
+		final CountDownLatch finished = new CountDownLatch(1);
 		Runnable runner = new Runnable() {
 			@Override
 			public void run() {
@@ -474,23 +529,21 @@ public class NdexNetworkResourceImpl implements NdexNetworkResource {
 					
 					@Override
 					public void allFinished(FinishStatus finishStatus) {
-						synchronized(lock) {
-							lock.notify();
-						}
+						finished.countDown();
 					}
 				});
 			}
 		};
 
 		try {
-            SwingUtilities.invokeAndWait(runner);
-            synchronized (lock) {
-	            lock.wait();	
-			}
-        }
-        catch (Exception e) {
-            e.printStackTrace();
-        }
+			SwingUtilities.invokeAndWait(runner);
+			finished.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (InvocationTargetException e) {
+			// The task manager did not start the tasks, so nothing will finish
+			e.printStackTrace();
+		}
 	}
 
 }
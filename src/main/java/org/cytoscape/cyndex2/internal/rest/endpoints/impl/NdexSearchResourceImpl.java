@@ -0,0 +1,76 @@
+package org.cytoscape.cyndex2.internal.rest.endpoints.impl;
+
+import java.util.ArrayList;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.cytoscape.ci.CIWrapping;
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.cyndex2.internal.rest.NdexClient;
+import org.cytoscape.cyndex2.internal.rest.NetworkSearchResult;
+import org.cytoscape.cyndex2.internal.rest.endpoints.NdexSearchResource;
+import org.cytoscape.cyndex2.internal.rest.errors.ErrorBuilder;
+import org.cytoscape.cyndex2.internal.rest.errors.ErrorType;
+import org.cytoscape.cyndex2.internal.rest.parameter.NDExSummariesParameters;
+import org.cytoscape.cyndex2.internal.util.CIServiceManager;
+import org.cytoscape.cyndex2.internal.util.LocalNetworkIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class NdexSearchResourceImpl implements NdexSearchResource {
+
+	private static final Logger logger = LoggerFactory.getLogger(NdexSearchResourceImpl.class);
+
+	private final ErrorBuilder errorBuilder;
+	private final CIServiceManager ciServiceManager;
+	private final NdexClient client;
+
+	public NdexSearchResourceImpl(final NdexClient client, final CIServiceManager ciServiceManager) {
+		this.client = client;
+		this.ciServiceManager = ciServiceManager;
+		this.errorBuilder = CyServiceModule.INSTANCE.getErrorBuilder();
+	}
+
+	@Override
+	@CIWrapping
+	public CINetworkSearchResponse searchLocal(final String query, final int limit) {
+		if (query == null || query.trim().isEmpty()) {
+			final String message = "Query parameter is required.";
+			logger.error(message);
+			throw errorBuilder.buildException(Status.BAD_REQUEST, message, ErrorType.INVALID_PARAMETERS);
+		}
+		if (limit < 1) {
+			final String message = "Limit must be positive.";
+			logger.error(message);
+			throw errorBuilder.buildException(Status.BAD_REQUEST, message, ErrorType.INVALID_PARAMETERS);
+		}
+
+		return buildResponse(LocalNetworkIndex.INSTANCE.search(query, limit));
+	}
+
+	@Override
+	@CIWrapping
+	public CINetworkSearchResponse getSummaries(final NDExSummariesParameters params) {
+		if (params == null || params.uuids == null || params.uuids.isEmpty() || params.uuids.contains(null)) {
+			final String message = "UUIDs of the networks are required.";
+			logger.error(message);
+			throw errorBuilder.buildException(Status.BAD_REQUEST, message, ErrorType.INVALID_PARAMETERS);
+		}
+
+		final NetworkSearchResult result = new NetworkSearchResult();
+		result.networks = new ArrayList<>(
+				client.getSummaries(params.serverUrl, params.uuids, params.username, params.password).values());
+		result.numFound = result.networks.size();
+		return buildResponse(result);
+	}
+
+	private CINetworkSearchResponse buildResponse(final NetworkSearchResult result) {
+		try {
+			return ciServiceManager.getCIResponseFactory().getCIResponse(result, CINetworkSearchResponse.class);
+		} catch (InstantiationException | IllegalAccessException e) {
+			final String message = "Could not create wrapped CI JSON.";
+			logger.error(message);
+			throw errorBuilder.buildException(Status.INTERNAL_SERVER_ERROR, message, ErrorType.INTERNAL);
+		}
+	}
+}
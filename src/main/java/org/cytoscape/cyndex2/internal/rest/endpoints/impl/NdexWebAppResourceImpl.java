@@ -0,0 +1,33 @@
+package org.cytoscape.cyndex2.internal.rest.endpoints.impl;
+
+import java.io.InputStream;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.cytoscape.cyndex2.internal.rest.endpoints.NdexWebAppResource;
+import org.cytoscape.cyndex2.internal.util.LocalWebApp;
+
+public class NdexWebAppResourceImpl implements NdexWebAppResource {
+
+	// Asset paths contain the web app version, so they never change in place.
+	private static final int MAX_AGE = 365 * 24 * 60 * 60;
+
+	private final CacheControl cacheControl;
+
+	public NdexWebAppResourceImpl() {
+		cacheControl = new CacheControl();
+		cacheControl.setMaxAge(MAX_AGE);
+		cacheControl.setPrivate(false);
+	}
+
+	@Override
+	public Response getAsset(final String version, final String path) {
+		final InputStream is = LocalWebApp.openResource(version, path);
+		if (is == null) {
+			return Response.status(Status.NOT_FOUND).build();
+		}
+		return Response.ok(is, LocalWebApp.getContentType(path)).cacheControl(cacheControl).build();
+	}
+}
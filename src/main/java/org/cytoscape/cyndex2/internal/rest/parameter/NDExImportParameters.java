@@ -1,5 +1,7 @@
 package org.cytoscape.cyndex2.internal.rest.parameter;
 
+import java.util.List;
+
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 
@@ -24,6 +26,29 @@ public class NDExImportParameters {
 	
 	@ApiModelProperty(value="NDEx user's OAuth ID token", example="", required=false)
 	public String idToken;
+
+	@ApiModelProperty(value = "CX aspects to import, fetched one by one from NDEx. Nodes are always included. "
+			+ "Imports all aspects if not given", example = "[\"nodes\", \"edges\", \"nodeAttributes\"]", required = false)
+	public List<String> aspects;
+
+	@ApiModelProperty(value = "Genes or other terms, separated by spaces. If given, only the result of a query "
+			+ "for them run by NDEx is imported", example = "TP53 MDM2", required = false)
+	public String query;
+
+	@ApiModelProperty(value = "Type of query: neighborhood or interconnect", example = "neighborhood",
+			allowableValues = "neighborhood,interconnect", required = false)
+	public String queryType;
+
+	@ApiModelProperty(value = "Number of steps from the matching nodes, 1 or 2", example = "1", required = false)
+	public Integer queryDepth;
+
+	@ApiModelProperty(value = "Most edges in the query result. The import fails if the result has more", example = "50000", required = false)
+	public Integer queryEdgeLimit;
+
+	@ApiModelProperty(value = "If true, only the sample NDEx keeps of large networks is imported, as a preview "
+			+ "that can later be replaced by the full network. Cannot be combined with aspects or a query",
+			example = "false", required = false)
+	public Boolean preview;
 	
 	
 	public NDExImportParameters(String uuid, String username, String password, String serverUrl, String accessKey,String IDToken) {
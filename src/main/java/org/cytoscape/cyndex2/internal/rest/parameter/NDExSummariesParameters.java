@@ -0,0 +1,22 @@
+package org.cytoscape.cyndex2.internal.rest.parameter;
+
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(description = "Networks whose NDEx summaries are fetched.")
+public class NDExSummariesParameters {
+
+	@ApiModelProperty(value = "URL of NDEx V2 API server, defaults to http://ndexbio.org/v2", example = "http://ndexbio.org/v2")
+	public String serverUrl;
+
+	@ApiModelProperty(value = "UUIDs of the NDEx networks", example = "[]", required = true)
+	public List<String> uuids;
+
+	@ApiModelProperty(value = "NDEx username", example = "username")
+	public String username;
+
+	@ApiModelProperty(value = "Password for the NDEx account", example = "password")
+	public String password;
+}
@@ -0,0 +1,37 @@
+package org.cytoscape.cyndex2.internal.rest.response;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(description = "Current value of a single metric.")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MetricSample {
+
+	@ApiModelProperty(value = "Name of the metric")
+	public String name;
+
+	@ApiModelProperty(value = "Metric type: counter, gauge or histogram")
+	public String type;
+
+	@ApiModelProperty(value = "Description of the metric")
+	public String help;
+
+	@ApiModelProperty(value = "Labels distinguishing this series from others with the same name")
+	public Map<String, String> labels;
+
+	@ApiModelProperty(value = "Value of a counter or gauge")
+	public Double value;
+
+	@ApiModelProperty(value = "Number of observations of a histogram")
+	public Long count;
+
+	@ApiModelProperty(value = "Sum of observed values of a histogram, in seconds")
+	public Double sum;
+
+	@ApiModelProperty(value = "Cumulative observation counts of a histogram, keyed by upper bound in seconds")
+	public Map<String, Long> buckets;
+}
@@ -0,0 +1,13 @@
+package org.cytoscape.cyndex2.internal.rest.response;
+
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(description = "Counters, gauges and latency histograms of the CyNDEx-2 app.")
+public class MetricsResponse {
+
+	@ApiModelProperty(value = "All metrics, ordered by name")
+	public List<MetricSample> metrics;
+}
@@ -0,0 +1,23 @@
+package org.cytoscape.cyndex2.internal.rest.response;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(description = "Timing of a single startup or browser loading phase.")
+public class PhaseTiming {
+
+	@ApiModelProperty(value = "Name of the phase")
+	public String name;
+
+	@ApiModelProperty(value = "Thread the phase started on")
+	public String thread;
+
+	@ApiModelProperty(value = "Start of the phase in milliseconds since the bundle started")
+	public long startMs;
+
+	@ApiModelProperty(value = "Wall-clock duration in milliseconds, or -1 if the phase has not finished")
+	public long wallMs = -1;
+
+	@ApiModelProperty(value = "CPU time of the phase thread in milliseconds, or -1 if it is not available")
+	public long cpuMs = -1;
+}
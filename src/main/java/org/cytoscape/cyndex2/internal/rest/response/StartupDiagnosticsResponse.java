@@ -0,0 +1,19 @@
+package org.cytoscape.cyndex2.internal.rest.response;
+
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(description = "Startup and browser loading timings of the CyNDEx-2 app.")
+public class StartupDiagnosticsResponse {
+
+	@ApiModelProperty(value = "Time the bundle started, in milliseconds since the epoch")
+	public long bundleStartTime;
+
+	@ApiModelProperty(value = "First run of each phase, in the order they started")
+	public List<PhaseTiming> phases;
+
+	@ApiModelProperty(value = "Most recent later runs of phases, such as the browser stages of each dialog open, in the order they started")
+	public List<PhaseTiming> recentPhases;
+}
@@ -0,0 +1,58 @@
+package org.cytoscape.cyndex2.internal.rest.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(description = "Phases, messages and progress of an import or export.")
+public class TaskTrace {
+
+	public static final String RUNNING = "running";
+	public static final String COMPLETED = "completed";
+	public static final String CANCELLED = "cancelled";
+	public static final String FAILED = "failed";
+
+	@ApiModelProperty(value = "Sequence number of the trace")
+	public long id;
+
+	@ApiModelProperty(value = "Kind of task: import or export")
+	public String type;
+
+	@ApiModelProperty(value = "NDEx UUID or name of the network")
+	public String target;
+
+	@ApiModelProperty(value = "Time the task was created, in milliseconds since the epoch")
+	public long startTime;
+
+	@ApiModelProperty(value = "Total duration in milliseconds, or time elapsed so far for a running task")
+	public long durationMs = -1;
+
+	@ApiModelProperty(value = "Outcome: running, completed, cancelled or failed")
+	public String status;
+
+	@ApiModelProperty(value = "Error message of a failed task")
+	public String error;
+
+	@ApiModelProperty(value = "Last progress reported by the task, between 0 and 1")
+	public double progress;
+
+	@ApiModelProperty(value = "Bytes downloaded or uploaded so far")
+	public long bytesTransferred;
+
+	@ApiModelProperty(value = "Expected size of the transfer in bytes, or 0 if unknown")
+	public long bytesTotal;
+
+	@ApiModelProperty(value = "Transfer rate in bytes per second, or -1 if unknown")
+	public double bytesPerSecond = -1;
+
+	@ApiModelProperty(value = "Estimated time until the transfer completes in milliseconds, or -1 if unknown")
+	public long etaMs = -1;
+
+	@ApiModelProperty(value = "Status messages reported by the task, in order")
+	public List<String> messages = new ArrayList<>();
+
+	@ApiModelProperty(value = "Phases in the order they started")
+	public List<TraceSpan> spans = new ArrayList<>();
+}
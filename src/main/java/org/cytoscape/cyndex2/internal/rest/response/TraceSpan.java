@@ -0,0 +1,23 @@
+package org.cytoscape.cyndex2.internal.rest.response;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(description = "A single phase of an import or export.")
+public class TraceSpan {
+
+	@ApiModelProperty(value = "Name of the phase")
+	public String name;
+
+	@ApiModelProperty(value = "Start of the phase in milliseconds since the task was created")
+	public long startMs;
+
+	@ApiModelProperty(value = "Duration in milliseconds, or -1 if the phase did not finish")
+	public long durationMs = -1;
+
+	@ApiModelProperty(value = "Bytes read or written during the phase")
+	public long bytes;
+
+	@ApiModelProperty(value = "Nodes and edges processed during the phase")
+	public long elements;
+}
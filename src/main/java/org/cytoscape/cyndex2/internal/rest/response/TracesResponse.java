@@ -0,0 +1,16 @@
+package org.cytoscape.cyndex2.internal.rest.response;
+
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(description = "Running and recently finished imports and exports of the CyNDEx-2 app.")
+public class TracesResponse {
+
+	@ApiModelProperty(value = "Imports and exports in progress, oldest first")
+	public List<TaskTrace> running;
+
+	@ApiModelProperty(value = "Traces of finished tasks, most recent last")
+	public List<TaskTrace> traces;
+}
@@ -0,0 +1,427 @@
+package org.cytoscape.cyndex2.internal.task;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.cytoscape.cyndex2.internal.CyActivator;
+import org.cytoscape.cyndex2.internal.util.CountingInputStream;
+import org.cytoscape.cyndex2.internal.util.Metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Builds the CX of a network from some of its aspects, fetched from the NDEx
+ * per-aspect endpoints. The aspect metadata comes from
+ * {@code GET /network/{id}/aspect} and each aspect from
+ * {@code GET /network/{id}/aspect/{name}}. Aspects are requested one after
+ * the other as the reader consumes the stream, so only one is in flight.
+ *
+ * The nodes aspect is always included, since the other aspects refer to it.
+ * Aspects the network does not have are skipped.
+ *
+ * {@link #open(List, int, long)} downloads the aspects concurrently instead,
+ * over pooled connections, and joins them in the same order. Downloaded
+ * aspects are kept in memory up to a budget shared by all downloads, and
+ * written to temporary files beyond it.
+ */
+public class AspectCxStream {
+
+	/**
+	 * Nodes, edges and their attributes, without layout, visual properties or
+	 * provenance.
+	 */
+	public static final List<String> DATA_ASPECTS = Collections.unmodifiableList(
+			Arrays.asList("nodes", "edges", "networkAttributes", "nodeAttributes", "edgeAttributes"));
+
+	private static final String NODES = "nodes";
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final String HEADER = "[{\"numberVerification\":[{\"longNumber\":281474976710655}]}";
+	private static final String FOOTER = ",{\"status\":[{\"error\":\"\",\"success\":true}]}]";
+
+	private static final int BUFFER_SIZE = 65536;
+
+	private static final ThreadFactory DOWNLOAD_THREADS = runnable -> {
+		final Thread thread = new Thread(runnable, "CyNDEx-2 aspect download");
+		thread.setDaemon(true);
+		return thread;
+	};
+
+	/**
+	 * Opens one part of the stream when the reader gets to it.
+	 */
+	private interface Part {
+		InputStream open() throws IOException;
+	}
+
+	private final CloseableHttpClient client;
+	private final String networkUrl;
+	private final String accessKey;
+	private final String authorization;
+
+	/**
+	 * @param authorization value of the Authorization header, or null for
+	 *                      anonymous requests
+	 */
+	public AspectCxStream(final CloseableHttpClient client, final String serverUrl, final UUID id,
+			final String accessKey, final String authorization) {
+		final String baseUrl = serverUrl.endsWith("/") ? serverUrl.substring(0, serverUrl.length() - 1) : serverUrl;
+		this.client = client;
+		this.networkUrl = baseUrl + "/network/" + id;
+		this.accessKey = accessKey;
+		this.authorization = authorization;
+	}
+
+	/**
+	 * Returns the CX of the chosen aspects, in the order given, with their
+	 * metadata. Null selects all aspects of the network.
+	 */
+	public InputStream open(final List<String> aspects) throws IOException {
+		final Map<String, JsonNode> metadata = getMetadata();
+		final List<String> names = selectAspects(aspects, metadata);
+		final List<Part> parts = new ArrayList<>();
+		parts.add(() -> toStream(getHeader(names, metadata)));
+		for (String name : names) {
+			parts.add(() -> toStream(",{" + MAPPER.writeValueAsString(name) + ":"));
+			parts.add(() -> get("/aspect/" + name));
+			parts.add(() -> toStream("}"));
+		}
+		parts.add(() -> toStream(FOOTER));
+		return new PartsInputStream(parts.iterator(), null);
+	}
+
+	/**
+	 * Returns the CX of the chosen aspects like {@link #open(List)}, but starts
+	 * all downloads at once, at most the given number at a time. Reading waits
+	 * for each aspect in turn to be complete.
+	 *
+	 * @param memoryBudget bytes of downloaded aspects kept in memory, shared by
+	 *                     all downloads. Beyond it aspects go to temporary files
+	 */
+	public InputStream open(final List<String> aspects, final int downloads, final long memoryBudget)
+			throws IOException {
+		final Map<String, JsonNode> metadata = getMetadata();
+		final List<String> names = selectAspects(aspects, metadata);
+		final AtomicLong budget = new AtomicLong(memoryBudget);
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(downloads, names.size())),
+				DOWNLOAD_THREADS);
+		final List<Download> started = new ArrayList<>();
+		for (String name : names) {
+			final Download download = new Download(name, budget);
+			download.future = executor.submit(download);
+			started.add(download);
+		}
+		// The threads end once the downloads are done
+		executor.shutdown();
+
+		final List<Part> parts = new ArrayList<>();
+		parts.add(() -> toStream(getHeader(names, metadata)));
+		for (Download download : started) {
+			parts.add(() -> toStream(",{" + MAPPER.writeValueAsString(download.name) + ":"));
+			parts.add(download::open);
+			parts.add(() -> toStream("}"));
+		}
+		parts.add(() -> toStream(FOOTER));
+		return new PartsInputStream(parts.iterator(), () -> {
+			for (Download download : started) {
+				download.cancel();
+			}
+		});
+	}
+
+	/**
+	 * Returns the names of the chosen aspects the network has, nodes first.
+	 */
+	private static List<String> selectAspects(final List<String> aspects, final Map<String, JsonNode> metadata) {
+		final Set<String> names = new LinkedHashSet<>();
+		names.add(NODES);
+		names.addAll(aspects == null ? metadata.keySet() : aspects);
+		names.retainAll(metadata.keySet());
+		return new ArrayList<>(names);
+	}
+
+	private static String getHeader(final List<String> names, final Map<String, JsonNode> metadata)
+			throws IOException {
+		final List<JsonNode> selected = new ArrayList<>();
+		for (String name : names) {
+			selected.add(metadata.get(name));
+		}
+		return HEADER + ",{\"metaData\":" + MAPPER.writeValueAsString(selected) + "}";
+	}
+
+	/**
+	 * Returns the network's aspect metadata by aspect name.
+	 */
+	private Map<String, JsonNode> getMetadata() throws IOException {
+		final JsonNode root;
+		try (InputStream in = get("/aspect")) {
+			root = MAPPER.readTree(in);
+		}
+		// Either a bare list or wrapped in a metaData object
+		final JsonNode elements = root.isArray() ? root : root.path("metaData");
+		final Map<String, JsonNode> metadata = new LinkedHashMap<>();
+		for (JsonNode element : elements) {
+			if (element.hasNonNull("name")) {
+				metadata.put(element.get("name").asText(), element);
+			}
+		}
+		if (metadata.isEmpty()) {
+			throw new IOException("NDEx returned no aspect metadata for " + networkUrl);
+		}
+		return metadata;
+	}
+
+	private InputStream get(final String path) throws IOException {
+		final HttpGet httpget = new HttpGet(
+				networkUrl + path + (accessKey == null ? "" : "?accesskey=" + accessKey));
+		httpget.setHeader(HttpHeaders.USER_AGENT, CyActivator.getAppName() + "/" + CyActivator.getAppVersion());
+		if (authorization != null) {
+			httpget.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+		}
+		final CloseableHttpResponse response = client.execute(httpget);
+		final int code = response.getStatusLine().getStatusCode();
+		if (code != HttpStatus.SC_OK) {
+			response.close();
+			throw new IOException("NDEx returned status " + code + " for " + httpget.getURI());
+		}
+		// Closing the content stream releases the connection
+		return new CountingInputStream(response.getEntity().getContent(), Metrics.INSTANCE.bytesDownloaded());
+	}
+
+	private static InputStream toStream(final String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Keeps an aspect downloaded on a pool thread in memory, or in a temporary
+	 * file once the memory budget is used up.
+	 */
+	private class Download implements Callable<Void> {
+		final String name;
+		private final AtomicLong budget;
+		Future<Void> future;
+		private MemoryBuffer memory = new MemoryBuffer();
+		private File file;
+		private boolean released = false;
+
+		Download(final String name, final AtomicLong budget) {
+			this.name = name;
+			this.budget = budget;
+		}
+
+		@Override
+		public Void call() throws IOException {
+			OutputStream fileOut = null;
+			try (InputStream in = get("/aspect/" + name)) {
+				final byte[] buffer = new byte[BUFFER_SIZE];
+				int n;
+				while ((n = in.read(buffer)) >= 0) {
+					synchronized (this) {
+						if (released) {
+							throw new InterruptedIOException("Download of " + name + " cancelled");
+						}
+						if (fileOut == null && budget.addAndGet(-n) < 0) {
+							budget.addAndGet(n);
+							file = File.createTempFile("cyndex2-aspect-", ".json");
+							fileOut = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+							memory.writeTo(fileOut);
+							budget.addAndGet(memory.size());
+							memory = null;
+						}
+						if (fileOut == null) {
+							memory.write(buffer, 0, n);
+						} else {
+							fileOut.write(buffer, 0, n);
+						}
+					}
+				}
+			} catch (IOException | RuntimeException e) {
+				if (fileOut != null) {
+					fileOut.close();
+					fileOut = null;
+				}
+				release();
+				throw e;
+			} finally {
+				if (fileOut != null) {
+					fileOut.close();
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Waits for the download and returns its content. Closing the stream
+		 * frees the memory or deletes the file.
+		 */
+		InputStream open() throws IOException {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while downloading " + name);
+			} catch (ExecutionException e) {
+				final Throwable cause = e.getCause();
+				throw cause instanceof IOException ? (IOException) cause
+						: new IOException("Unable to download " + name + ": " + cause.getMessage(), cause);
+			}
+			final InputStream in;
+			synchronized (this) {
+				if (released) {
+					throw new IOException("Download of " + name + " cancelled");
+				}
+				in = file == null ? memory.toInputStream()
+						: new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+			}
+			return new FilterInputStream(in) {
+				@Override
+				public void close() throws IOException {
+					super.close();
+					release();
+				}
+			};
+		}
+
+		void cancel() {
+			future.cancel(true);
+			release();
+		}
+
+		/**
+		 * Frees the memory or temporary file, and makes a running download stop.
+		 */
+		synchronized void release() {
+			if (released) {
+				return;
+			}
+			released = true;
+			if (memory != null) {
+				budget.addAndGet(memory.size());
+				memory = null;
+			}
+			if (file != null) {
+				file.delete();
+				file = null;
+			}
+		}
+	}
+
+	/**
+	 * Reads back its bytes without copying them.
+	 */
+	private static class MemoryBuffer extends ByteArrayOutputStream {
+		InputStream toInputStream() {
+			return new ByteArrayInputStream(buf, 0, count);
+		}
+	}
+
+	/**
+	 * Reads the parts one after the other, opening each when the previous one
+	 * is exhausted.
+	 */
+	private static class PartsInputStream extends InputStream {
+		private final Iterator<Part> parts;
+		private final Closeable onClose;
+		private InputStream current;
+
+		PartsInputStream(final Iterator<Part> parts, final Closeable onClose) {
+			this.parts = parts;
+			this.onClose = onClose;
+		}
+
+		private boolean advance() throws IOException {
+			while (current == null) {
+				if (!parts.hasNext()) {
+					return false;
+				}
+				try {
+					current = parts.next().open();
+				} catch (IOException e) {
+					// Readers do not always close the stream when it fails
+					close();
+					throw e;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int read() throws IOException {
+			while (advance()) {
+				final int b = current.read();
+				if (b >= 0) {
+					return b;
+				}
+				current.close();
+				current = null;
+			}
+			return -1;
+		}
+
+		@Override
+		public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+			if (length == 0) {
+				return 0;
+			}
+			while (advance()) {
+				final int n = current.read(buffer, offset, length);
+				if (n >= 0) {
+					return n;
+				}
+				current.close();
+				current = null;
+			}
+			return -1;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (current != null) {
+				current.close();
+				current = null;
+			}
+			// Parts not reached yet are never opened
+			while (parts.hasNext()) {
+				parts.next();
+			}
+			if (onClose != null) {
+				onClose.close();
+			}
+		}
+	}
+}
@@ -9,6 +9,7 @@ import org.cytoscape.cyndex2.internal.CyActivator;
 import org.cytoscape.cyndex2.internal.errors.BrowserCreationError;
 import org.cytoscape.cyndex2.internal.util.BrowserManager;
 import org.cytoscape.cyndex2.internal.util.ExternalAppManager;
+import org.cytoscape.cyndex2.internal.util.StartupTimings;
 import org.cytoscape.cyndex2.internal.util.StringResources.LoadBrowserStage;
 import org.cytoscape.work.AbstractTask;
 import org.cytoscape.work.TaskMonitor;
@@ -65,6 +66,7 @@ public class LoadBrowserTask extends AbstractTask {
 
 					taskMonitor.setTitle("Loading CyNDEx-2");
 					LoadBrowserStage.STARTING_BROWSER.updateTaskMonitor(taskMonitor);
+					StartupTimings.INSTANCE.endGroup(LoadBrowserStage.GROUP);
 
 					if (browserView.getParent() == null)
 						dialog.add(browserView, BorderLayout.CENTER);
@@ -72,6 +74,7 @@ public class LoadBrowserTask extends AbstractTask {
 					getTaskIterator().insertTasksAfter(task,
 							new OpenExternalAppTask(dialog, browserView, CyActivator.getCyRESTPort()));
 				} catch (BrowserCreationError e) {
+					StartupTimings.INSTANCE.endGroup(LoadBrowserStage.GROUP);
 					BrowserManager.loading = false;
 					taskMonitor.showMessage(TaskMonitor.Level.ERROR,
 							"Failed to create browser instance for CyNDEx-2. Restart Cytoscape and try again.\nError: "
@@ -3,6 +3,7 @@ package org.cytoscape.cyndex2.internal.task;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -17,6 +18,8 @@ import org.cytoscape.cyndex2.internal.rest.errors.ErrorBuilder;
 import org.cytoscape.cyndex2.internal.rest.errors.ErrorType;
 import org.cytoscape.cyndex2.internal.rest.parameter.NDExBasicSaveParameters;
 import org.cytoscape.cyndex2.internal.rest.parameter.NDExSaveParameters;
+import org.cytoscape.cyndex2.internal.rest.response.TaskTrace;
+import org.cytoscape.cyndex2.internal.util.RecordingTaskMonitor;
 import org.cytoscape.io.write.CyNetworkViewWriterFactory;
 import org.cytoscape.io.write.CyWriter;
 import org.cytoscape.model.CyColumn;
@@ -121,20 +124,39 @@ public class NDExExportTaskFactory implements NetworkViewTaskFactory, NetworkTas
 		*/
 	}
 	
+	/**
+	 * Writes the network as CX with the CX Support app's writer. Package
+	 * visible for the benchmarks.
+	 */
+	void writeCx(CyNetwork network, boolean writeCollection, OutputStream out, TaskMonitor taskMonitor)
+			throws Exception {
+		CyNetworkViewWriterFactory writerFactory = CxTaskFactoryManager.INSTANCE.getCxWriterFactory();
+		writer = writerFactory.createWriter(out, network);
+		setTunables(writer, writeCollection);
+		writer.run(taskMonitor);
+	}
+
 	private AbstractTask getTaskWrapper(CyNetwork network, boolean writeCollection) {
 		
 		AbstractTask wrapper = new AbstractTask() {
 			ByteArrayOutputStream out = new ByteArrayOutputStream();
 			@Override
 			public void run(TaskMonitor taskMonitor) throws Exception {
-				CyNetworkViewWriterFactory writerFactory = CxTaskFactoryManager.INSTANCE.getCxWriterFactory();
-				writer = writerFactory.createWriter(out, network);
-				setTunables(writer, writeCollection);
-				
-				writer.run(taskMonitor);
+				final RecordingTaskMonitor recorder = new RecordingTaskMonitor(NetworkExportTask.TRACE_TYPE,
+						network.getRow(network).get(CyNetwork.NAME, String.class));
+				recorder.setDelegate(taskMonitor);
+				try (RecordingTaskMonitor.Span span = recorder.startSpan("cx_write")) {
+					writeCx(network, writeCollection, out, recorder);
+					span.setBytes(out.size());
+					span.addElements(network.getNodeCount() + network.getEdgeCount());
+				} catch (Exception e) {
+					recorder.finish(TaskTrace.FAILED, e.getMessage());
+					throw e;
+				}
 				byte[] bytes = out.toByteArray();
 				ByteArrayInputStream in = new ByteArrayInputStream(bytes);
-				exporter = new NetworkExportTask(network.getSUID(), in, params, writeCollection, isUpdate);
+				exporter = new NetworkExportTask(network.getSUID(), in, bytes.length, params, writeCollection, isUpdate,
+						recorder);
 				getTaskIterator().append(exporter);
 			}
 			@Override
@@ -194,7 +216,8 @@ public class NDExExportTaskFactory implements NetworkViewTaskFactory, NetworkTas
 		}
 	}
 	
-	private final static void saveMetadata(String columnName, String value, CyNetwork network) {
+	// Package visible for the benchmarks
+	final static void saveMetadata(String columnName, String value, CyNetwork network) {
 
 		final CyTable localTable = network.getTable(CyNetwork.class, CyNetwork.LOCAL_ATTRS);
 		final CyRow row = localTable.getRow(network.getSUID());
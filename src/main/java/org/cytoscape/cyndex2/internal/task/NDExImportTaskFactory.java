@@ -9,37 +9,75 @@ import org.cytoscape.cyndex2.internal.CyServiceModule;
 import org.cytoscape.cyndex2.internal.rest.errors.ErrorBuilder;
 import org.cytoscape.cyndex2.internal.rest.errors.ErrorType;
 import org.cytoscape.cyndex2.internal.rest.parameter.NDExImportParameters;
+import org.cytoscape.cyndex2.internal.util.PreviewNetworks;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.work.AbstractTask;
 import org.cytoscape.work.AbstractTaskFactory;
 import org.cytoscape.work.TaskIterator;
+import org.cytoscape.work.TaskMonitor;
 import org.ndexbio.model.exceptions.NdexException;
+import org.ndexbio.model.object.network.NetworkSummary;
 
 public class NDExImportTaskFactory extends AbstractTaskFactory {
 
 	private ErrorBuilder errorBuilder;
 	private NDExImportParameters params;
+	private NetworkSummary summary;
 	
 	private NetworkImportTask importer;
 
 	public NDExImportTaskFactory(NDExImportParameters params) {
+		this(params, null);
+	}
+
+	/**
+	 * @param summary summary of the network fetched earlier, or null to fetch it
+	 */
+	public NDExImportTaskFactory(NDExImportParameters params, NetworkSummary summary) {
 		super();
 		this.params = params;
+		this.summary = summary;
 		this.errorBuilder = CyServiceModule.INSTANCE.getErrorBuilder();
 	}
 	
 	private NetworkImportTask buildImportTask() throws IOException, NdexException {
 		UUID uuid = validateImportParameters(params);
 		
+		final NetworkImportTask task;
 		if (params.username != null && params.password != null) {
-			return new NetworkImportTask(params.username, params.password, params.serverUrl, uuid,
-					params.accessKey);
+			task = new NetworkImportTask(params.username, params.password, params.serverUrl, uuid,
+					params.accessKey, summary);
+		} else {
+			task = new NetworkImportTask(params.serverUrl, uuid, params.accessKey, params.idToken, summary);
+		}
+		task.setPreview(isPreview());
+		task.setAspects(params.aspects);
+		if (params.query != null && !params.query.trim().isEmpty()) {
+			task.setQuery(params.query.trim(), params.queryType, params.queryDepth == null ? 1 : params.queryDepth,
+					params.queryEdgeLimit);
 		}
-		return new NetworkImportTask(params.serverUrl, uuid, params.accessKey, params.idToken);
+		return task;
 	}
 	
 	@Override
 	public TaskIterator createTaskIterator() {		
 		try {
 			importer = buildImportTask();
+			if (isPreview()) {
+				return new TaskIterator(importer, new AbstractTask() {
+					@Override
+					public void run(TaskMonitor taskMonitor) {
+						final Long suid = importer.getResults(Long.class);
+						if (suid == null) {
+							return;
+						}
+						// Remembered for the upgrade to the full network
+						final CyNetwork network = CyServiceModule.getService(CyNetworkManager.class).getNetwork(suid);
+						PreviewNetworks.INSTANCE.add(network, params, importer.getNetworkSummary());
+					}
+				});
+			}
 			return new TaskIterator(importer);
 		} catch (IOException | NdexException e) {
 			final String message = "Failed to connect to server and retrieve network. " + e.getMessage();
@@ -59,6 +97,22 @@ public class NDExImportTaskFactory extends AbstractTaskFactory {
 			final String message = "Must provide a uuid to import a network";
 			throw errorBuilder.buildException(Status.BAD_REQUEST, message, ErrorType.INVALID_PARAMETERS);
 		}
+		if (params.queryType != null && !params.queryType.equals(QueryCxStream.NEIGHBORHOOD)
+				&& !params.queryType.equals(QueryCxStream.INTERCONNECT)) {
+			final String message = "Invalid query type: " + params.queryType + ". Must be "
+					+ QueryCxStream.NEIGHBORHOOD + " or " + QueryCxStream.INTERCONNECT;
+			throw errorBuilder.buildException(Status.BAD_REQUEST, message, ErrorType.INVALID_PARAMETERS);
+		}
+		if (params.queryDepth != null && (params.queryDepth < 1 || params.queryDepth > 2)) {
+			final String message = "Invalid query depth: " + params.queryDepth + ". Must be 1 or 2";
+			throw errorBuilder.buildException(Status.BAD_REQUEST, message, ErrorType.INVALID_PARAMETERS);
+		}
+		if (isPreview() && ((params.aspects != null && !params.aspects.isEmpty())
+				|| (params.query != null && !params.query.trim().isEmpty()))) {
+			final String message = "A preview imports the NDEx sample of the network, so it cannot be combined "
+					+ "with aspects or a query";
+			throw errorBuilder.buildException(Status.BAD_REQUEST, message, ErrorType.INVALID_PARAMETERS);
+		}
 		try {
 			return UUID.fromString(params.uuid);
 		}catch (IllegalArgumentException e) {
@@ -67,6 +121,10 @@ public class NDExImportTaskFactory extends AbstractTaskFactory {
 		}
 	}
 	
+	private boolean isPreview() {
+		return params != null && Boolean.TRUE.equals(params.preview);
+	}
+
 	public long getSUID() {
 		return importer.getSUID();
 	}
@@ -34,7 +34,12 @@ import java.util.UUID;
 import org.cytoscape.cyndex2.internal.CyActivator;
 import org.cytoscape.cyndex2.internal.CyServiceModule;
 import org.cytoscape.cyndex2.internal.rest.parameter.NDExBasicSaveParameters;
+import org.cytoscape.cyndex2.internal.rest.response.TaskTrace;
+import org.cytoscape.cyndex2.internal.util.CountingInputStream;
+import org.cytoscape.cyndex2.internal.util.Metrics;
 import org.cytoscape.cyndex2.internal.util.NetworkUUIDManager;
+import org.cytoscape.cyndex2.internal.util.RecordingTaskMonitor;
+import org.cytoscape.cyndex2.internal.util.TransferProgress;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkManager;
 import org.cytoscape.model.subnetwork.CyRootNetwork;
@@ -50,7 +55,11 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 
 public class NetworkExportTask extends AbstractTask implements ObservableTask{
 
+	static final String TRACE_TYPE = "export";
+
 	private final InputStream cxStream;
+	private final long cxLength;
+	private final RecordingTaskMonitor recorder;
 	private final NDExBasicSaveParameters params;
 	private final Long suid;
 	private final boolean isUpdate;
@@ -58,15 +67,34 @@ public class NetworkExportTask extends AbstractTask implements ObservableTask{
 	private final boolean writeCollection;
 	
 	private UUID networkUUID = null;
+
+	private static final String PHASE_UPLOAD = "cx_upload";
+
+	// Share of the progress bar before and after uploading the CX
+	private static final double PROGRESS_UPLOAD_START = 0.1;
+	private static final double PROGRESS_UPLOAD_END = 0.9;
 	
 	
 	public NetworkExportTask(Long suid, InputStream cxStream, NDExBasicSaveParameters params, boolean writeCollection, boolean isUpdate) throws JsonProcessingException, IOException, NdexException 
 			 {
+		this(suid, cxStream, -1, params, writeCollection, isUpdate,
+				new RecordingTaskMonitor(TRACE_TYPE, String.valueOf(suid)));
+	}
+
+	/**
+	 * @param cxLength length of the CX in bytes, or -1 if unknown
+	 * @param recorder trace of the export, which this task finishes
+	 */
+	public NetworkExportTask(Long suid, InputStream cxStream, long cxLength, NDExBasicSaveParameters params,
+			boolean writeCollection, boolean isUpdate, RecordingTaskMonitor recorder)
+			throws JsonProcessingException, IOException, NdexException {
 		super();
 		this.params = params;
 		this.writeCollection = writeCollection;
 		this.isUpdate = isUpdate;
 		this.cxStream = cxStream;
+		this.cxLength = cxLength;
+		this.recorder = recorder;
 		this.suid = suid;
 
 		NdexRestClient client = new NdexRestClient(params.username, params.password, params.serverUrl,
@@ -86,6 +114,21 @@ public class NetworkExportTask extends AbstractTask implements ObservableTask{
 	
 	@Override
 	public void run(TaskMonitor taskMonitor) throws NetworkExportException, InvocationTargetException, InterruptedException, IOException {
+		final Metrics.Gauge activeJobs = Metrics.INSTANCE.activeJobs(TRACE_TYPE);
+		activeJobs.inc();
+		recorder.setDelegate(taskMonitor);
+		try {
+			runExport(recorder);
+			recorder.finish(cancelled ? TaskTrace.CANCELLED : TaskTrace.COMPLETED, null);
+		} catch (IOException | RuntimeException e) {
+			recorder.finish(TaskTrace.FAILED, e.getMessage());
+			throw e;
+		} finally {
+			activeJobs.dec();
+		}
+	}
+
+	private void runExport(RecordingTaskMonitor taskMonitor) throws NetworkExportException, IOException {
 		networkUUID = null;
 		taskMonitor.setTitle("Exporting CX network to NDEx...");
 		CyNetworkManager net_manager = CyServiceModule.getService(CyNetworkManager.class);
@@ -113,18 +156,35 @@ public class NetworkExportTask extends AbstractTask implements ObservableTask{
 			if (cancelled) {
 				return;
 			}
-			taskMonitor.setProgress(.5);
+			taskMonitor.setProgress(PROGRESS_UPLOAD_START);
 			taskMonitor.setStatusMessage("Uploading network to NDEx");
 			
-			if (!isUpdate) {
-				networkUUID = mal.createCXNetwork(cxStream);
-				NetworkUUIDManager.saveUUID(network, networkUUID);
-			} else {
-				networkUUID = NetworkUUIDManager.getUUID(network);
-				if (networkUUID == null) {
-					throw new NetworkUpdateException("No UUID found for " + network);
+			final RecordingTaskMonitor.Span span = taskMonitor.startSpan(PHASE_UPLOAD);
+			final TransferProgress transfer = new TransferProgress("Uploading", cxLength);
+			final InputStream uploadStream = new CountingInputStream(cxStream, Metrics.INSTANCE.bytesUploaded(),
+					bytes -> {
+						span.setBytes(bytes);
+						if (transfer.update(bytes)) {
+							if (transfer.getFraction() >= 0) {
+								taskMonitor.setProgress(PROGRESS_UPLOAD_START
+										+ (PROGRESS_UPLOAD_END - PROGRESS_UPLOAD_START) * transfer.getFraction());
+							}
+							taskMonitor.reportTransfer(transfer);
+						}
+					});
+			try {
+				if (!isUpdate) {
+					networkUUID = mal.createCXNetwork(uploadStream);
+					NetworkUUIDManager.saveUUID(network, networkUUID);
+				} else {
+					networkUUID = NetworkUUIDManager.getUUID(network);
+					if (networkUUID == null) {
+						throw new NetworkUpdateException("No UUID found for " + network);
+					}
+					mal.updateCXNetwork(networkUUID, uploadStream);
 				}
-				mal.updateCXNetwork(networkUUID, cxStream);
+			} finally {
+				span.end();
 			}
 		} catch (NetworkUpdateException e) {
 			e.printStackTrace();
@@ -145,7 +205,7 @@ public class NetworkExportTask extends AbstractTask implements ObservableTask{
 		if (networkUUID == null) {
 			throw new NetworkExportException("There was a problem exporting the network! No UUID found.");
 		}
-		taskMonitor.setProgress(.9);
+		taskMonitor.setProgress(PROGRESS_UPLOAD_END);
 		taskMonitor.setStatusMessage("Saving changes to network in Cytoscape");
 
 		//TODO : Update... metadata? any aspects need updating? Apply metadata?
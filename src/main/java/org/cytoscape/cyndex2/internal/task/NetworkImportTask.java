@@ -28,18 +28,38 @@ package org.cytoscape.cyndex2.internal.task;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
 import java.util.UUID;
 
 import javax.swing.SwingUtilities;
 
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+
 import org.cytoscape.cyndex2.internal.CxTaskFactoryManager;
 import org.cytoscape.cyndex2.internal.CyActivator;
 import org.cytoscape.cyndex2.internal.CyServiceModule;
-import org.cytoscape.cyndex2.internal.util.HeadlessTaskMonitor;
+import org.cytoscape.cyndex2.internal.rest.response.TaskTrace;
+import org.cytoscape.cyndex2.internal.util.BulkImportEvents;
+import org.cytoscape.cyndex2.internal.util.CountingInputStream;
+import org.cytoscape.cyndex2.internal.util.LocalNetworkIndex;
+import org.cytoscape.cyndex2.internal.util.Metrics;
+import org.cytoscape.cyndex2.internal.util.NetworkUUIDManager;
+import org.cytoscape.cyndex2.internal.util.RecordingTaskMonitor;
+import org.cytoscape.cyndex2.internal.util.ResponseBodyStream;
+import org.cytoscape.cyndex2.internal.util.TransferProgress;
+import org.cytoscape.cyndex2.internal.util.ValidationCache;
 import org.cytoscape.io.read.AbstractCyNetworkReader;
 import org.cytoscape.io.read.InputStreamTaskFactory;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyRow;
 import org.cytoscape.work.AbstractTask;
 import org.cytoscape.work.ObservableTask;
 import org.cytoscape.work.TaskIterator;
@@ -51,14 +71,64 @@ import org.ndexbio.rest.client.NdexRestClientModelAccessLayer;
 
 public class NetworkImportTask extends AbstractTask implements ObservableTask {
 
+	// Aspects downloaded at once, at most
+	private static final int MAX_DOWNLOADS = 8;
+
+	// Used for conditional CX requests and aspect downloads, which the NDEx
+	// client cannot send
+	private static final CloseableHttpClient HTTP_CLIENT = HttpClients.custom().useSystemProperties()
+			.setMaxConnPerRoute(MAX_DOWNLOADS).setMaxConnTotal(2 * MAX_DOWNLOADS).build();
+
+	private static final String TRACE_TYPE = "import";
+	private static final String PHASE_SUMMARY = "summary_fetch";
+	private static final String PHASE_CX_READ = "cx_read";
+	private static final String PHASE_REGISTRATION = "network_registration";
+	private static final String PHASE_VIEW = "view_build";
+
+	// Appended to the names of networks imported from NDEx samples
+	public static final String PREVIEW_SUFFIX = " (preview)";
+
+	// Networks with more nodes and edges are imported without a view
+	public static final String VIEW_THRESHOLD_PROPERTY = "cyndex2.import.viewThreshold";
+	private static final String CYTOSCAPE_VIEW_THRESHOLD_PROPERTY = "viewThreshold";
+	private static final long DEFAULT_VIEW_THRESHOLD = 100000;
+
+	// Aspects downloaded concurrently, and the memory they may use before
+	// spilling to temporary files
+	public static final String PARALLEL_DOWNLOADS_PROPERTY = "cyndex2.import.parallelDownloads";
+	public static final String DOWNLOAD_MEMORY_PROPERTY = "cyndex2.import.downloadMemoryMB";
+	private static final long DEFAULT_DOWNLOAD_MEMORY_MB = 64;
+
+	// Share of the progress bar before and after reading the CX
+	private static final double PROGRESS_READ_START = 0.05;
+	private static final double PROGRESS_READ_END = 0.7;
+
 	final NdexRestClientModelAccessLayer mal;
 	final NetworkSummary networkSummary;
 	private Long suid = null;
 	private String accessKey = null;
+	private String serverUrl = null;
+	private boolean anonymous = false;
+	private String authorization = null;
+	private List<String> aspects = null;
+	private String query = null;
+	private String queryType = null;
+	private int queryDepth = 1;
+	private Integer queryEdgeLimit = null;
+	private boolean preview = false;
+	private final RecordingTaskMonitor recorder;
 	protected InputStream cxStream;
 
 	public NetworkImportTask(String userId, String password, String serverUrl, UUID uuid, String accessKey)
 			throws IOException, NdexException {
+		this(userId, password, serverUrl, uuid, accessKey, null);
+	}
+
+	/**
+	 * @param summary summary of the network fetched earlier, or null to fetch it
+	 */
+	public NetworkImportTask(String userId, String password, String serverUrl, UUID uuid, String accessKey,
+			NetworkSummary summary) throws IOException, NdexException {
 		super();
 		if (serverUrl == null) {
 			serverUrl = "http://ndexbio.org/v2/";
@@ -66,21 +136,52 @@ public class NetworkImportTask extends AbstractTask implements ObservableTask {
 		NdexRestClient client = new NdexRestClient(userId, password, serverUrl,
 				CyActivator.getAppName() + "/" + CyActivator.getAppVersion());
 		mal = new NdexRestClientModelAccessLayer(client);
-		networkSummary = mal.getNetworkSummaryById(uuid, accessKey);
+		recorder = new RecordingTaskMonitor(TRACE_TYPE, uuid.toString());
+		if (summary == null) {
+			try (RecordingTaskMonitor.Span span = recorder.startSpan(PHASE_SUMMARY)) {
+				summary = mal.getNetworkSummaryById(uuid, accessKey);
+			}
+		}
+		networkSummary = summary;
 		this.accessKey = accessKey;
+		this.serverUrl = serverUrl;
+		this.anonymous = (userId == null || userId.isEmpty()) && accessKey == null;
+		if (userId != null && !userId.isEmpty()) {
+			this.authorization = "Basic " + Base64.getEncoder()
+					.encodeToString((userId + ":" + password).getBytes(StandardCharsets.UTF_8));
+		}
 		cxStream = null;
 	}
 
 	public NetworkImportTask(String serverUrl, UUID uuid, String accessKey, String idToken)
 			throws IOException, NdexException {
+		this(serverUrl, uuid, accessKey, idToken, null);
+	}
+
+	/**
+	 * @param summary summary of the network fetched earlier, or null to fetch it
+	 */
+	public NetworkImportTask(String serverUrl, UUID uuid, String accessKey, String idToken, NetworkSummary summary)
+			throws IOException, NdexException {
 		super();
 		NdexRestClient client = new NdexRestClient(null, null, serverUrl,
 				CyActivator.getAppName() + "/" + CyActivator.getAppVersion());
 		if (idToken != null)
 			client.signIn(idToken);
 		mal = new NdexRestClientModelAccessLayer(client);
-		networkSummary = mal.getNetworkSummaryById(uuid, accessKey);
+		recorder = new RecordingTaskMonitor(TRACE_TYPE, uuid.toString());
+		if (summary == null) {
+			try (RecordingTaskMonitor.Span span = recorder.startSpan(PHASE_SUMMARY)) {
+				summary = mal.getNetworkSummaryById(uuid, accessKey);
+			}
+		}
+		networkSummary = summary;
 		this.accessKey = accessKey;
+		this.serverUrl = serverUrl;
+		this.anonymous = idToken == null && accessKey == null;
+		if (idToken != null) {
+			this.authorization = "Bearer " + idToken;
+		}
 		cxStream = null;
 	}
 
@@ -88,11 +189,27 @@ public class NetworkImportTask extends AbstractTask implements ObservableTask {
 		super();
 		networkSummary = null;
 		mal = null;
+		recorder = new RecordingTaskMonitor(TRACE_TYPE, "stream");
 		cxStream = in;
 	}
 
 	@Override
 	public void run(TaskMonitor taskMonitor) throws NetworkImportException {
+		final Metrics.Gauge activeJobs = Metrics.INSTANCE.activeJobs(TRACE_TYPE);
+		activeJobs.inc();
+		recorder.setDelegate(taskMonitor);
+		try {
+			runImport(recorder);
+			recorder.finish(cancelled ? TaskTrace.CANCELLED : TaskTrace.COMPLETED, null);
+		} catch (NetworkImportException | RuntimeException e) {
+			recorder.finish(TaskTrace.FAILED, e.getMessage());
+			throw e;
+		} finally {
+			activeJobs.dec();
+		}
+	}
+
+	private void runImport(RecordingTaskMonitor taskMonitor) throws NetworkImportException {
 
 		// For entire network, we will query again, hence will check
 		// credential
@@ -100,59 +217,166 @@ public class NetworkImportTask extends AbstractTask implements ObservableTask {
 		// if (success) {
 		try {
 			taskMonitor.setStatusMessage("Fetching network from NDEx");
-			if (cxStream == null) {
-				UUID id = networkSummary.getExternalId();
-				if (accessKey == null)
-					cxStream = mal.getNetworkAsCXStream(id);
-				else
-					cxStream = mal.getNetworkAsCXStream(id, accessKey);
+			taskMonitor.setProgress(PROGRESS_READ_START);
+			final int downloads = (int) Math.min(MAX_DOWNLOADS,
+					CyActivator.getLongProperty(PARALLEL_DOWNLOADS_PROPERTY, 1));
+			final boolean runPreview = cxStream == null && preview;
+			final boolean runQuery = cxStream == null && !preview && query != null;
+			final boolean selectAspects = cxStream == null && !preview && aspects != null && !aspects.isEmpty();
+			if (runPreview) {
+				cxStream = openSampleStream(networkSummary.getExternalId());
+			} else if (runQuery) {
+				// The result streams into the reader as NDEx produces it
+				cxStream = new QueryCxStream(HTTP_CLIENT, serverUrl, networkSummary.getExternalId(), accessKey,
+						authorization).open(query, queryType, queryDepth, queryEdgeLimit);
+			} else if (cxStream == null && (selectAspects || downloads > 1)) {
+				final AspectCxStream aspectStream = new AspectCxStream(HTTP_CLIENT, serverUrl,
+						networkSummary.getExternalId(), accessKey, authorization);
+				// Null aspects download the whole network aspect by aspect
+				cxStream = downloads > 1 ? aspectStream.open(selectAspects ? aspects : null, downloads,
+						CyActivator.getLongProperty(DOWNLOAD_MEMORY_PROPERTY, DEFAULT_DOWNLOAD_MEMORY_MB) << 20)
+						: aspectStream.open(aspects);
+			} else if (cxStream == null) {
+				cxStream = openCxStream(networkSummary.getExternalId());
 			}
 			if (cxStream == null) {
 				throw new NdexException("Unable to get network as CX stream");
 			}
-			taskMonitor.setProgress(.4);
 			
 			final InputStreamTaskFactory cxReaderFactory = 
 					CxTaskFactoryManager.INSTANCE.getCxReaderFactory();
 			
-			taskMonitor.setStatusMessage("Importing network with CX Reader");
-			TaskIterator ti = cxReaderFactory.createTaskIterator(cxStream, null);
+			if (runPreview) {
+				taskMonitor.setStatusMessage(String.format(
+						"Importing NDEx sample of %s with CX Reader (full network: %d nodes, %d edges)",
+						networkSummary.getName(), networkSummary.getNodeCount(), networkSummary.getEdgeCount()));
+			} else if (runQuery) {
+				taskMonitor.setStatusMessage(String.format("Importing %s query result for '%s' with CX Reader",
+						queryType, query));
+			} else if (networkSummary != null) {
+				taskMonitor.setStatusMessage(String.format("Importing network with CX Reader (%d nodes, %d edges)",
+						networkSummary.getNodeCount(), networkSummary.getEdgeCount()));
+			} else {
+				taskMonitor.setStatusMessage("Importing network with CX Reader");
+			}
+			// Transfer and parsing overlap, since the reader consumes the stream
+			final RecordingTaskMonitor.Span readSpan = taskMonitor.startSpan(PHASE_CX_READ);
+			// The summary has the size of all aspects of the whole network
+			final TransferProgress transfer = new TransferProgress("Downloading",
+					networkSummary == null || selectAspects || runQuery || runPreview ? 0
+							: networkSummary.getCxFileSize());
+			final InputStream countedStream = new CountingInputStream(cxStream, null, bytes -> {
+				readSpan.setBytes(bytes);
+				if (transfer.update(bytes)) {
+					if (transfer.getFraction() >= 0) {
+						taskMonitor.setProgress(PROGRESS_READ_START
+								+ (PROGRESS_READ_END - PROGRESS_READ_START) * transfer.getFraction());
+					}
+					taskMonitor.reportTransfer(transfer);
+				}
+			});
+			// The size of a whole network is known before it is read
+			final BulkImportEvents events = BulkImportEvents.start(networkSummary == null || selectAspects
+					|| runQuery || runPreview ? -1 : (long) networkSummary.getNodeCount() + networkSummary.getEdgeCount());
+			TaskIterator ti = cxReaderFactory.createTaskIterator(countedStream, null);
 			AbstractCyNetworkReader task = (AbstractCyNetworkReader) ti.next();
-			SwingUtilities.invokeAndWait(new Runnable() {
+			final Exception[] readError = new Exception[1];
+			try {
+				SwingUtilities.invokeAndWait(new Runnable() {
+					
+					@Override
+					public void run() {
+						try {
+							task.run(taskMonitor.nested());
+						} catch (Exception e) {
+							readError[0] = e;
+						}
+					}
+				});
 				
-				@Override
-				public void run() {
-					try {
-						task.run(new HeadlessTaskMonitor());
-					} catch (Exception e) {
-						e.printStackTrace();
+				// The rest of the body is only worth reading when it completes a cached copy
+				if (readError[0] == null && !cancelled && ValidationCache.isCaching(cxStream)) {
+					finishStream(countedStream);
+				} else {
+					closeStream(countedStream);
+				}
+				if (readError[0] == null) {
+					for (CyNetwork network : task.getNetworks()) {
+						readSpan.addElements(network.getNodeCount() + network.getEdgeCount());
 					}
 				}
-			});
-			
+			} finally {
+				readSpan.end();
+			}
+
 			if (cancelled) {
 				return;
 			}
+			if (readError[0] != null) {
+				throw new NdexException("The CX reader failed: " + readError[0].getMessage());
+			}
 			
-			taskMonitor.setProgress(.7);
-			
+			taskMonitor.setProgress(PROGRESS_READ_END);
+			taskMonitor.reportTransfer(transfer);
 			
 			CyNetworkManager network_manager = CyServiceModule.getService(CyNetworkManager.class);
-			int i = 1;
+			long totalElements = 0;
 			for (CyNetwork network : task.getNetworks()) {
-				if (cancelled) {
-					return;
+				totalElements += network.getNodeCount() + network.getEdgeCount();
+			}
+			// The summary has the size of the whole NDEx network
+			final long viewThreshold = getViewThreshold();
+			final long networkElements = networkSummary == null || runQuery || runPreview ? totalElements
+					: (long) networkSummary.getNodeCount() + networkSummary.getEdgeCount();
+			final boolean createViews = viewThreshold < 0 || networkElements <= viewThreshold;
+			long doneElements = 0;
+			int i = 1;
+			// Listeners are told about the finished networks, not every row
+			try (BulkImportEvents silenced = events.add(task.getNetworks())) {
+				for (CyNetwork network : task.getNetworks()) {
+					if (cancelled) {
+						return;
+					}
+					final long elements = network.getNodeCount() + network.getEdgeCount();
+					taskMonitor.setStatusMessage(String.format("Registering network %s/%s...", i, task.getNetworks().length));
+					if (runPreview) {
+						tagPreview(network);
+					}
+					try (RecordingTaskMonitor.Span span = taskMonitor.startSpan(PHASE_REGISTRATION)) {
+						network_manager.addNetwork(network);
+						span.addElements(elements);
+					}
+					if (createViews) {
+						try (RecordingTaskMonitor.Span span = taskMonitor.startSpan(PHASE_VIEW)) {
+							task.buildCyNetworkView(network);
+							span.addElements(elements);
+						}
+					}
+					doneElements += elements;
+					if (totalElements > 0) {
+						taskMonitor.setProgress(PROGRESS_READ_END + (1.0 - PROGRESS_READ_END) * doneElements / totalElements);
+					}
+					i++;
 				}
-				taskMonitor.setStatusMessage(String.format("Registering network %s/%s...", i, task.getNetworks().length));
-				network_manager.addNetwork(network);
-				task.buildCyNetworkView(network);
-				i++;
 			}
-			taskMonitor.setProgress(.9);
+			if (!createViews) {
+				taskMonitor.showMessage(TaskMonitor.Level.WARN, String.format(
+						"The network has %d nodes and edges, more than the view threshold of %d, so no view was created. "
+								+ "Use Edit > Create View to create one.",
+						networkElements, viewThreshold));
+			}
+			if (runPreview) {
+				taskMonitor.showMessage(TaskMonitor.Level.INFO, String.format(
+						"This is a preview of %s made from the sample kept by NDEx. Right-click it in the Network panel "
+								+ "and choose %s to replace it with the full network.",
+						networkSummary.getName(), UpgradePreviewTaskFactory.TITLE));
+			}
 			suid = task.getNetworks()[0].getSUID();
+			LocalNetworkIndex.INSTANCE.add(networkSummary);
 			
 		} catch (IOException ex) {
-			throw new NetworkImportException("Failed to parse JSON from NDEx source.");
+			// Query and aspect downloads carry the NDEx error in the message
+			throw new NetworkImportException("Failed to read network from NDEx: " + ex.getMessage());
 		} catch (RuntimeException ex2) {
 			ex2.printStackTrace();
 			throw new NetworkImportException(ex2.getMessage());
@@ -163,6 +387,167 @@ public class NetworkImportTask extends AbstractTask implements ObservableTask {
 		}
 	}
 	
+	/**
+	 * Imports only the given CX aspects, fetched one by one from NDEx, instead
+	 * of the whole network. Null or empty imports all aspects.
+	 */
+	public void setAspects(List<String> aspects) {
+		this.aspects = aspects;
+	}
+
+	/**
+	 * Imports only the result of a neighborhood or interconnect query run by
+	 * NDEx, instead of the whole network.
+	 *
+	 * @param query     genes or other terms, separated by spaces
+	 * @param type      {@link QueryCxStream#NEIGHBORHOOD} or
+	 *                  {@link QueryCxStream#INTERCONNECT}
+	 * @param depth     number of steps from the matching nodes
+	 * @param edgeLimit most edges in the result, or null for the server's limit
+	 */
+	public void setQuery(String query, String type, int depth, Integer edgeLimit) {
+		this.query = query;
+		this.queryType = type == null ? QueryCxStream.NEIGHBORHOOD : type;
+		this.queryDepth = depth;
+		this.queryEdgeLimit = edgeLimit;
+	}
+
+	/**
+	 * Imports the sample NDEx keeps of large networks instead of the whole
+	 * network. The networks are named and tagged as previews of the NDEx
+	 * network, but not with its UUID, so they cannot be saved over it.
+	 */
+	public void setPreview(boolean preview) {
+		this.preview = preview;
+	}
+
+	public NetworkSummary getNetworkSummary() {
+		return networkSummary;
+	}
+
+	/**
+	 * Returns the number of nodes and edges above which networks are imported
+	 * without a view, visual style or layout: cyndex2.import.viewThreshold, or
+	 * else Cytoscape's own viewThreshold. A negative value always creates views.
+	 */
+	static long getViewThreshold() {
+		return CyActivator.getLongProperty(VIEW_THRESHOLD_PROPERTY,
+				CyActivator.getLongProperty(CYTOSCAPE_VIEW_THRESHOLD_PROPERTY, DEFAULT_VIEW_THRESHOLD));
+	}
+
+	/**
+	 * Opens the CX of the network, reusing the copy in the validation cache when
+	 * it is still current. Anonymous requests are validated by NDEx with ETag /
+	 * Last-Modified. Otherwise, or when NDEx sent no validators, the cached copy
+	 * is used while its modification time matches the network summary.
+	 */
+	private InputStream openCxStream(UUID id) throws IOException, NdexException {
+		final ValidationCache cache = ValidationCache.INSTANCE;
+		final String baseUrl = serverUrl.endsWith("/") ? serverUrl.substring(0, serverUrl.length() - 1) : serverUrl;
+		final String key = baseUrl + "/network/" + id;
+		final long modified = networkSummary.getModificationTime() == null ? 0
+				: networkSummary.getModificationTime().getTime();
+
+		// Networks too large for the cache stream straight to the reader
+		final boolean cacheable = cache.accepts(networkSummary.getCxFileSize());
+
+		final ValidationCache.Entry stored = cache.lookup(key);
+		if (stored != null && modified > 0 && stored.modificationTime == modified
+				&& (!anonymous || !stored.hasValidators())) {
+			return cache.open(stored, false);
+		}
+
+		if (anonymous) {
+			final HttpGet httpget = new HttpGet(key);
+			httpget.setHeader(HttpHeaders.USER_AGENT, CyActivator.getAppName() + "/" + CyActivator.getAppVersion());
+			if (stored != null) {
+				stored.addValidators(httpget);
+			}
+			try {
+				final CloseableHttpResponse response = HTTP_CLIENT.execute(httpget);
+				final int code = response.getStatusLine().getStatusCode();
+				if (stored != null && code == HttpStatus.SC_NOT_MODIFIED) {
+					response.close();
+					return cache.open(stored, true);
+				}
+				if (code == HttpStatus.SC_OK) {
+					final InputStream body = new CountingInputStream(new ResponseBodyStream(response),
+							Metrics.INSTANCE.bytesDownloaded());
+					return cacheable ? cache.cache(key, response, modified, body) : body;
+				}
+				response.close();
+			} catch (IOException e) {
+				// Let the NDEx client retry and report the error
+			}
+		}
+
+		final InputStream in = accessKey == null ? mal.getNetworkAsCXStream(id) : mal.getNetworkAsCXStream(id, accessKey);
+		if (in == null) {
+			return null;
+		}
+		final InputStream body = new CountingInputStream(in, Metrics.INSTANCE.bytesDownloaded());
+		return cacheable ? cache.cache(key, null, null, modified, body) : body;
+	}
+
+	/**
+	 * Opens the sample of the network, which NDEx only keeps for large networks.
+	 */
+	private InputStream openSampleStream(UUID id) throws IOException, NdexException {
+		final String baseUrl = serverUrl.endsWith("/") ? serverUrl.substring(0, serverUrl.length() - 1) : serverUrl;
+		final HttpGet httpget = new HttpGet(
+				baseUrl + "/network/" + id + "/sample" + (accessKey == null ? "" : "?accesskey=" + accessKey));
+		httpget.setHeader(HttpHeaders.USER_AGENT, CyActivator.getAppName() + "/" + CyActivator.getAppVersion());
+		if (authorization != null) {
+			httpget.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+		}
+		final CloseableHttpResponse response = HTTP_CLIENT.execute(httpget);
+		final int code = response.getStatusLine().getStatusCode();
+		if (code == HttpStatus.SC_OK && response.getEntity() != null) {
+			// Closing the content stream releases the connection
+			return new CountingInputStream(response.getEntity().getContent(), Metrics.INSTANCE.bytesDownloaded());
+		}
+		response.close();
+		if (code == HttpStatus.SC_OK || code == HttpStatus.SC_NO_CONTENT || code == HttpStatus.SC_NOT_FOUND) {
+			throw new NdexException("NDEx has no sample of " + networkSummary.getName()
+					+ ". Samples are only kept for large networks, so import the whole network instead.");
+		}
+		throw new NdexException("NDEx could not send the sample of " + networkSummary.getName() + " (status "
+				+ code + ")");
+	}
+
+	/**
+	 * Marks a network as a preview of the NDEx network.
+	 */
+	private void tagPreview(CyNetwork network) {
+		NetworkUUIDManager.savePreviewUUID(network, networkSummary.getExternalId());
+		final CyRow row = network.getRow(network);
+		final String name = row.get(CyNetwork.NAME, String.class);
+		row.set(CyNetwork.NAME, (name == null || name.isEmpty() ? networkSummary.getName() : name) + PREVIEW_SUFFIX);
+	}
+
+	/**
+	 * Reads the rest of the CX and closes it, so that a copy being written to
+	 * the validation cache is complete.
+	 */
+	private static void finishStream(InputStream in) {
+		final byte[] buffer = new byte[8192];
+		try {
+			while (in.read(buffer) >= 0) {
+			}
+			in.close();
+		} catch (IOException e) {
+			// The network has been read; only the cached copy is lost
+		}
+	}
+
+	private static void closeStream(InputStream in) {
+		try {
+			in.close();
+		} catch (IOException e) {
+			// Nothing more is read from it
+		}
+	}
+
 	@Override
 	public void cancel() {
 		super.cancel();
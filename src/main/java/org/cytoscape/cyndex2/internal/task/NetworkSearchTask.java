@@ -0,0 +1,59 @@
+package org.cytoscape.cyndex2.internal.task;
+
+import java.io.IOException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.swing.SwingUtilities;
+
+import org.cytoscape.cyndex2.internal.rest.NdexSearchClient;
+import org.cytoscape.cyndex2.internal.rest.NetworkSearchResult;
+import org.cytoscape.cyndex2.internal.ui.SearchResultsDialog;
+import org.cytoscape.cyndex2.internal.util.LocalNetworkIndex;
+import org.cytoscape.work.AbstractTask;
+import org.cytoscape.work.TaskMonitor;
+
+/**
+ * Searches NDEx in-process and shows the first page of results in the native
+ * results dialog. If NDEx cannot be reached, matches from the local network
+ * index are shown instead. The search client is looked up when the task runs,
+ * since it may still be being created and the task is created on the EDT.
+ */
+public class NetworkSearchTask extends AbstractTask {
+
+	private final Supplier<NdexSearchClient> clientSupplier;
+	private final String query;
+	private final Function<NdexSearchClient, SearchResultsDialog> dialogSupplier;
+
+	public NetworkSearchTask(final Supplier<NdexSearchClient> clientSupplier, final String query,
+			final Function<NdexSearchClient, SearchResultsDialog> dialogSupplier) {
+		this.clientSupplier = clientSupplier;
+		this.query = query;
+		this.dialogSupplier = dialogSupplier;
+	}
+
+	@Override
+	public void run(TaskMonitor taskMonitor) throws Exception {
+		taskMonitor.setTitle("Searching NDEx");
+		final NdexSearchClient client = clientSupplier.get();
+		taskMonitor.setStatusMessage("Searching " + client.getServerUrl() + " for '" + query + "'");
+
+		final NetworkSearchResult result;
+		try {
+			result = client.search(query, 0, NdexSearchClient.PAGE_SIZE);
+		} catch (IOException e) {
+			final NetworkSearchResult local = LocalNetworkIndex.INSTANCE.search(query, NdexSearchClient.PAGE_SIZE);
+			if (local.numFound == 0) {
+				throw e;
+			}
+			taskMonitor.setStatusMessage("NDEx is unreachable, showing previously seen networks");
+			SwingUtilities.invokeLater(() -> dialogSupplier.apply(client).showLocalResults(query, local));
+			return;
+		}
+		if (cancelled) {
+			return;
+		}
+		taskMonitor.setProgress(1.0);
+		SwingUtilities.invokeLater(() -> dialogSupplier.apply(client).showResults(query, result, 0));
+	}
+}
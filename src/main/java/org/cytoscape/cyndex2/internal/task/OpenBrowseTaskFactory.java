@@ -10,6 +10,7 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.function.Supplier;
 import javax.swing.BorderFactory;
 import javax.swing.Icon;
 import javax.swing.JComponent;
@@ -19,8 +20,13 @@ import javax.swing.JTextField;
 import javax.swing.JToolTip;
 import javax.swing.ToolTipManager;
 
+import org.cytoscape.application.swing.CySwingApplication;
 import org.cytoscape.application.swing.search.NetworkSearchTaskFactory;
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.cyndex2.internal.rest.NdexSearchClient;
 import org.cytoscape.cyndex2.internal.rest.parameter.LoadParameters;
+import org.cytoscape.cyndex2.internal.ui.SearchResultsDialog;
+import org.cytoscape.cyndex2.internal.ui.TypeaheadController;
 import org.cytoscape.cyndex2.internal.util.ExternalAppManager;
 import org.cytoscape.work.TaskIterator;
 import org.cytoscape.work.TaskObserver;
@@ -30,12 +36,17 @@ public class OpenBrowseTaskFactory extends OpenDialogTaskFactory implements Netw
 	private static final String ID = "cyndex2";
 	private static final String NAME = "NDEx - Network Search";
 	private final Icon icon;
+	// Created in the background during activation
+	private final Supplier<NdexSearchClient> searchClient;
+	private SearchResultsDialog resultsDialog;
+	private TypeaheadController typeahead;
 
 	private static Entry entry;
 
-	public OpenBrowseTaskFactory(final Icon icon) {
+	public OpenBrowseTaskFactory(final Icon icon, final Supplier<NdexSearchClient> searchClient) {
 		super(ExternalAppManager.APP_NAME_LOAD);
 		this.icon = icon;
+		this.searchClient = searchClient;
 	}
 
 	public static Entry getEntry() {
@@ -109,6 +120,16 @@ public class OpenBrowseTaskFactory extends OpenDialogTaskFactory implements Netw
 			return getForeground() == Color.GRAY ? "" : getText();
 		}
 
+		/**
+		 * Replaces the query and requests a search, e.g. when a typeahead
+		 * suggestion is chosen.
+		 */
+		public void search(String query) {
+			setForeground(Color.BLACK);
+			setText(query);
+			fireSearchRequested();
+		}
+
 		public void setDisabled(String message) {
 			setEnabled(false);
 			setText("Unable to start CyNDEx2");
@@ -161,7 +182,11 @@ public class OpenBrowseTaskFactory extends OpenDialogTaskFactory implements Netw
 
 	@Override
 	public JComponent getQueryComponent() {
-		return getEntry();
+		final Entry entry = getEntry();
+		if (typeahead == null) {
+			typeahead = new TypeaheadController(entry, entry::getQuery, searchClient, entry::search);
+		}
+		return entry;
 	}
 
 	public String getQuery() {
@@ -170,10 +195,26 @@ public class OpenBrowseTaskFactory extends OpenDialogTaskFactory implements Netw
 
 	@Override
 	public TaskIterator createTaskIterator() {
-		LoadParameters.INSTANCE.searchTerm = getQuery();
+		return new TaskIterator(new NetworkSearchTask(searchClient, getQuery(), this::getResultsDialog));
+	}
+
+	/**
+	 * Opens the CyNDEx-2 browser with the given search term.
+	 */
+	public TaskIterator createBrowserTaskIterator(String query) {
+		LoadParameters.INSTANCE.searchTerm = query;
 		return super.createTaskIterator();
 	}
 
+	private SearchResultsDialog getResultsDialog(final NdexSearchClient client) {
+		if (resultsDialog == null) {
+			final CySwingApplication swingApp = CyServiceModule.getService(CySwingApplication.class);
+			resultsDialog = new SearchResultsDialog(swingApp.getJFrame(), client,
+					this::createBrowserTaskIterator);
+		}
+		return resultsDialog;
+	}
+
 	@Override
 	public String getDescription() {
 		return "<html>The Network Data Exchange (NDEx) is a cloud-based database <br />"
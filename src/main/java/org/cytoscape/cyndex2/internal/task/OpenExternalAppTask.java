@@ -10,6 +10,8 @@ import javax.swing.SwingUtilities;
 import org.cytoscape.cyndex2.external.SaveParameters;
 import org.cytoscape.cyndex2.internal.CyActivator;
 import org.cytoscape.cyndex2.internal.util.ExternalAppManager;
+import org.cytoscape.cyndex2.internal.util.LocalWebApp;
+import org.cytoscape.cyndex2.internal.util.StartupTimings;
 import org.cytoscape.work.AbstractTask;
 import org.cytoscape.work.TaskMonitor;
 import org.slf4j.Logger;
@@ -17,6 +19,8 @@ import org.slf4j.LoggerFactory;
 
 import com.teamdev.jxbrowser.chromium.Browser;
 import com.teamdev.jxbrowser.chromium.JSValue;
+import com.teamdev.jxbrowser.chromium.events.FinishLoadingEvent;
+import com.teamdev.jxbrowser.chromium.events.LoadAdapter;
 import com.teamdev.jxbrowser.chromium.events.ScriptContextAdapter;
 import com.teamdev.jxbrowser.chromium.events.ScriptContextEvent;
 import com.teamdev.jxbrowser.chromium.swing.BrowserView;
@@ -73,9 +77,8 @@ public class OpenExternalAppTask extends AbstractTask {
 			return;
 		
 		StringBuilder urlStr = new StringBuilder();
-		urlStr.append("http://cyndex.ndexbio.org/");
-		urlStr.append(CyActivator.WEB_APP_VERSION);
-		urlStr.append("/index.html?cyrestport=");
+		urlStr.append(LocalWebApp.getIndexURL(port));
+		urlStr.append("?cyrestport=");
 		urlStr.append(port);
 
 		if (ExternalAppManager.appName.equals(ExternalAppManager.APP_NAME_SAVE)) {
@@ -97,6 +100,16 @@ public class OpenExternalAppTask extends AbstractTask {
 						}
 					} else {
 						Browser browser = initBrowser();
+						final StartupTimings.Phase loadPhase = StartupTimings.INSTANCE.start("browser.pageLoad");
+						browser.addLoadListener(new LoadAdapter() {
+							@Override
+							public void onFinishLoadingFrame(FinishLoadingEvent event) {
+								if (event.isMainFrame()) {
+									loadPhase.end();
+									browser.removeLoadListener(this);
+								}
+							}
+						});
 						browser.loadURL(url);
 
 						dialog.setVisible(true);
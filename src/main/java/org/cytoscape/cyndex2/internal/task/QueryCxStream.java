@@ -0,0 +1,108 @@
+package org.cytoscape.cyndex2.internal.task;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.cytoscape.cyndex2.internal.CyActivator;
+import org.cytoscape.cyndex2.internal.util.CountingInputStream;
+import org.cytoscape.cyndex2.internal.util.Metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs a neighborhood or interconnect query on an NDEx network and returns
+ * the CX of the matching subnetwork as NDEx streams it, through
+ * {@code POST /search/network/{id}/query} or
+ * {@code POST /search/network/{id}/interconnectquery}.
+ */
+public class QueryCxStream {
+
+	public static final String NEIGHBORHOOD = "neighborhood";
+	public static final String INTERCONNECT = "interconnect";
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final CloseableHttpClient client;
+	private final String searchUrl;
+	private final String accessKey;
+	private final String authorization;
+
+	/**
+	 * @param authorization value of the Authorization header, or null for
+	 *                      anonymous requests
+	 */
+	public QueryCxStream(final CloseableHttpClient client, final String serverUrl, final UUID id,
+			final String accessKey, final String authorization) {
+		final String baseUrl = serverUrl.endsWith("/") ? serverUrl.substring(0, serverUrl.length() - 1) : serverUrl;
+		this.client = client;
+		this.searchUrl = baseUrl + "/search/network/" + id;
+		this.accessKey = accessKey;
+		this.authorization = authorization;
+	}
+
+	/**
+	 * Returns the CX of the query result.
+	 *
+	 * @param searchString genes or other terms, separated by spaces
+	 * @param type         {@link #NEIGHBORHOOD} or {@link #INTERCONNECT}
+	 * @param depth        number of steps from the matching nodes
+	 * @param edgeLimit    most edges in the result, or null for the server's
+	 *                     limit
+	 */
+	public InputStream open(final String searchString, final String type, final int depth, final Integer edgeLimit)
+			throws IOException {
+		final String path = INTERCONNECT.equals(type) ? "/interconnectquery" : "/query";
+		final HttpPost httppost = new HttpPost(
+				searchUrl + path + (accessKey == null ? "" : "?accesskey=" + accessKey));
+		httppost.setHeader(HttpHeaders.USER_AGENT, CyActivator.getAppName() + "/" + CyActivator.getAppVersion());
+		if (authorization != null) {
+			httppost.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+		}
+		final Map<String, Object> query = new LinkedHashMap<>();
+		query.put("searchString", searchString);
+		query.put("searchDepth", depth);
+		if (edgeLimit != null) {
+			query.put("edgeLimit", edgeLimit);
+			query.put("errorWhenLimitIsOver", true);
+		}
+		httppost.setEntity(new ByteArrayEntity(MAPPER.writeValueAsBytes(query), ContentType.APPLICATION_JSON));
+
+		final CloseableHttpResponse response = client.execute(httppost);
+		final int code = response.getStatusLine().getStatusCode();
+		if (code != HttpStatus.SC_OK) {
+			final String message = getErrorMessage(response);
+			response.close();
+			throw new IOException("NDEx could not run the " + (type == null ? NEIGHBORHOOD : type) + " query"
+					+ (message == null ? " (status " + code + ")" : ": " + message));
+		}
+		// Closing the content stream releases the connection
+		return new CountingInputStream(response.getEntity().getContent(), Metrics.INSTANCE.bytesDownloaded());
+	}
+
+	/**
+	 * Returns the message of an NDEx error response, if it has one.
+	 */
+	private static String getErrorMessage(final CloseableHttpResponse response) {
+		try {
+			if (response.getEntity() == null) {
+				return null;
+			}
+			final JsonNode error = MAPPER.readTree(EntityUtils.toString(response.getEntity()));
+			return error != null && error.hasNonNull("message") ? error.get("message").asText() : null;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package org.cytoscape.cyndex2.internal.task;
+
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.cyndex2.internal.rest.parameter.NDExImportParameters;
+import org.cytoscape.cyndex2.internal.util.PreviewNetworks;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.task.NetworkTaskFactory;
+import org.cytoscape.work.AbstractTask;
+import org.cytoscape.work.TaskIterator;
+import org.cytoscape.work.TaskMonitor;
+
+/**
+ * Replaces a preview network imported from an NDEx sample by the full network.
+ * The import reuses the parameters and summary of the preview, and the
+ * preview is destroyed once the full network has been imported.
+ */
+public class UpgradePreviewTaskFactory implements NetworkTaskFactory {
+
+	public static final String TITLE = "Load Full Network from NDEx";
+
+	private NDExImportTaskFactory importFactory;
+
+	@Override
+	public boolean isReady(CyNetwork network) {
+		return network != null && PreviewNetworks.INSTANCE.get(network) != null;
+	}
+
+	@Override
+	public TaskIterator createTaskIterator(CyNetwork preview) {
+		final PreviewNetworks.Entry entry = PreviewNetworks.INSTANCE.get(preview);
+		if (entry == null) {
+			return new TaskIterator();
+		}
+		final NDExImportParameters params = new NDExImportParameters(entry.params.uuid, entry.params.username,
+				entry.params.password, entry.params.serverUrl, entry.params.accessKey, entry.params.idToken);
+		importFactory = new NDExImportTaskFactory(params, entry.summary);
+
+		// Signing in with an ID token is a request, so keep it off the EDT
+		return new TaskIterator(new AbstractTask() {
+			@Override
+			public void run(TaskMonitor taskMonitor) throws Exception {
+				taskMonitor.setTitle("Importing " + entry.summary.getName() + " from NDEx");
+				getTaskIterator().append(importFactory.createTaskIterator());
+				getTaskIterator().append(new AbstractTask() {
+					@Override
+					public void run(TaskMonitor taskMonitor) {
+						CyServiceModule.getService(CyNetworkManager.class).destroyNetwork(preview);
+						PreviewNetworks.INSTANCE.remove(preview);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Returns the SUID of the full network, once it has been imported.
+	 */
+	public long getSUID() {
+		return importFactory.getSUID();
+	}
+}
@@ -0,0 +1,298 @@
+package org.cytoscape.cyndex2.internal.ui;
+
+import java.awt.BorderLayout;
+import java.awt.Dialog.ModalityType;
+import java.awt.FlowLayout;
+import java.awt.Window;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.cyndex2.internal.rest.NdexSearchClient;
+import org.cytoscape.cyndex2.internal.rest.NetworkSearchResult;
+import org.cytoscape.cyndex2.internal.rest.RemoteNetworkSummary;
+import org.cytoscape.cyndex2.internal.rest.parameter.NDExImportParameters;
+import org.cytoscape.cyndex2.internal.task.AspectCxStream;
+import org.cytoscape.cyndex2.internal.task.NDExImportTaskFactory;
+import org.cytoscape.cyndex2.internal.task.QueryCxStream;
+import org.cytoscape.util.swing.LookAndFeelUtil;
+import org.cytoscape.work.AbstractTask;
+import org.cytoscape.work.TaskFactory;
+import org.cytoscape.work.TaskIterator;
+import org.cytoscape.work.TaskMonitor;
+import org.cytoscape.work.swing.DialogTaskManager;
+
+/**
+ * Native search results for the NDEx network search entry. Pages are fetched
+ * through the cached {@link NdexSearchClient}.
+ */
+@SuppressWarnings("serial")
+public class SearchResultsDialog extends JDialog {
+
+	private static final String[] COLUMNS = { "Name", "Owner", "Nodes", "Edges", "Modified" };
+
+	private final NdexSearchClient client;
+	private final BrowserSearchFactory browserSearchFactory;
+	private final ResultsTableModel model = new ResultsTableModel();
+	private final JTable table = new JTable(model);
+	private final JLabel statusLabel = new JLabel();
+	private final JButton prevButton = new JButton("Previous");
+	private final JButton nextButton = new JButton("Next");
+	private final JButton importButton = new JButton("Import");
+	private final JButton previewButton = new JButton("Preview");
+	private final JButton browserButton = new JButton("Open in CyNDEx-2 Browser...");
+	private final JCheckBox dataOnlyCheckBox = new JCheckBox("Network data only");
+	private final JLabel queryLabel = new JLabel("Genes:");
+	private final JTextField queryField = new JTextField(14);
+	private final JComboBox<String> queryTypeComboBox = new JComboBox<>(
+			new String[] { QueryCxStream.NEIGHBORHOOD, QueryCxStream.INTERCONNECT });
+
+	private String query = "";
+	private int start = 0;
+	private long numFound = 0;
+	private boolean local = false;
+
+	/**
+	 * Creates the task iterator that opens the CyNDEx-2 browser for a query.
+	 */
+	public interface BrowserSearchFactory {
+		TaskIterator createBrowserTaskIterator(String query);
+	}
+
+	public SearchResultsDialog(final Window owner, final NdexSearchClient client,
+			final BrowserSearchFactory browserSearchFactory) {
+		super(owner, "NDEx Network Search", ModalityType.MODELESS);
+		this.client = client;
+		this.browserSearchFactory = browserSearchFactory;
+
+		table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		table.setAutoCreateRowSorter(true);
+		table.getColumnModel().getColumn(0).setPreferredWidth(360);
+		table.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (e.getClickCount() == 2) {
+					importSelected(false);
+				}
+			}
+		});
+		table.getSelectionModel().addListSelectionListener(e -> updateButtons());
+
+		prevButton.addActionListener(e -> loadPage(Math.max(0, start - NdexSearchClient.PAGE_SIZE)));
+		nextButton.addActionListener(e -> loadPage(start + NdexSearchClient.PAGE_SIZE));
+		importButton.addActionListener(e -> importSelected(false));
+		previewButton.addActionListener(e -> importSelected(true));
+		previewButton.setToolTipText("Import the sample NDEx keeps of large networks, to check it before downloading "
+				+ "the whole network");
+		browserButton.addActionListener(e -> openBrowser());
+		dataOnlyCheckBox.setToolTipText("Import nodes, edges and attributes without layout, style or provenance");
+		queryField.setToolTipText("Import only the neighborhood or interconnect of these genes, separated by spaces");
+
+		final JPanel queryPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		queryPanel.add(queryLabel);
+		queryPanel.add(queryField);
+		queryPanel.add(queryTypeComboBox);
+
+		final JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+		buttons.add(browserButton);
+		buttons.add(prevButton);
+		buttons.add(nextButton);
+		buttons.add(dataOnlyCheckBox);
+		buttons.add(previewButton);
+		buttons.add(importButton);
+
+		statusLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+		final JPanel content = new JPanel(new BorderLayout());
+		content.add(statusLabel, BorderLayout.NORTH);
+		content.add(new JScrollPane(table), BorderLayout.CENTER);
+		final JPanel south = new JPanel(new BorderLayout());
+		south.add(queryPanel, BorderLayout.WEST);
+		south.add(buttons, BorderLayout.EAST);
+		content.add(south, BorderLayout.SOUTH);
+		LookAndFeelUtil.makeSmall(statusLabel, prevButton, nextButton, importButton, previewButton, browserButton,
+				dataOnlyCheckBox, queryLabel, queryField, queryTypeComboBox);
+
+		setContentPane(content);
+		setSize(960, 500);
+		setLocationRelativeTo(owner);
+	}
+
+	/**
+	 * Shows a page of results. Must be called on the EDT.
+	 */
+	public void showResults(final String query, final NetworkSearchResult result, final int start) {
+		this.query = query;
+		this.start = start;
+		this.numFound = result.numFound;
+		this.local = false;
+		model.setNetworks(result.networks == null ? Collections.emptyList() : result.networks);
+
+		if (numFound == 0) {
+			statusLabel.setText("No networks found for '" + query + "'");
+		} else {
+			final long end = Math.min(numFound, start + model.getRowCount());
+			statusLabel.setText(String.format("Showing %d-%d of %d networks for '%s'", start + 1, end, numFound, query));
+		}
+		updateButtons();
+		setVisible(true);
+		toFront();
+	}
+
+	/**
+	 * Shows matches from the local network index when NDEx cannot be reached.
+	 * Must be called on the EDT.
+	 */
+	public void showLocalResults(final String query, final NetworkSearchResult result) {
+		this.query = query;
+		this.start = 0;
+		this.numFound = result.networks.size();
+		this.local = true;
+		model.setNetworks(result.networks);
+
+		statusLabel.setText(String.format("NDEx is unreachable. Showing %d of %d previously seen networks for '%s'",
+				result.networks.size(), result.numFound, query));
+		updateButtons();
+		setVisible(true);
+		toFront();
+	}
+
+	private void updateButtons() {
+		prevButton.setEnabled(!local && start > 0);
+		nextButton.setEnabled(!local && start + NdexSearchClient.PAGE_SIZE < numFound);
+		importButton.setEnabled(table.getSelectedRow() >= 0);
+		previewButton.setEnabled(table.getSelectedRow() >= 0);
+	}
+
+	private void loadPage(final int newStart) {
+		prevButton.setEnabled(false);
+		nextButton.setEnabled(false);
+		new SwingWorker<NetworkSearchResult, Void>() {
+			@Override
+			protected NetworkSearchResult doInBackground() throws Exception {
+				return client.search(query, newStart, NdexSearchClient.PAGE_SIZE);
+			}
+
+			@Override
+			protected void done() {
+				try {
+					showResults(query, get(), newStart);
+				} catch (InterruptedException | ExecutionException e) {
+					updateButtons();
+					JOptionPane.showMessageDialog(SearchResultsDialog.this,
+							"Unable to search NDEx: " + e.getMessage(), "NDEx Search", JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		}.execute();
+	}
+
+	/**
+	 * Imports the selected network, or with preview only its NDEx sample.
+	 */
+	private void importSelected(final boolean preview) {
+		final int row = table.getSelectedRow();
+		if (row < 0) {
+			return;
+		}
+		final RemoteNetworkSummary summary = model.getNetwork(table.convertRowIndexToModel(row));
+		final NDExImportParameters params = new NDExImportParameters(summary.externalId, null, null,
+				client.getServerUrl(), null, null);
+		if (preview) {
+			params.preview = true;
+		} else if (dataOnlyCheckBox.isSelected()) {
+			params.aspects = AspectCxStream.DATA_ASPECTS;
+		}
+		if (!preview && !queryField.getText().trim().isEmpty()) {
+			params.query = queryField.getText().trim();
+			params.queryType = (String) queryTypeComboBox.getSelectedItem();
+		}
+		final TaskFactory importFactory = new NDExImportTaskFactory(params);
+
+		// Building the import task fetches the summary, so keep it off the EDT
+		final DialogTaskManager taskManager = CyServiceModule.getService(DialogTaskManager.class);
+		taskManager.execute(new TaskIterator(new AbstractTask() {
+			@Override
+			public void run(TaskMonitor taskMonitor) throws Exception {
+				taskMonitor.setTitle((preview ? "Previewing " : "Importing ") + summary.name + " from NDEx");
+				getTaskIterator().append(importFactory.createTaskIterator());
+			}
+		}));
+	}
+
+	private void openBrowser() {
+		final DialogTaskManager taskManager = CyServiceModule.getService(DialogTaskManager.class);
+		taskManager.execute(browserSearchFactory.createBrowserTaskIterator(query));
+	}
+
+	private static class ResultsTableModel extends AbstractTableModel {
+		private final DateFormat dateFormat = DateFormat.getDateInstance(DateFormat.MEDIUM);
+		private List<RemoteNetworkSummary> networks = new ArrayList<>();
+
+		void setNetworks(List<RemoteNetworkSummary> networks) {
+			this.networks = new ArrayList<>(networks);
+			fireTableDataChanged();
+		}
+
+		RemoteNetworkSummary getNetwork(int row) {
+			return networks.get(row);
+		}
+
+		@Override
+		public int getRowCount() {
+			return networks.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public String getColumnName(int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Class<?> getColumnClass(int column) {
+			return column == 2 || column == 3 ? Integer.class : String.class;
+		}
+
+		@Override
+		public Object getValueAt(int row, int column) {
+			final RemoteNetworkSummary network = networks.get(row);
+			switch (column) {
+			case 0:
+				return network.name;
+			case 1:
+				return network.owner;
+			case 2:
+				return network.nodeCount;
+			case 3:
+				return network.edgeCount;
+			default:
+				return network.modificationTime > 0 ? dateFormat.format(new Date(network.modificationTime)) : "";
+			}
+		}
+	}
+}
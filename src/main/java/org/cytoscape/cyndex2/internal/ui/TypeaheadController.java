@@ -0,0 +1,197 @@
+package org.cytoscape.cyndex2.internal.ui;
+
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.swing.JMenuItem;
+import javax.swing.JPopupMenu;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+import org.cytoscape.cyndex2.internal.rest.NdexSearchClient;
+import org.cytoscape.cyndex2.internal.rest.NdexSearchClient.PendingSearch;
+import org.cytoscape.util.swing.LookAndFeelUtil;
+
+/**
+ * Debounced typeahead for the NDEx search entry. Suggestions come from recent
+ * searches and the local network index right away, and again after a small remote
+ * search for the typed prefix completes. Both are looked up off the EDT. A new
+ * keystroke aborts the remote search that is still in flight.
+ */
+public class TypeaheadController {
+
+	private static final int DELAY_MS = 300;
+	private static final int MIN_PREFIX_LENGTH = 2;
+	private static final int MAX_SUGGESTIONS = 10;
+	private static final int REMOTE_PAGE_SIZE = 10;
+
+	private final JTextField field;
+	private final Supplier<String> querySupplier;
+	private final Supplier<NdexSearchClient> client;
+	private final Consumer<String> onSelect;
+	private final Timer timer;
+	private final JPopupMenu popup = new JPopupMenu();
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+		final Thread thread = new Thread(r, "CyNDEx-2 typeahead");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private volatile PendingSearch pendingSearch;
+	private Future<?> inFlight;
+	private volatile int generation = 0;
+	private boolean selecting = false;
+
+	public TypeaheadController(final JTextField field, final Supplier<String> querySupplier,
+			final Supplier<NdexSearchClient> client, final Consumer<String> onSelect) {
+		this.field = field;
+		this.querySupplier = querySupplier;
+		this.client = client;
+		this.onSelect = onSelect;
+
+		popup.setFocusable(false);
+		timer = new Timer(DELAY_MS, e -> suggest());
+		timer.setRepeats(false);
+
+		field.getDocument().addDocumentListener(new DocumentListener() {
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				textChanged();
+			}
+
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				textChanged();
+			}
+
+			@Override
+			public void changedUpdate(DocumentEvent e) {
+				// Attribute changes only
+			}
+		});
+		field.addKeyListener(new KeyAdapter() {
+			@Override
+			public void keyPressed(KeyEvent e) {
+				if (e.getKeyCode() == KeyEvent.VK_ESCAPE || e.getKeyCode() == KeyEvent.VK_ENTER) {
+					cancel();
+				}
+			}
+		});
+		field.addFocusListener(new FocusAdapter() {
+			@Override
+			public void focusLost(FocusEvent e) {
+				cancel();
+			}
+		});
+	}
+
+	private void textChanged() {
+		if (selecting) {
+			return;
+		}
+		abortRemote();
+		timer.restart();
+	}
+
+	private void cancel() {
+		timer.stop();
+		abortRemote();
+		popup.setVisible(false);
+	}
+
+	private void abortRemote() {
+		generation++;
+		if (pendingSearch != null) {
+			pendingSearch.abort();
+			pendingSearch = null;
+		}
+		if (inFlight != null) {
+			inFlight.cancel(true);
+			inFlight = null;
+		}
+	}
+
+	private void suggest() {
+		final String prefix = querySupplier.get().trim();
+		if (!field.isEnabled() || !field.hasFocus() || prefix.length() < MIN_PREFIX_LENGTH) {
+			popup.setVisible(false);
+			return;
+		}
+
+		final int current = generation;
+		// Resolving the client may wait on deferred activation, so it happens here too
+		inFlight = executor.submit(() -> {
+			final NdexSearchClient client = this.client.get();
+			final PendingSearch remote;
+			try {
+				remote = client.prepareSuggestionSearch(prefix, REMOTE_PAGE_SIZE);
+			} catch (IOException e) {
+				showLater(current, client.suggest(prefix, MAX_SUGGESTIONS), true);
+				return;
+			}
+			pendingSearch = remote;
+			if (current != generation) {
+				// A keystroke came in while the search was prepared
+				remote.abort();
+				return;
+			}
+			// Local suggestions wait on the local index, so they are looked up here too
+			showLater(current, client.suggest(prefix, MAX_SUGGESTIONS), false);
+			try {
+				remote.get();
+			} catch (IOException e) {
+				// Aborted or failed; local suggestions are already shown
+				return;
+			}
+			showLater(current, client.suggest(prefix, MAX_SUGGESTIONS), true);
+		});
+	}
+
+	private void showLater(final int current, final List<String> suggestions, final boolean done) {
+		SwingUtilities.invokeLater(() -> {
+			if (current == generation && field.hasFocus()) {
+				if (done) {
+					pendingSearch = null;
+				}
+				show(suggestions);
+			}
+		});
+	}
+
+	private void show(final List<String> suggestions) {
+		popup.setVisible(false);
+		popup.removeAll();
+		if (suggestions.isEmpty() || !field.isShowing()) {
+			return;
+		}
+		for (String suggestion : suggestions) {
+			final JMenuItem item = new JMenuItem(suggestion);
+			item.addActionListener(e -> select(suggestion));
+			LookAndFeelUtil.makeSmall(item);
+			popup.add(item);
+		}
+		popup.show(field, 0, field.getHeight());
+	}
+
+	private void select(final String suggestion) {
+		cancel();
+		selecting = true;
+		try {
+			onSelect.accept(suggestion);
+		} finally {
+			selecting = false;
+		}
+	}
+}
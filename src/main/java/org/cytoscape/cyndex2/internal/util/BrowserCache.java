@@ -0,0 +1,71 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the Chromium disk cache between sessions. Its size is bounded by
+ * Chromium through {@link #getSizeSwitch(long)}. The cache is only ever wiped
+ * as a whole, when the cache version changes or when the user asks for it.
+ */
+public class BrowserCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(BrowserCache.class);
+
+	public static final String CACHE_DIR = "Cache";
+	public static final String VERSION_FILE = "cache.version";
+
+	public static final String SIZE_SWITCH = "--disk-cache-size=";
+
+	public static final long DEFAULT_MAX_SIZE_MB = 256;
+
+	private BrowserCache() {
+		// restrict instantiation
+	}
+
+	/**
+	 * Wipes the cache if it was written by a different cache version, then
+	 * records the current version.
+	 */
+	public static void checkVersion(File dataDir, String version) {
+		final File versionFile = new File(dataDir, VERSION_FILE);
+		try {
+			if (versionFile.isFile()) {
+				final String previous = new String(Files.readAllBytes(versionFile.toPath()), StandardCharsets.UTF_8)
+						.trim();
+				if (previous.equals(version)) {
+					return;
+				}
+			}
+			logger.info("Browser cache version changed to " + version + ". Clearing cache.");
+			clear(dataDir);
+			dataDir.mkdirs();
+			Files.write(versionFile.toPath(), version.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			logger.warn("Unable to check browser cache version: " + e.getMessage());
+		}
+	}
+
+	public static void clear(File dataDir) {
+		try {
+			FileUtils.deleteDirectory(new File(dataDir, CACHE_DIR));
+		} catch (IOException e) {
+			logger.warn("Unable to clear browser cache: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the Chromium switch that bounds the disk cache to maxBytes.
+	 * Chromium evicts entries itself, which keeps its index consistent with the
+	 * data files.
+	 */
+	public static String getSizeSwitch(long maxBytes) {
+		return SIZE_SWITCH + maxBytes;
+	}
+}
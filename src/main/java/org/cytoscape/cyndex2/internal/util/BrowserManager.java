@@ -4,6 +4,8 @@ import java.awt.BorderLayout;
 import java.awt.Rectangle;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.FileHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -14,7 +16,6 @@ import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 
-import org.apache.commons.io.FileUtils;
 import org.cytoscape.cyndex2.internal.CyActivator;
 import org.cytoscape.cyndex2.internal.errors.BrowserCreationError;
 import org.cytoscape.cyndex2.internal.util.StringResources.LoadBrowserStage;
@@ -41,6 +42,7 @@ public class BrowserManager {
 	private static Browser browser;
 	private static BrowserView browserView;
 	private static File jxbrowserDataLocation;
+	private static boolean dataDirectoryInitialized = false;
 	public static boolean loading = false;
 
 	private static boolean supportedOSAndArchitecture() {
@@ -102,14 +104,23 @@ public class BrowserManager {
 		return Boolean.parseBoolean(debug);
 	}
 
+	private static String getCacheVersion() {
+		return NativeInstaller.JXBROWSER_VERSION + "/" + CyActivator.WEB_APP_VERSION;
+	}
+
 	public static Browser getJXBrowser(TaskMonitor tm) throws BrowserCreationError {
 		tm.setProgress(0.0f);
 		if (browser == null) {
+			initDataDirectory();
 			LoadBrowserStage.ENABLE_LOGGING.updateTaskMonitor(tm);
-			BrowserPreferences.setChromiumSwitches("--disable-gpu");
+			// Each call replaces the previous switches, so they are set at once
+			final List<String> switches = new ArrayList<>();
+			switches.add("--disable-gpu");
+			switches.add(BrowserCache.getSizeSwitch(
+					CyActivator.getLongProperty("cyndex2.cache.maxSizeMB", BrowserCache.DEFAULT_MAX_SIZE_MB) * 1024 * 1024));
 			
 			if (parseDebug()) {
-				BrowserPreferences.setChromiumSwitches("--remote-debugging-port=9222");
+				switches.add("--remote-debugging-port=9222");
 				try {
 					enableLogging();
 					System.setProperty("jxbrowser.ipc.external", "true");
@@ -117,17 +128,35 @@ public class BrowserManager {
 					System.out.println("Failed to load loggers");
 				}
 			}
+			BrowserPreferences.setChromiumSwitches(switches.toArray(new String[switches.size()]));
 
 			try {
 
 				File f = new File(jxbrowserDataLocation.getParent(), "bin");
-				NativeInstaller.installJXBrowser(f, tm);
+				final StartupTimings.Phase installPhase = StartupTimings.INSTANCE.start("browser.install");
+				try {
+					NativeInstaller.installJXBrowser(f, tm);
+				} finally {
+					installPhase.end();
+				}
 				System.setProperty("jxbrowser.chromium.dir", f.getAbsolutePath());
 
 				LoadBrowserStage.CREATING_BROWSER.updateTaskMonitor(tm);
-				BrowserContextParams params = new BrowserContextParams(jxbrowserDataLocation.getAbsolutePath());
-				BrowserContext context = new BrowserContext(params);
-				browser = new Browser(BrowserType.LIGHTWEIGHT, context);
+				BrowserCache.checkVersion(jxbrowserDataLocation, getCacheVersion());
+				final BrowserContext context;
+				final StartupTimings.Phase contextPhase = StartupTimings.INSTANCE.start("browser.context");
+				try {
+					BrowserContextParams params = new BrowserContextParams(jxbrowserDataLocation.getAbsolutePath());
+					context = new BrowserContext(params);
+				} finally {
+					contextPhase.end();
+				}
+				final StartupTimings.Phase createPhase = StartupTimings.INSTANCE.start("browser.create");
+				try {
+					browser = new Browser(BrowserType.LIGHTWEIGHT, context);
+				} finally {
+					createPhase.end();
+				}
 
 				if (browser == null) {
 					throw new BrowserCreationError("Browser failed to initialize.");
@@ -195,9 +224,21 @@ public class BrowserManager {
 		return jxbrowserDataLocation;
 	}
 
+	/**
+	 * Sets the JxBrowser data directory. The directory is created and JxBrowser
+	 * configured the first time the browser is opened.
+	 */
 	public static void setDataDirectory(File directory) {
-		// JXBrowser configuration
 		jxbrowserDataLocation = directory;
+		dataDirectoryInitialized = false;
+	}
+
+	private static synchronized void initDataDirectory() {
+		if (dataDirectoryInitialized) {
+			return;
+		}
+		final StartupTimings.Phase phase = StartupTimings.INSTANCE.start("deferred.browserDirectories");
+		// JXBrowser configuration
 		if (!jxbrowserDataLocation.exists())
 			try {
 				jxbrowserDataLocation.mkdirs();
@@ -207,19 +248,21 @@ public class BrowserManager {
 			}
 		System.setProperty(BrowserPreferences.TEMP_DIR_PROPERTY, jxbrowserDataLocation.getAbsolutePath());
 		System.setProperty(BrowserPreferences.USER_AGENT_PROPERTY, jxbrowserDataLocation.getAbsolutePath());
-
+		dataDirectoryInitialized = true;
+		phase.end();
 	}
 
-	public static void clearCache() {
-		if (browser != null)
-			browser.getCacheStorage().clearCache();
-		try {
-			if (jxbrowserDataLocation.exists()) {
-				File cacheDir = new File(jxbrowserDataLocation.getAbsolutePath(), "Cache");
-				FileUtils.deleteDirectory(cacheDir);
-			}
-		} catch (IOException e) {
-
+	/**
+	 * Clears the cache on shutdown, after Chromium has exited, if the user set
+	 * cyndex2.cache.clearOnExit. Otherwise Chromium keeps the cache within
+	 * cyndex2.cache.maxSizeMB.
+	 */
+	public static void clearCacheOnExit() {
+		if (jxbrowserDataLocation == null || !jxbrowserDataLocation.exists()) {
+			return;
+		}
+		if (Boolean.parseBoolean(CyActivator.getProperty("cyndex2.cache.clearOnExit"))) {
+			BrowserCache.clear(jxbrowserDataLocation);
 		}
 	}
 
@@ -0,0 +1,210 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cytoscape.cyndex2.internal.CyActivator;
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.event.CyEventHelper;
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyIdentifiable;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.SUIDFactory;
+import org.cytoscape.model.events.AddedEdgesEvent;
+import org.cytoscape.model.events.AddedNodesEvent;
+import org.cytoscape.model.events.RowSetRecord;
+import org.cytoscape.model.events.RowsCreatedEvent;
+import org.cytoscape.model.events.RowsSetEvent;
+import org.cytoscape.model.subnetwork.CyRootNetwork;
+import org.cytoscape.model.subnetwork.CySubNetwork;
+
+/**
+ * Holds back model events from networks while they are registered and their
+ * views built during a bulk import, and sends what changed as one batch on
+ * {@link #close()}.
+ *
+ * The mode is started before the CX reader runs, and decides from the size
+ * the import expects whether it is on. The reader creates the networks, so
+ * they are handed over with {@link #add(CyNetwork...)} as soon as it returns.
+ * The networks, their root networks and the tables of both are then silenced
+ * with the {@link CyEventHelper}, which discards events from silenced
+ * sources. On close they are unsilenced and the nodes, edges and rows created
+ * in between are sent instead: one {@link AddedNodesEvent} and
+ * {@link AddedEdgesEvent} per network, and one {@link RowsCreatedEvent} and
+ * {@link RowsSetEvent} per table with the values of its new rows. Values
+ * set on rows that existed before are not sent again.
+ *
+ * The mode is on when the networks have at least
+ * cyndex2.import.bulkEventThreshold nodes and edges in total. A negative
+ * threshold turns it off.
+ */
+public class BulkImportEvents implements AutoCloseable {
+
+	public static final String THRESHOLD_PROPERTY = "cyndex2.import.bulkEventThreshold";
+	public static final long DEFAULT_THRESHOLD = 100000;
+
+	private final CyEventHelper eventHelper;
+	private final long expectedElements;
+	private final long threshold;
+	private final Set<CyNetwork> networks = new LinkedHashSet<>();
+	private final Set<CyTable> tables = new LinkedHashSet<>();
+	// Objects created after the sources were silenced have larger SUIDs
+	private long silencedSuid;
+
+	/**
+	 * @param eventHelper      the event helper, or null to do nothing
+	 * @param expectedElements nodes and edges the import expects, or a
+	 *                         negative number if unknown
+	 * @param threshold        nodes and edges from which the mode is on
+	 */
+	public BulkImportEvents(final CyEventHelper eventHelper, final long expectedElements, final long threshold) {
+		this.eventHelper = eventHelper;
+		this.expectedElements = expectedElements;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Starts bulk-import mode before the networks are read. If the expected
+	 * size is unknown, the networks passed to {@link #add(CyNetwork...)}
+	 * decide instead.
+	 */
+	public static BulkImportEvents start(final long expectedElements) {
+		final long threshold = CyActivator.getLongProperty(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD);
+		if (threshold < 0 || (expectedElements >= 0 && expectedElements < threshold)) {
+			return new BulkImportEvents(null, expectedElements, threshold);
+		}
+		return new BulkImportEvents(CyServiceModule.getService(CyEventHelper.class), expectedElements, threshold);
+	}
+
+	/**
+	 * Silences the networks the reader built, until {@link #close()}. Returns
+	 * this instance, to be closed once the networks are registered.
+	 */
+	public BulkImportEvents add(final CyNetwork... built) {
+		if (eventHelper == null) {
+			return this;
+		}
+		if (expectedElements < 0) {
+			long elements = 0;
+			for (CyNetwork network : built) {
+				elements += network.getNodeCount() + network.getEdgeCount();
+			}
+			if (elements < threshold) {
+				return this;
+			}
+		}
+		final Set<Object> sources = new LinkedHashSet<>();
+		for (CyNetwork network : built) {
+			addSources(network, sources);
+			if (network instanceof CySubNetwork) {
+				final CyRootNetwork root = ((CySubNetwork) network).getRootNetwork();
+				if (root != null) {
+					addSources(root, sources);
+					addTable(root.getSharedNetworkTable(), sources);
+					addTable(root.getSharedNodeTable(), sources);
+					addTable(root.getSharedEdgeTable(), sources);
+				}
+			}
+		}
+		silencedSuid = SUIDFactory.getNextSUID();
+		for (Object source : sources) {
+			eventHelper.silenceEventSource(source);
+		}
+		return this;
+	}
+
+	private void addSources(final CyNetwork network, final Set<Object> sources) {
+		if (networks.add(network)) {
+			sources.add(network);
+		}
+		addTable(network.getDefaultNetworkTable(), sources);
+		addTable(network.getDefaultNodeTable(), sources);
+		addTable(network.getDefaultEdgeTable(), sources);
+	}
+
+	private void addTable(final CyTable table, final Set<Object> sources) {
+		if (table != null && tables.add(table)) {
+			sources.add(table);
+		}
+	}
+
+	/**
+	 * Returns the number of silenced event sources.
+	 */
+	public int getSourceCount() {
+		return networks.size() + tables.size();
+	}
+
+	@Override
+	public void close() {
+		if (eventHelper == null || networks.isEmpty()) {
+			return;
+		}
+		for (CyNetwork network : networks) {
+			eventHelper.unsilenceEventSource(network);
+		}
+		for (CyTable table : tables) {
+			eventHelper.unsilenceEventSource(table);
+		}
+		for (CyNetwork network : networks) {
+			final List<CyNode> nodes = getCreated(network.getNodeList());
+			if (!nodes.isEmpty()) {
+				eventHelper.fireEvent(new AddedNodesEvent(network, nodes));
+			}
+			final List<CyEdge> edges = getCreated(network.getEdgeList());
+			if (!edges.isEmpty()) {
+				eventHelper.fireEvent(new AddedEdgesEvent(network, edges));
+			}
+		}
+		for (CyTable table : tables) {
+			fireRowEvents(table);
+		}
+		networks.clear();
+		tables.clear();
+	}
+
+	private <T extends CyIdentifiable> List<T> getCreated(final List<T> elements) {
+		final List<T> created = new ArrayList<>();
+		for (T element : elements) {
+			if (element.getSUID() > silencedSuid) {
+				created.add(element);
+			}
+		}
+		return created;
+	}
+
+	/**
+	 * Sends the rows of the table created while it was silenced, keyed by the
+	 * SUIDs of their networks, nodes or edges.
+	 */
+	private void fireRowEvents(final CyTable table) {
+		final String primaryKey = table.getPrimaryKey().getName();
+		final List<Object> keys = new ArrayList<>();
+		final List<RowSetRecord> records = new ArrayList<>();
+		for (CyRow row : table.getAllRows()) {
+			final Object key = row.getRaw(primaryKey);
+			if (!(key instanceof Long) || (Long) key <= silencedSuid) {
+				continue;
+			}
+			keys.add(key);
+			final Map<String, Object> values = row.getAllValues();
+			for (CyColumn column : table.getColumns()) {
+				final String name = column.getName();
+				if (!name.equals(primaryKey) && values.get(name) != null) {
+					records.add(new RowSetRecord(row, name, values.get(name), row.getRaw(name)));
+				}
+			}
+		}
+		if (!keys.isEmpty()) {
+			eventHelper.fireEvent(new RowsCreatedEvent(table, keys));
+			eventHelper.fireEvent(new RowsSetEvent(table, records));
+		}
+	}
+}
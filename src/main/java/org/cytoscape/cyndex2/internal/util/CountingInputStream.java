@@ -0,0 +1,75 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Counts the bytes read through it, adds them to a metrics counter and reports
+ * the running total to an optional listener.
+ */
+public class CountingInputStream extends FilterInputStream {
+
+	private final Metrics.Counter counter;
+	private final LongConsumer listener;
+	private long count = 0;
+
+	public CountingInputStream(final InputStream in, final Metrics.Counter counter) {
+		this(in, counter, null);
+	}
+
+	/**
+	 * @param counter  metrics counter to add to, or null
+	 * @param listener called with the total number of bytes read so far, or null
+	 */
+	public CountingInputStream(final InputStream in, final Metrics.Counter counter, final LongConsumer listener) {
+		super(in);
+		this.counter = counter;
+		this.listener = listener;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	private void count(long n) {
+		if (n > 0) {
+			count += n;
+			if (counter != null) {
+				counter.add(n);
+			}
+			if (listener != null) {
+				listener.accept(count);
+			}
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		final int b = super.read();
+		if (b >= 0) {
+			count(1);
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		final int n = super.read(b, off, len);
+		count(n);
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		final long skipped = super.skip(n);
+		count(skipped);
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+}
@@ -0,0 +1,80 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe LRU cache whose entries also expire after a fixed time to live.
+ */
+public class ExpiringLruCache<K, V> {
+
+	private static class CacheEntry<V> {
+		final V value;
+		final long expires;
+
+		CacheEntry(V value, long expires) {
+			this.value = value;
+			this.expires = expires;
+		}
+	}
+
+	private final long ttlMillis;
+	private final LinkedHashMap<K, CacheEntry<V>> map;
+
+	private long hits = 0;
+	private long misses = 0;
+
+	public ExpiringLruCache(final int maxEntries, final long ttlMillis) {
+		this.ttlMillis = ttlMillis;
+		this.map = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached value, or null if there is none or it has expired.
+	 */
+	public synchronized V get(K key) {
+		final CacheEntry<V> entry = map.get(key);
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		if (entry.expires < System.currentTimeMillis()) {
+			map.remove(key);
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.value;
+	}
+
+	public synchronized void put(K key, V value) {
+		map.put(key, new CacheEntry<>(value, System.currentTimeMillis() + ttlMillis));
+	}
+
+	public synchronized void remove(K key) {
+		map.remove(key);
+	}
+
+	public synchronized void clear() {
+		map.clear();
+	}
+
+	public synchronized int size() {
+		return map.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+}
@@ -0,0 +1,370 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.cytoscape.cyndex2.internal.rest.NetworkSearchResult;
+import org.cytoscape.cyndex2.internal.rest.RemoteNetworkSummary;
+import org.ndexbio.model.object.network.NetworkSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Persistent inverted index over the NDEx network summaries this app has seen
+ * in search results or imported. Summaries are appended to a JSON lines log in
+ * the app configuration directory; later lines replace earlier ones and the
+ * log is compacted when it holds too many stale lines.
+ *
+ * The log is read on first use or by {@link #load()}, so opening the index is
+ * cheap. Callers on the EDT check {@link #isLoaded()} first,
+ * since reading the log can take a while and may compact it.
+ */
+public class LocalNetworkIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(LocalNetworkIndex.class);
+
+	public static final LocalNetworkIndex INSTANCE = new LocalNetworkIndex(20000);
+
+	public static final String INDEX_FILE = "network-index.jsonl";
+
+	private static final int NAME_WEIGHT = 4;
+	private static final int OWNER_WEIGHT = 2;
+	private static final int TEXT_WEIGHT = 1;
+
+	private final int maxEntries;
+	private final ObjectMapper mapper = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	private final ObjectReader summaryReader = mapper.readerFor(RemoteNetworkSummary.class);
+	private final ObjectWriter summaryWriter = mapper.writerFor(RemoteNetworkSummary.class);
+
+	private final LinkedHashMap<String, RemoteNetworkSummary> entries = new LinkedHashMap<>();
+	private final Map<String, Map<String, Integer>> tokenWeights = new HashMap<>();
+	private final TreeMap<String, Map<String, Integer>> postings = new TreeMap<>();
+
+	private File file;
+	private boolean loaded = false;
+	// Set once the log has been read, so that it can be checked without the lock
+	private volatile boolean ready = false;
+	private int logLines = 0;
+	private BufferedWriter writer;
+
+	LocalNetworkIndex(final int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Sets the directory holding the index. Nothing is read until the index is
+	 * first used.
+	 */
+	public synchronized void open(final File directory) {
+		close();
+		this.file = new File(directory, INDEX_FILE);
+		this.loaded = false;
+		this.ready = false;
+		this.logLines = 0;
+		entries.clear();
+		tokenWeights.clear();
+		postings.clear();
+	}
+
+	/**
+	 * Reads the log now, if it has not been read yet. Activation calls this on
+	 * a background thread.
+	 */
+	public synchronized void load() {
+		ensureLoaded();
+	}
+
+	/**
+	 * Returns true once the log has been read. Until then, searches and
+	 * updates wait for it to be read.
+	 */
+	public boolean isLoaded() {
+		return ready;
+	}
+
+	public synchronized int size() {
+		ensureLoaded();
+		return entries.size();
+	}
+
+	public void add(final NetworkSummary summary) {
+		if (summary == null) {
+			return;
+		}
+		final RemoteNetworkSummary converted;
+		try {
+			converted = mapper.convertValue(summary, RemoteNetworkSummary.class);
+		} catch (IllegalArgumentException e) {
+			logger.warn("Could not index summary of network " + summary.getExternalId() + ": " + e.getMessage());
+			return;
+		}
+		addAll(Collections.singletonList(converted));
+	}
+
+	public synchronized void addAll(final Collection<RemoteNetworkSummary> summaries) {
+		if (summaries == null || summaries.isEmpty()) {
+			return;
+		}
+		ensureLoaded();
+		final List<RemoteNetworkSummary> changed = new ArrayList<>();
+		for (RemoteNetworkSummary summary : summaries) {
+			if (summary == null || summary.externalId == null) {
+				continue;
+			}
+			final RemoteNetworkSummary existing = entries.get(summary.externalId);
+			if (existing != null && existing.modificationTime == summary.modificationTime) {
+				// Refresh recency only
+				entries.remove(summary.externalId);
+				entries.put(summary.externalId, existing);
+				continue;
+			}
+			// Kept apart from the caller's instance, which it may change
+			final RemoteNetworkSummary copy = summary.copy();
+			put(copy);
+			changed.add(copy);
+		}
+		append(changed);
+	}
+
+	/**
+	 * Returns networks matching every word of the query, best matches first.
+	 * Words match by prefix. Matches in the name rank above matches in
+	 * the owner, which rank above matches in the description or properties.
+	 * The result holds copies, so callers cannot change the index.
+	 */
+	public synchronized NetworkSearchResult search(final String query, final int limit) {
+		ensureLoaded();
+		final NetworkSearchResult result = new NetworkSearchResult();
+		result.networks = new ArrayList<>();
+
+		final Set<String> words = tokenize(query);
+		if (words.isEmpty()) {
+			return result;
+		}
+
+		Map<String, Integer> scores = null;
+		for (String word : words) {
+			final Map<String, Integer> matches = new HashMap<>();
+			for (Map<String, Integer> posting : postings.subMap(word, word + Character.MAX_VALUE).values()) {
+				for (Map.Entry<String, Integer> hit : posting.entrySet()) {
+					matches.merge(hit.getKey(), hit.getValue(), Math::max);
+				}
+			}
+			if (scores == null) {
+				scores = matches;
+			} else {
+				final Iterator<Map.Entry<String, Integer>> it = scores.entrySet().iterator();
+				while (it.hasNext()) {
+					final Map.Entry<String, Integer> score = it.next();
+					final Integer weight = matches.get(score.getKey());
+					if (weight == null) {
+						it.remove();
+					} else {
+						score.setValue(score.getValue() + weight);
+					}
+				}
+			}
+			if (scores.isEmpty()) {
+				return result;
+			}
+		}
+
+		final Map<String, Integer> finalScores = scores;
+		final List<String> ids = new ArrayList<>(finalScores.keySet());
+		ids.sort((a, b) -> {
+			final int byScore = Integer.compare(finalScores.get(b), finalScores.get(a));
+			return byScore != 0 ? byScore
+					: Long.compare(entries.get(b).modificationTime, entries.get(a).modificationTime);
+		});
+		result.numFound = ids.size();
+		for (String id : ids.subList(0, Math.min(limit, ids.size()))) {
+			result.networks.add(entries.get(id).copy());
+		}
+		return result;
+	}
+
+	/**
+	 * Compacts the log if needed and closes it.
+	 */
+	public synchronized void close() {
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				// IGNORE
+			}
+			writer = null;
+		}
+		if (loaded && logLines > entries.size()) {
+			compact();
+		}
+	}
+
+	private void ensureLoaded() {
+		if (loaded) {
+			return;
+		}
+		loaded = true;
+		if (file == null || !file.isFile()) {
+			ready = true;
+			return;
+		}
+		final long start = System.currentTimeMillis();
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) {
+					continue;
+				}
+				logLines++;
+				try {
+					final RemoteNetworkSummary summary = summaryReader.readValue(line);
+					if (summary.externalId != null) {
+						put(summary);
+					}
+				} catch (IOException e) {
+					// Skip a truncated or corrupt line
+				}
+			}
+		} catch (IOException e) {
+			logger.warn("Could not read local network index " + file + ": " + e.getMessage());
+		}
+		logger.info("Loaded " + entries.size() + " networks into the local index in "
+				+ (System.currentTimeMillis() - start) + " ms");
+		if (logLines > 2 * entries.size() + 64) {
+			compact();
+		}
+		ready = true;
+	}
+
+	private void put(final RemoteNetworkSummary summary) {
+		removeEntry(summary.externalId);
+		entries.put(summary.externalId, summary);
+
+		final Map<String, Integer> weights = new HashMap<>();
+		addTokens(weights, summary.name, NAME_WEIGHT);
+		addTokens(weights, summary.owner, OWNER_WEIGHT);
+		addTokens(weights, summary.externalId, NAME_WEIGHT);
+		addTokens(weights, summary.description == null ? null : summary.description.replaceAll("<[^>]*>", " "),
+				TEXT_WEIGHT);
+		if (summary.properties != null) {
+			for (Map<String, Object> property : summary.properties) {
+				final Object value = property.get("value");
+				if (value != null) {
+					addTokens(weights, value.toString(), TEXT_WEIGHT);
+				}
+			}
+		}
+		tokenWeights.put(summary.externalId, weights);
+		for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+			postings.computeIfAbsent(weight.getKey(), k -> new HashMap<>()).put(summary.externalId, weight.getValue());
+		}
+
+		while (entries.size() > maxEntries) {
+			removeEntry(entries.keySet().iterator().next());
+		}
+	}
+
+	private void removeEntry(final String id) {
+		if (entries.remove(id) == null) {
+			return;
+		}
+		final Map<String, Integer> weights = tokenWeights.remove(id);
+		for (String token : weights.keySet()) {
+			final Map<String, Integer> posting = postings.get(token);
+			posting.remove(id);
+			if (posting.isEmpty()) {
+				postings.remove(token);
+			}
+		}
+	}
+
+	private static void addTokens(final Map<String, Integer> weights, final String text, final int weight) {
+		for (String token : tokenize(text)) {
+			weights.merge(token, weight, Math::max);
+		}
+	}
+
+	private static Set<String> tokenize(final String text) {
+		final Set<String> tokens = new HashSet<>();
+		if (text == null) {
+			return tokens;
+		}
+		for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	private void append(final List<RemoteNetworkSummary> summaries) {
+		if (file == null || summaries.isEmpty()) {
+			return;
+		}
+		try {
+			if (writer == null) {
+				file.getParentFile().mkdirs();
+				writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+						StandardOpenOption.APPEND);
+			}
+			for (RemoteNetworkSummary summary : summaries) {
+				writer.write(summaryWriter.writeValueAsString(summary));
+				writer.newLine();
+				logLines++;
+			}
+			writer.flush();
+		} catch (IOException e) {
+			logger.warn("Could not update local network index " + file + ": " + e.getMessage());
+		}
+	}
+
+	private void compact() {
+		if (file == null) {
+			return;
+		}
+		final File temp = new File(file.getParentFile(), INDEX_FILE + ".tmp");
+		try {
+			file.getParentFile().mkdirs();
+			try (BufferedWriter out = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+				for (RemoteNetworkSummary summary : entries.values()) {
+					out.write(summaryWriter.writeValueAsString(summary));
+					out.newLine();
+				}
+			}
+			if (writer != null) {
+				writer.close();
+				writer = null;
+			}
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			logLines = entries.size();
+		} catch (IOException e) {
+			logger.warn("Could not compact local network index " + file + ": " + e.getMessage());
+			temp.delete();
+		}
+	}
+}
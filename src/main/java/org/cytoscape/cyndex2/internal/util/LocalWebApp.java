@@ -0,0 +1,102 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cytoscape.cyndex2.internal.CyActivator;
+
+/**
+ * Locates the CyNDEx-2 web app assets packaged in this bundle under
+ * /webapp/{WEB_APP_VERSION}/. When the assets are not packaged, the web app is
+ * loaded from the CDN as before.
+ */
+public class LocalWebApp {
+
+	public static final String RESOURCE_ROOT = "/webapp/";
+	public static final String INDEX = "index.html";
+
+	private static final String CDN_URL = "http://cyndex.ndexbio.org/";
+	private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+	private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+	static {
+		CONTENT_TYPES.put("html", "text/html; charset=UTF-8");
+		CONTENT_TYPES.put("js", "application/javascript; charset=UTF-8");
+		CONTENT_TYPES.put("css", "text/css; charset=UTF-8");
+		CONTENT_TYPES.put("json", "application/json; charset=UTF-8");
+		CONTENT_TYPES.put("map", "application/json; charset=UTF-8");
+		CONTENT_TYPES.put("svg", "image/svg+xml");
+		CONTENT_TYPES.put("png", "image/png");
+		CONTENT_TYPES.put("jpg", "image/jpeg");
+		CONTENT_TYPES.put("gif", "image/gif");
+		CONTENT_TYPES.put("ico", "image/x-icon");
+		CONTENT_TYPES.put("woff", "font/woff");
+		CONTENT_TYPES.put("woff2", "font/woff2");
+		CONTENT_TYPES.put("ttf", "font/ttf");
+		CONTENT_TYPES.put("eot", "application/vnd.ms-fontobject");
+	}
+
+	private static Boolean available;
+
+	private LocalWebApp() {
+		// restrict instantiation
+	}
+
+	public static boolean isAvailable() {
+		if (available == null) {
+			available = getResource(CyActivator.WEB_APP_VERSION, INDEX) != null;
+		}
+		return available;
+	}
+
+	/**
+	 * Returns the packaged asset for the given web app version and relative
+	 * path, or null if the version does not match this bundle or the asset does
+	 * not exist.
+	 */
+	public static URL getResource(String version, String path) {
+		if (!CyActivator.WEB_APP_VERSION.equals(version) || path == null || path.isEmpty()) {
+			return null;
+		}
+		for (String segment : path.split("/")) {
+			if (segment.equals("..") || segment.contains("\\")) {
+				return null;
+			}
+		}
+		return LocalWebApp.class.getResource(RESOURCE_ROOT + version + "/" + path);
+	}
+
+	public static InputStream openResource(String version, String path) {
+		final URL url = getResource(version, path);
+		if (url == null) {
+			return null;
+		}
+		try {
+			return url.openStream();
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	public static String getContentType(String path) {
+		final int idx = path.lastIndexOf('.');
+		if (idx < 0) {
+			return DEFAULT_CONTENT_TYPE;
+		}
+		final String type = CONTENT_TYPES.get(path.substring(idx + 1).toLowerCase());
+		return type == null ? DEFAULT_CONTENT_TYPE : type;
+	}
+
+	/**
+	 * Base URL of the web app index page, served through CyREST when the assets
+	 * are packaged and from the CDN otherwise.
+	 */
+	public static String getIndexURL(String port) {
+		if (isAvailable()) {
+			return "http://localhost:" + port + "/cyndex2/v1/webapp/" + CyActivator.WEB_APP_VERSION + "/" + INDEX;
+		}
+		return CDN_URL + CyActivator.WEB_APP_VERSION + "/" + INDEX;
+	}
+}
@@ -0,0 +1,351 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.cytoscape.cyndex2.internal.rest.response.MetricSample;
+
+/**
+ * Registry of the app's counters, gauges and latency histograms. Metrics are
+ * created on first use and identified by name and labels; the snapshot can be
+ * served as JSON or in the Prometheus text exposition format.
+ */
+public class Metrics {
+
+	public static final Metrics INSTANCE = new Metrics();
+
+	public static final String BYTES_DOWNLOADED = "cyndex2_bytes_downloaded_total";
+	public static final String BYTES_UPLOADED = "cyndex2_bytes_uploaded_total";
+	public static final String PHASE_DURATION = "cyndex2_phase_duration_seconds";
+	public static final String RETRIES = "cyndex2_retries_total";
+	public static final String ACTIVE_JOBS = "cyndex2_active_jobs";
+	public static final String CACHE_HITS = "cyndex2_cache_hits_total";
+	public static final String CACHE_MISSES = "cyndex2_cache_misses_total";
+	public static final String CACHE_HIT_RATIO = "cyndex2_cache_hit_ratio";
+
+	// Upper bounds of the histogram buckets, in seconds
+	private static final double[] BUCKETS = { 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120,
+			300 };
+
+	public static abstract class Metric {
+		final String name;
+		final String help;
+		final Map<String, String> labels;
+
+		private Metric(String name, String help, Map<String, String> labels) {
+			this.name = name;
+			this.help = help;
+			this.labels = labels;
+		}
+
+		abstract String getType();
+
+		abstract void fill(MetricSample sample);
+	}
+
+	public static class Counter extends Metric {
+		private final AtomicLong value = new AtomicLong();
+		private volatile LongSupplier supplier;
+
+		private Counter(String name, String help, Map<String, String> labels) {
+			super(name, help, labels);
+		}
+
+		public void inc() {
+			value.incrementAndGet();
+		}
+
+		public void add(long delta) {
+			value.addAndGet(delta);
+		}
+
+		public long get() {
+			final LongSupplier current = supplier;
+			return current == null ? value.get() : current.getAsLong();
+		}
+
+		@Override
+		String getType() {
+			return "counter";
+		}
+
+		@Override
+		void fill(MetricSample sample) {
+			sample.value = (double) get();
+		}
+	}
+
+	public static class Gauge extends Metric {
+		private final AtomicLong value = new AtomicLong();
+		private volatile Supplier<? extends Number> supplier;
+
+		private Gauge(String name, String help, Map<String, String> labels) {
+			super(name, help, labels);
+		}
+
+		public void inc() {
+			value.incrementAndGet();
+		}
+
+		public void dec() {
+			value.decrementAndGet();
+		}
+
+		public void set(long newValue) {
+			value.set(newValue);
+		}
+
+		public double get() {
+			final Supplier<? extends Number> current = supplier;
+			return current == null ? value.get() : current.get().doubleValue();
+		}
+
+		@Override
+		String getType() {
+			return "gauge";
+		}
+
+		@Override
+		void fill(MetricSample sample) {
+			sample.value = get();
+		}
+	}
+
+	public static class Histogram extends Metric {
+		private final long[] counts = new long[BUCKETS.length];
+		private long count = 0;
+		private double sum = 0;
+
+		private Histogram(String name, String help, Map<String, String> labels) {
+			super(name, help, labels);
+		}
+
+		public synchronized void observe(double seconds) {
+			for (int i = 0; i < BUCKETS.length; i++) {
+				if (seconds <= BUCKETS[i]) {
+					counts[i]++;
+				}
+			}
+			count++;
+			sum += seconds;
+		}
+
+		/**
+		 * Starts timing an operation; closing the timer records its duration.
+		 */
+		public Timer start() {
+			return new Timer(this);
+		}
+
+		public synchronized long getCount() {
+			return count;
+		}
+
+		@Override
+		String getType() {
+			return "histogram";
+		}
+
+		@Override
+		synchronized void fill(MetricSample sample) {
+			sample.count = count;
+			sample.sum = sum;
+			sample.buckets = new LinkedHashMap<>();
+			for (int i = 0; i < BUCKETS.length; i++) {
+				sample.buckets.put(formatDouble(BUCKETS[i]), counts[i]);
+			}
+			sample.buckets.put("+Inf", count);
+		}
+	}
+
+	public static class Timer implements AutoCloseable {
+		private final Histogram histogram;
+		private final long start = System.nanoTime();
+		private boolean stopped = false;
+
+		private Timer(Histogram histogram) {
+			this.histogram = histogram;
+		}
+
+		@Override
+		public void close() {
+			if (!stopped) {
+				stopped = true;
+				histogram.observe((System.nanoTime() - start) / 1e9);
+			}
+		}
+	}
+
+	private final Map<String, Metric> metrics = new TreeMap<>();
+
+	Metrics() {
+	}
+
+	public synchronized Counter counter(String name, String help, String... labels) {
+		return get(name, labels, Counter.class, () -> new Counter(name, help, toMap(labels)));
+	}
+
+	/**
+	 * Registers a counter whose value is read when a snapshot is taken. The
+	 * supplier must never decrease.
+	 */
+	public synchronized Counter counter(String name, String help, LongSupplier supplier, String... labels) {
+		final Counter counter = counter(name, help, labels);
+		counter.supplier = supplier;
+		return counter;
+	}
+
+	public synchronized Gauge gauge(String name, String help, String... labels) {
+		return get(name, labels, Gauge.class, () -> new Gauge(name, help, toMap(labels)));
+	}
+
+	/**
+	 * Registers a gauge whose value is read when a snapshot is taken.
+	 */
+	public synchronized Gauge gauge(String name, String help, Supplier<? extends Number> supplier, String... labels) {
+		final Gauge gauge = gauge(name, help, labels);
+		gauge.supplier = supplier;
+		return gauge;
+	}
+
+	public synchronized Histogram histogram(String name, String help, String... labels) {
+		return get(name, labels, Histogram.class, () -> new Histogram(name, help, toMap(labels)));
+	}
+
+	public Counter bytesDownloaded() {
+		return counter(BYTES_DOWNLOADED, "Bytes read from NDEx");
+	}
+
+	public Counter bytesUploaded() {
+		return counter(BYTES_UPLOADED, "Bytes sent to NDEx");
+	}
+
+	public Histogram phase(String phase) {
+		return histogram(PHASE_DURATION, "Duration of import and export phases", "phase", phase);
+	}
+
+	public Counter retries(String operation) {
+		return counter(RETRIES, "Retried NDEx operations", "operation", operation);
+	}
+
+	public Gauge activeJobs(String type) {
+		return gauge(ACTIVE_JOBS, "Imports and exports in progress", "type", type);
+	}
+
+	/**
+	 * Exposes hit and miss counts of a cache as counters, and its hit ratio.
+	 */
+	public void registerCache(String cache, LongSupplier hits, LongSupplier misses) {
+		counter(CACHE_HITS, "Cache hits", hits, "cache", cache);
+		counter(CACHE_MISSES, "Cache misses", misses, "cache", cache);
+		gauge(CACHE_HIT_RATIO, "Share of cache lookups that were hits", () -> {
+			final long hit = hits.getAsLong();
+			final long total = hit + misses.getAsLong();
+			return total == 0 ? 0.0 : (double) hit / total;
+		}, "cache", cache);
+	}
+
+	public synchronized List<MetricSample> getSamples() {
+		final List<MetricSample> samples = new ArrayList<>();
+		for (Metric metric : metrics.values()) {
+			final MetricSample sample = new MetricSample();
+			sample.name = metric.name;
+			sample.type = metric.getType();
+			sample.help = metric.help;
+			sample.labels = metric.labels;
+			metric.fill(sample);
+			samples.add(sample);
+		}
+		return samples;
+	}
+
+	/**
+	 * Formats all metrics in the Prometheus text exposition format, version
+	 * 0.0.4.
+	 */
+	public String toPrometheus() {
+		final StringBuilder out = new StringBuilder();
+		String lastName = null;
+		for (MetricSample sample : getSamples()) {
+			if (!sample.name.equals(lastName)) {
+				out.append("# HELP ").append(sample.name).append(' ').append(sample.help).append('\n');
+				out.append("# TYPE ").append(sample.name).append(' ').append(sample.type).append('\n');
+				lastName = sample.name;
+			}
+			if (sample.buckets != null) {
+				for (Map.Entry<String, Long> bucket : sample.buckets.entrySet()) {
+					final Map<String, String> labels = new LinkedHashMap<>(sample.labels);
+					labels.put("le", bucket.getKey());
+					appendLine(out, sample.name + "_bucket", labels, bucket.getValue());
+				}
+				appendLine(out, sample.name + "_sum", sample.labels, sample.sum);
+				appendLine(out, sample.name + "_count", sample.labels, sample.count);
+			} else {
+				appendLine(out, sample.name, sample.labels, sample.value);
+			}
+		}
+		return out.toString();
+	}
+
+	private static void appendLine(StringBuilder out, String name, Map<String, String> labels, Number value) {
+		out.append(name);
+		if (!labels.isEmpty()) {
+			out.append('{');
+			boolean first = true;
+			for (Map.Entry<String, String> label : labels.entrySet()) {
+				if (!first) {
+					out.append(',');
+				}
+				first = false;
+				out.append(label.getKey()).append("=\"").append(label.getValue().replace("\\", "\\\\")
+						.replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+			}
+			out.append('}');
+		}
+		out.append(' ');
+		out.append(value instanceof Double ? formatDouble(value.doubleValue()) : value.toString());
+		out.append('\n');
+	}
+
+	private static String formatDouble(double value) {
+		if (value == Math.rint(value) && !Double.isInfinite(value)) {
+			return Long.toString((long) value);
+		}
+		return Double.toString(value);
+	}
+
+	private <T extends Metric> T get(String name, String[] labels, Class<T> type, Supplier<T> factory) {
+		final String key = name + toMap(labels);
+		final Metric existing = metrics.get(key);
+		if (existing == null) {
+			final T metric = factory.get();
+			metrics.put(key, metric);
+			return metric;
+		}
+		if (!type.isInstance(existing)) {
+			throw new IllegalArgumentException("Metric " + key + " is a " + existing.getType());
+		}
+		return type.cast(existing);
+	}
+
+	private static Map<String, String> toMap(String[] labels) {
+		if (labels.length % 2 != 0) {
+			throw new IllegalArgumentException("Labels must be name/value pairs");
+		}
+		if (labels.length == 0) {
+			return Collections.emptyMap();
+		}
+		final Map<String, String> map = new LinkedHashMap<>();
+		for (int i = 0; i < labels.length; i += 2) {
+			map.put(labels[i], labels[i + 1]);
+		}
+		return Collections.unmodifiableMap(map);
+	}
+}
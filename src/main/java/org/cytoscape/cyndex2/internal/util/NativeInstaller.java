@@ -2,6 +2,7 @@ package org.cytoscape.cyndex2.internal.util;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -10,11 +11,14 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.jar.JarEntry;
+import java.util.stream.Stream;
 
 import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
 import org.apache.commons.compress.archivers.sevenz.SevenZFile;
@@ -35,6 +39,12 @@ public class NativeInstaller {
 	public static final String PLATFORM_MAC = "mac";
 	public static final String PLATFORM_LINUX = "linux64";
 
+	public static final String MANIFEST_NAME = "install.manifest";
+	private static final String MANIFEST_VERSION = "version";
+	private static final String MANIFEST_PLATFORM = "platform";
+	private static final String MANIFEST_FILE_COUNT = "files";
+	private static final String MANIFEST_FILE_PREFIX = "file.";
+
 	private final String platform;
 	private final File installLocation;
 
@@ -64,6 +74,19 @@ public class NativeInstaller {
 	}
 
 	private final void install(TaskMonitor tm) throws InstallException {
+		// Warm start: a matching manifest means a previous install completed for this version and platform.
+		final StartupTimings.Phase checkPhase = StartupTimings.INSTANCE.start("install.manifestCheck");
+		final boolean installed;
+		try {
+			installed = isInstalled(installLocation, platform);
+		} finally {
+			checkPhase.end();
+		}
+		if (installed) {
+			logger.info("JxBrowser " + JXBROWSER_VERSION + " binaries already installed at " + installLocation);
+			return;
+		}
+
 		tm.setTitle("Installing JXBrowser binaries. This should only occur on first run.");
 		// Create the directory if it doesn't exist
 		if (installLocation.exists()) {
@@ -94,25 +117,42 @@ public class NativeInstaller {
 				String url = getURL();
 				logger.info("Downloading JxBrowser JAR file from " + url);
 				
-				final URL sourceUrl = new URL(url);
-				int fileSize = checkSize(url);
-				downloadJarFile(sourceUrl, jarFile, fileSize);
+				final StartupTimings.Phase downloadPhase = StartupTimings.INSTANCE.start("install.download");
+				try {
+					final URL sourceUrl = new URL(url);
+					int fileSize = checkSize(url);
+					downloadJarFile(sourceUrl, jarFile, fileSize);
+				} finally {
+					downloadPhase.end();
+				}
 			}
 			
 			if (!jarFile.exists()) {
 				throw new InstallException("Unable to download JxBrowser jar file for " + platform);
 			}
 			LoadBrowserStage.EXTRACT_ZIP.updateTaskMonitor(tm);
-			File zipFile = extractZipFile(jarFile, installLocation);
+			final StartupTimings.Phase extractJarPhase = StartupTimings.INSTANCE.start("install.extractJar");
+			final File zipFile;
+			try {
+				zipFile = extractZipFile(jarFile, installLocation);
+			} finally {
+				extractJarPhase.end();
+			}
 			if (zipFile == null || !zipFile.exists()) {
 				throw new InstallException("Unable to extract JxBrowser archive from " + jarFile.getAbsolutePath());
 			}
 			
 			LoadBrowserStage.EXTRACT_BINARY.updateTaskMonitor(tm);
-			if (!extractBinaries(zipFile)) {
-				throw new InstallException("Unable to extract JxBrowser binaries from archive at " + zipFile.getAbsolutePath());
+			final StartupTimings.Phase extractBinariesPhase = StartupTimings.INSTANCE.start("install.extractBinaries");
+			try {
+				if (!extractBinaries(zipFile)) {
+					throw new InstallException("Unable to extract JxBrowser binaries from archive at " + zipFile.getAbsolutePath());
+				}
+			} finally {
+				extractBinariesPhase.end();
 			}
 
+			writeManifest(installLocation, platform);
 		} catch (IOException e) {
 			e.printStackTrace();
 			String message = "Failed to extract JAR to " + installLocation.getAbsolutePath();
@@ -263,6 +303,81 @@ public class NativeInstaller {
 		return true;
 	}
 
+	/**
+	 * Returns true if the install location holds a manifest written by a completed
+	 * install of the current JxBrowser version for the given platform, and every
+	 * file it lists is still on disk with the recorded size.
+	 */
+	public static boolean isInstalled(File installLocation, String platform) {
+		final File manifestFile = new File(installLocation, MANIFEST_NAME);
+		if (!manifestFile.isFile()) {
+			return false;
+		}
+		final Properties manifest = new Properties();
+		try (InputStream is = new FileInputStream(manifestFile)) {
+			manifest.load(is);
+		} catch (IOException e) {
+			return false;
+		}
+		if (!JXBROWSER_VERSION.equals(manifest.getProperty(MANIFEST_VERSION))
+				|| !platform.equals(manifest.getProperty(MANIFEST_PLATFORM))) {
+			return false;
+		}
+
+		final int count;
+		try {
+			count = Integer.parseInt(manifest.getProperty(MANIFEST_FILE_COUNT, "").trim());
+		} catch (NumberFormatException e) {
+			return false;
+		}
+		int listed = 0;
+		for (String key : manifest.stringPropertyNames()) {
+			if (!key.startsWith(MANIFEST_FILE_PREFIX)) {
+				continue;
+			}
+			listed++;
+			final File f = new File(installLocation, key.substring(MANIFEST_FILE_PREFIX.length()));
+			if (!f.isFile() || !String.valueOf(f.length()).equals(manifest.getProperty(key).trim())) {
+				// Missing or changed since the install
+				return false;
+			}
+		}
+		return listed == count;
+	}
+
+	/**
+	 * Records the version, platform and installed files (with sizes) of the
+	 * install location. The manifest is written to a temporary file first so an
+	 * interrupted write never leaves a valid-looking manifest behind.
+	 */
+	public static void writeManifest(File installLocation, String platform) throws IOException {
+		final Path root = installLocation.toPath();
+		final Properties manifest = new Properties();
+		manifest.setProperty(MANIFEST_VERSION, JXBROWSER_VERSION);
+		manifest.setProperty(MANIFEST_PLATFORM, platform);
+
+		int count = 0;
+		try (Stream<Path> paths = Files.walk(root)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				final File f = path.toFile();
+				if (!f.isFile() || f.getName().startsWith(MANIFEST_NAME)) {
+					continue;
+				}
+				final String name = root.relativize(path).toString().replace(File.separatorChar, '/');
+				manifest.setProperty(MANIFEST_FILE_PREFIX + name, String.valueOf(f.length()));
+				count++;
+			}
+		}
+		manifest.setProperty(MANIFEST_FILE_COUNT, String.valueOf(count));
+
+		final File tmp = new File(installLocation, MANIFEST_NAME + ".tmp");
+		try (FileOutputStream fos = new FileOutputStream(tmp)) {
+			manifest.store(fos, "JxBrowser install manifest");
+		}
+		Files.move(tmp.toPath(), new File(installLocation, MANIFEST_NAME).toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
 	public static String getJarName(String platform) {
 		return String.format("jxbrowser-%s-%s.jar", platform, JXBROWSER_VERSION);
 	}
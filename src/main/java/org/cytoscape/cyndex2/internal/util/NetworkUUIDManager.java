@@ -8,23 +8,42 @@ import org.cytoscape.model.CyTable;
 
 public class NetworkUUIDManager {
 	public static final String UUID_COLUMN = "NDEx UUID";
+	// Set instead of the UUID on previews, so that they never replace the full network in NDEx
+	public static final String PREVIEW_COLUMN = "NDEx preview of";
+
 	public static void saveUUID(CyNetwork network, UUID uuid) {
+		saveUUID(network, UUID_COLUMN, uuid);
+	}
+	
+	public static UUID getUUID(CyNetwork network) {
+		return getUUID(network, UUID_COLUMN);
+	}
+
+	public static void savePreviewUUID(CyNetwork network, UUID uuid) {
+		saveUUID(network, PREVIEW_COLUMN, uuid);
+	}
+
+	public static UUID getPreviewUUID(CyNetwork network) {
+		return getUUID(network, PREVIEW_COLUMN);
+	}
+
+	private static void saveUUID(CyNetwork network, String column, UUID uuid) {
 		CyTable table = network.getTable(CyNetwork.class, CyNetwork.HIDDEN_ATTRS);
 		
-		if (table.getColumn(UUID_COLUMN) == null) {
-			table.createColumn(UUID_COLUMN, String.class, false);
+		if (table.getColumn(column) == null) {
+			table.createColumn(column, String.class, false);
 		}
 		CyRow row = table.getRow(network.getSUID());
-		row.set(UUID_COLUMN, uuid.toString());
+		row.set(column, uuid.toString());
 	}
-	
-	public static UUID getUUID(CyNetwork network) {
+
+	private static UUID getUUID(CyNetwork network, String column) {
 		CyTable table = network.getTable(CyNetwork.class, CyNetwork.HIDDEN_ATTRS);
 		CyRow row = table.getRow(network.getSUID());
 		if (row == null) {
 			return null;
 		}
-		String uuid = row.get(UUID_COLUMN, String.class);
+		String uuid = row.get(column, String.class);
 		if (uuid == null || uuid.isEmpty()) {
 			return null;
 		}
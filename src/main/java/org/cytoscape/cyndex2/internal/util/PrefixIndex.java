@@ -0,0 +1,93 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Bounded in-memory prefix index of suggestion terms such as network names and
+ * gene symbols. A term matches when the prefix starts the term or any word in
+ * it. When the index is full the oldest terms are dropped.
+ */
+public class PrefixIndex {
+
+	private final int maxTerms;
+	private final TreeMap<String, Set<String>> tokens = new TreeMap<>();
+	private final Set<String> terms = new LinkedHashSet<>();
+	private final Deque<String> order = new ArrayDeque<>();
+
+	public PrefixIndex(final int maxTerms) {
+		this.maxTerms = maxTerms;
+	}
+
+	private static List<String> tokenize(String term) {
+		final List<String> result = new ArrayList<>();
+		final String lower = term.toLowerCase(Locale.ROOT);
+		result.add(lower);
+		for (String word : lower.split("[\\s_\\-:;,.()/]+")) {
+			if (!word.isEmpty() && !word.equals(lower)) {
+				result.add(word);
+			}
+		}
+		return result;
+	}
+
+	public synchronized void add(String term) {
+		if (term == null) {
+			return;
+		}
+		term = term.trim();
+		if (term.isEmpty() || !terms.add(term)) {
+			return;
+		}
+		order.addLast(term);
+		for (String token : tokenize(term)) {
+			tokens.computeIfAbsent(token, k -> new LinkedHashSet<>()).add(term);
+		}
+		while (terms.size() > maxTerms) {
+			remove(order.removeFirst());
+		}
+	}
+
+	private void remove(String term) {
+		terms.remove(term);
+		for (String token : tokenize(term)) {
+			final Set<String> set = tokens.get(token);
+			if (set != null) {
+				set.remove(term);
+				if (set.isEmpty()) {
+					tokens.remove(token);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns up to limit terms matching the prefix, shorter terms first.
+	 */
+	public synchronized List<String> lookup(String prefix, int limit) {
+		final List<String> result = new ArrayList<>();
+		if (prefix == null || prefix.trim().isEmpty()) {
+			return result;
+		}
+		final String from = prefix.trim().toLowerCase(Locale.ROOT);
+		final Set<String> matches = new LinkedHashSet<>();
+		for (Map.Entry<String, Set<String>> entry : tokens.subMap(from, true, from + Character.MAX_VALUE, false)
+				.entrySet()) {
+			matches.addAll(entry.getValue());
+		}
+		result.addAll(matches);
+		result.sort((a, b) -> Integer.compare(a.length(), b.length()));
+		return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+	}
+
+	public synchronized int size() {
+		return terms.size();
+	}
+}
@@ -0,0 +1,74 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.cyndex2.internal.rest.parameter.NDExImportParameters;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkManager;
+import org.ndexbio.model.object.network.NetworkSummary;
+
+/**
+ * Preview networks imported from NDEx samples in this session, with the
+ * parameters and summary they were imported with, so that they can be
+ * replaced by the full network without asking for them or fetching the
+ * summary again.
+ */
+public class PreviewNetworks {
+
+	public static final PreviewNetworks INSTANCE = new PreviewNetworks();
+
+	public static class Entry {
+		public final NDExImportParameters params;
+		public final NetworkSummary summary;
+
+		Entry(NDExImportParameters params, NetworkSummary summary) {
+			this.params = params;
+			this.summary = summary;
+		}
+	}
+
+	private final Map<Long, Entry> entries = new HashMap<>();
+
+	PreviewNetworks() {
+	}
+
+	/**
+	 * Remembers a preview network. Entries of networks that have since been
+	 * destroyed are dropped.
+	 */
+	public synchronized void add(final CyNetwork network, final NDExImportParameters params,
+			final NetworkSummary summary) {
+		final CyNetworkManager networkManager = CyServiceModule.getService(CyNetworkManager.class);
+		for (Iterator<Long> it = entries.keySet().iterator(); it.hasNext();) {
+			if (!networkManager.networkExists(it.next())) {
+				it.remove();
+			}
+		}
+		entries.put(network.getSUID(), new Entry(params, summary));
+	}
+
+	/**
+	 * Returns the entry of a preview network, or null if the network is not a
+	 * preview imported in this session.
+	 */
+	public synchronized Entry get(final CyNetwork network) {
+		final Entry entry = entries.get(network.getSUID());
+		if (entry == null) {
+			return null;
+		}
+		final UUID uuid = NetworkUUIDManager.getPreviewUUID(network);
+		return uuid != null && uuid.toString().equalsIgnoreCase(entry.params.uuid) ? entry : null;
+	}
+
+	public synchronized void remove(final CyNetwork network) {
+		entries.remove(network.getSUID());
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+}
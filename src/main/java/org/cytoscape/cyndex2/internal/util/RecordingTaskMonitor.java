@@ -0,0 +1,236 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import org.cytoscape.cyndex2.internal.rest.response.TaskTrace;
+import org.cytoscape.cyndex2.internal.rest.response.TraceSpan;
+import org.cytoscape.work.TaskMonitor;
+
+/**
+ * Task monitor that records a trace of the task while forwarding to the
+ * monitor Cytoscape provides, if any. Phases are recorded as spans; ending a
+ * span also records its duration in the {@link Metrics} phase histogram.
+ * The trace is registered with the {@link TraceBuffer} once the task starts, so
+ * its progress can be followed while it runs, and kept there once it finishes.
+ */
+public class RecordingTaskMonitor implements TaskMonitor {
+
+	private static final int MAX_MESSAGES = 100;
+
+	private final TaskTrace trace = new TaskTrace();
+	private final long startNanos = System.nanoTime();
+	private volatile TaskMonitor delegate;
+	private boolean started = false;
+	private boolean finished = false;
+
+	public class Span implements AutoCloseable {
+		private final TraceSpan span = new TraceSpan();
+		private final long spanStartNanos = System.nanoTime();
+
+		private Span(String name) {
+			span.name = name;
+			span.startMs = (spanStartNanos - startNanos) / 1000000;
+		}
+
+		public void addBytes(long bytes) {
+			synchronized (RecordingTaskMonitor.this) {
+				span.bytes += bytes;
+			}
+		}
+
+		public void setBytes(long bytes) {
+			synchronized (RecordingTaskMonitor.this) {
+				span.bytes = bytes;
+			}
+		}
+
+		public void addElements(long elements) {
+			synchronized (RecordingTaskMonitor.this) {
+				span.elements += elements;
+			}
+		}
+
+		public void end() {
+			final long nanos = System.nanoTime() - spanStartNanos;
+			synchronized (RecordingTaskMonitor.this) {
+				// The trace is read-only once finished
+				if (finished || span.durationMs >= 0) {
+					return;
+				}
+				span.durationMs = nanos / 1000000;
+			}
+			Metrics.INSTANCE.phase(span.name).observe(nanos / 1e9);
+		}
+
+		@Override
+		public void close() {
+			end();
+		}
+	}
+
+	public RecordingTaskMonitor(final String type, final String target) {
+		trace.type = type;
+		trace.target = target;
+		trace.startTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Sets the monitor calls are forwarded to. The first call marks the task as
+	 * running.
+	 */
+	public void setDelegate(final TaskMonitor delegate) {
+		this.delegate = delegate;
+		synchronized (this) {
+			if (started || finished) {
+				return;
+			}
+			started = true;
+		}
+		final long id = TraceBuffer.INSTANCE.start(this::snapshot);
+		synchronized (this) {
+			trace.id = id;
+		}
+	}
+
+	public synchronized Span startSpan(final String name) {
+		final Span span = new Span(name);
+		trace.spans.add(span.span);
+		return span;
+	}
+
+	/**
+	 * Returns a monitor for a nested task, such as the CX reader. Its messages
+	 * are recorded in this trace; its progress and title are ignored.
+	 */
+	public TaskMonitor nested() {
+		return new TaskMonitor() {
+			@Override
+			public void setTitle(String title) {
+			}
+
+			@Override
+			public void setProgress(double progress) {
+			}
+
+			@Override
+			public void setStatusMessage(String statusMessage) {
+				record(statusMessage);
+			}
+
+			@Override
+			public void showMessage(Level level, String message) {
+				record(level + ": " + message);
+			}
+		};
+	}
+
+	/**
+	 * Completes the trace and adds it to the trace buffer. Spans that are still
+	 * open are left without a duration.
+	 */
+	public void finish(final String status, final String error) {
+		synchronized (this) {
+			if (finished) {
+				return;
+			}
+			finished = true;
+			trace.status = status;
+			trace.error = error;
+			trace.durationMs = (System.nanoTime() - startNanos) / 1000000;
+		}
+		TraceBuffer.INSTANCE.add(trace);
+	}
+
+	/**
+	 * Records the state of a download or upload in the trace and shows it as
+	 * the status message. The message is not added to the trace's messages.
+	 */
+	public void reportTransfer(final TransferProgress transfer) {
+		synchronized (this) {
+			if (finished) {
+				return;
+			}
+			trace.bytesTransferred = transfer.getBytes();
+			trace.bytesTotal = Math.max(0, transfer.getTotal());
+			trace.bytesPerSecond = transfer.getRate();
+			trace.etaMs = transfer.getEtaMillis();
+		}
+		final TaskMonitor current = delegate;
+		if (current != null) {
+			current.setStatusMessage(transfer.getMessage());
+		}
+	}
+
+	/**
+	 * Returns a copy of the trace as it is now.
+	 */
+	synchronized TaskTrace snapshot() {
+		final TaskTrace copy = new TaskTrace();
+		copy.id = trace.id;
+		copy.type = trace.type;
+		copy.target = trace.target;
+		copy.startTime = trace.startTime;
+		copy.durationMs = finished ? trace.durationMs : (System.nanoTime() - startNanos) / 1000000;
+		copy.status = finished ? trace.status : TaskTrace.RUNNING;
+		copy.error = trace.error;
+		copy.progress = trace.progress;
+		copy.bytesTransferred = trace.bytesTransferred;
+		copy.bytesTotal = trace.bytesTotal;
+		copy.bytesPerSecond = trace.bytesPerSecond;
+		copy.etaMs = trace.etaMs;
+		copy.messages.addAll(trace.messages);
+		for (TraceSpan span : trace.spans) {
+			final TraceSpan spanCopy = new TraceSpan();
+			spanCopy.name = span.name;
+			spanCopy.startMs = span.startMs;
+			spanCopy.durationMs = span.durationMs;
+			spanCopy.bytes = span.bytes;
+			spanCopy.elements = span.elements;
+			copy.spans.add(spanCopy);
+		}
+		return copy;
+	}
+
+	private synchronized void record(final String message) {
+		if (message != null && trace.messages.size() < MAX_MESSAGES) {
+			trace.messages.add(message);
+		}
+	}
+
+	@Override
+	public void setTitle(String title) {
+		final TaskMonitor current = delegate;
+		if (current != null) {
+			current.setTitle(title);
+		}
+	}
+
+	@Override
+	public void setProgress(double progress) {
+		synchronized (this) {
+			if (!finished) {
+				trace.progress = progress;
+			}
+		}
+		final TaskMonitor current = delegate;
+		if (current != null) {
+			current.setProgress(progress);
+		}
+	}
+
+	@Override
+	public void setStatusMessage(String statusMessage) {
+		record(statusMessage);
+		final TaskMonitor current = delegate;
+		if (current != null) {
+			current.setStatusMessage(statusMessage);
+		}
+	}
+
+	@Override
+	public void showMessage(Level level, String message) {
+		record(level + ": " + message);
+		final TaskMonitor current = delegate;
+		if (current != null) {
+			current.showMessage(level, message);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+
+/**
+ * Body of an HTTP response. Closing it after the end of the body releases the
+ * connection for reuse, as closing the content stream does. Closing it
+ * earlier drops the connection instead, since HttpClient would otherwise read
+ * the rest of the body first.
+ */
+public class ResponseBodyStream extends FilterInputStream {
+
+	private final CloseableHttpResponse response;
+	private boolean complete = false;
+
+	public ResponseBodyStream(final CloseableHttpResponse response) throws IOException {
+		super(response.getEntity().getContent());
+		this.response = response;
+	}
+
+	@Override
+	public int read() throws IOException {
+		final int b = super.read();
+		if (b < 0) {
+			complete = true;
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		final int n = super.read(b, off, len);
+		if (n < 0) {
+			complete = true;
+		}
+		return n;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (complete) {
+			super.close();
+		} else {
+			response.close();
+		}
+	}
+}
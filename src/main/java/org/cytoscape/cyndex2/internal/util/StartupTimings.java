@@ -0,0 +1,162 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cytoscape.cyndex2.internal.rest.response.PhaseTiming;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records wall-clock and CPU timings of bundle activation and of the browser
+ * loading path. Each finished phase is also written as a structured log line.
+ * The first run of each phase is kept as a startup phase. Later runs, such as
+ * the browser stages of every dialog open, go to a ring buffer of the most
+ * recent ones.
+ */
+public class StartupTimings {
+
+	private static final Logger logger = LoggerFactory.getLogger(StartupTimings.class);
+
+	public static final StartupTimings INSTANCE = new StartupTimings(50);
+
+	private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+	private final int capacity;
+	private final List<PhaseTiming> phases = new ArrayList<>();
+	private final Set<String> names = new HashSet<>();
+	private final Deque<PhaseTiming> recentPhases = new ArrayDeque<>();
+	private final Map<String, Phase> current = new HashMap<>();
+	private volatile long bundleStartTime = System.currentTimeMillis();
+
+	StartupTimings(final int capacity) {
+		this.capacity = capacity;
+	}
+
+	public class Phase {
+		private final PhaseTiming timing;
+		private final long startNanos;
+		private final long startCpuNanos;
+		private final long threadId;
+
+		private Phase(String name) {
+			final Thread thread = Thread.currentThread();
+			this.timing = new PhaseTiming();
+			this.timing.name = name;
+			this.timing.thread = thread.getName();
+			this.threadId = thread.getId();
+			this.startNanos = System.nanoTime();
+			this.startCpuNanos = cpuTime();
+			this.timing.startMs = System.currentTimeMillis() - bundleStartTime;
+		}
+
+		/**
+		 * Ends the phase. CPU time is only reported when the phase ends on the
+		 * thread it started on.
+		 */
+		public void end() {
+			synchronized (StartupTimings.this) {
+				if (timing.wallMs >= 0) {
+					return;
+				}
+				timing.wallMs = (System.nanoTime() - startNanos) / 1000000;
+			}
+			if (startCpuNanos >= 0 && Thread.currentThread().getId() == threadId) {
+				final long cpu = cpuTime();
+				if (cpu >= 0) {
+					timing.cpuMs = (cpu - startCpuNanos) / 1000000;
+				}
+			}
+			logger.info("cyndex2.timing phase=" + timing.name + " thread=\"" + timing.thread + "\" startMs="
+					+ timing.startMs + " wallMs=" + timing.wallMs + " cpuMs=" + timing.cpuMs);
+		}
+	}
+
+	private long cpuTime() {
+		try {
+			if (threadBean.isCurrentThreadCpuTimeSupported()) {
+				return threadBean.getCurrentThreadCpuTime();
+			}
+		} catch (UnsupportedOperationException e) {
+			// Fall through
+		}
+		return -1;
+	}
+
+	/**
+	 * Marks the start of bundle activation. Phase start offsets are relative to
+	 * this time.
+	 */
+	public void bundleStarted() {
+		bundleStartTime = System.currentTimeMillis();
+	}
+
+	public long getBundleStartTime() {
+		return bundleStartTime;
+	}
+
+	public synchronized Phase start(String name) {
+		final Phase phase = new Phase(name);
+		if (names.add(name)) {
+			phases.add(phase.timing);
+		} else {
+			recentPhases.addLast(phase.timing);
+			while (recentPhases.size() > capacity) {
+				recentPhases.removeFirst();
+			}
+		}
+		return phase;
+	}
+
+	/**
+	 * Ends the running phase of the given group, if any, and starts the next
+	 * one. Used for sequential stages such as LoadBrowserStage.
+	 */
+	public void transition(String group, String name) {
+		final Phase previous;
+		synchronized (this) {
+			previous = current.remove(group);
+		}
+		if (previous != null) {
+			previous.end();
+		}
+		final Phase next = start(group + "." + name);
+		synchronized (this) {
+			current.put(group, next);
+		}
+	}
+
+	/**
+	 * Ends the running phase of the given group, if any.
+	 */
+	public void endGroup(String group) {
+		final Phase previous;
+		synchronized (this) {
+			previous = current.remove(group);
+		}
+		if (previous != null) {
+			previous.end();
+		}
+	}
+
+	/**
+	 * Returns the first run of each phase, in the order they started.
+	 */
+	public synchronized List<PhaseTiming> getPhases() {
+		return new ArrayList<>(phases);
+	}
+
+	/**
+	 * Returns the most recent later runs of phases, in the order they started.
+	 */
+	public synchronized List<PhaseTiming> getRecentPhases() {
+		return new ArrayList<>(recentPhases);
+	}
+}
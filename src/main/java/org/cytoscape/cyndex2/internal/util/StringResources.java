@@ -16,6 +16,9 @@ public class StringResources {
 		STARTING_BROWSER(0.8f, "Browser created. Starting CyNDEx-2"),
 		BROWSER_SETUP(0.9f, "Establishing local storage");
 		
+		// Timing group of the stage transitions
+		public static final String GROUP = "browser.stage";
+
 		private final float progress;
 		private final String message;
 		LoadBrowserStage(float progress, String message) {
@@ -29,6 +32,7 @@ public class StringResources {
 			return progress;
 		}
 		public void updateTaskMonitor(final TaskMonitor tm) {
+			StartupTimings.INSTANCE.transition(GROUP, name());
 			tm.setProgress(progress);
 			tm.setStatusMessage(message);
 		}
@@ -0,0 +1,68 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.cytoscape.cyndex2.internal.rest.response.TaskTrace;
+
+/**
+ * Ring buffer of the most recently finished task traces. Running tasks are
+ * registered with a snapshot supplier, so their progress can be read while
+ * they run.
+ */
+public class TraceBuffer {
+
+	public static final TraceBuffer INSTANCE = new TraceBuffer(50);
+
+	private final int capacity;
+	private final Deque<TaskTrace> traces = new ArrayDeque<>();
+	private final Map<Long, Supplier<TaskTrace>> running = new LinkedHashMap<>();
+	private long nextId = 1;
+
+	TraceBuffer(final int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Registers a running task and returns the id of its trace.
+	 */
+	public synchronized long start(final Supplier<TaskTrace> snapshot) {
+		final long id = nextId++;
+		running.put(id, snapshot);
+		return id;
+	}
+
+	public synchronized void add(final TaskTrace trace) {
+		if (trace.id == 0) {
+			trace.id = nextId++;
+		} else {
+			running.remove(trace.id);
+		}
+		traces.addLast(trace);
+		while (traces.size() > capacity) {
+			traces.removeFirst();
+		}
+	}
+
+	public synchronized List<TaskTrace> getTraces() {
+		return new ArrayList<>(traces);
+	}
+
+	public List<TaskTrace> getRunning() {
+		final List<Supplier<TaskTrace>> snapshots;
+		synchronized (this) {
+			snapshots = new ArrayList<>(running.values());
+		}
+		// Snapshots lock their task, so take them outside this lock
+		final List<TaskTrace> result = new ArrayList<>();
+		for (Supplier<TaskTrace> snapshot : snapshots) {
+			result.add(snapshot.get());
+		}
+		return result;
+	}
+}
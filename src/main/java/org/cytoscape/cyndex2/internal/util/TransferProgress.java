@@ -0,0 +1,134 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks a download or upload of known or unknown size and derives its
+ * transfer rate and the time remaining. The rate is smoothed over samples
+ * taken at most every {@link #SAMPLE_INTERVAL_MS} milliseconds, which is also
+ * how often {@link #update(long)} asks callers to report progress.
+ */
+public class TransferProgress {
+
+	public static final long SAMPLE_INTERVAL_MS = 250;
+
+	// Weight of the newest sample in the smoothed rate
+	private static final double SMOOTHING = 0.3;
+	private static final double MB = 1024.0 * 1024.0;
+
+	private final String action;
+	private final long total;
+	private final LongSupplier clock;
+
+	private long bytes = 0;
+	private long sampleNanos;
+	private long sampleBytes = 0;
+	private double rate = -1;
+	private boolean completeReported = false;
+
+	/**
+	 * @param action verb shown in status messages, such as "Downloading"
+	 * @param total  expected number of bytes, or 0 or less if unknown
+	 */
+	public TransferProgress(final String action, final long total) {
+		this(action, total, System::nanoTime);
+	}
+
+	TransferProgress(final String action, final long total, final LongSupplier clock) {
+		this.action = action;
+		this.total = total;
+		this.clock = clock;
+		this.sampleNanos = clock.getAsLong();
+	}
+
+	/**
+	 * Records the number of bytes transferred so far. Returns true when
+	 * progress should be reported: once per sample interval, and when the
+	 * expected size is reached.
+	 */
+	public synchronized boolean update(final long transferred) {
+		bytes = transferred;
+		final long now = clock.getAsLong();
+		final long elapsed = now - sampleNanos;
+		if (elapsed >= SAMPLE_INTERVAL_MS * 1000000) {
+			final double sample = (transferred - sampleBytes) * 1e9 / elapsed;
+			rate = rate < 0 ? sample : SMOOTHING * sample + (1 - SMOOTHING) * rate;
+			sampleNanos = now;
+			sampleBytes = transferred;
+			return true;
+		}
+		if (total > 0 && transferred >= total && !completeReported) {
+			completeReported = true;
+			return true;
+		}
+		return false;
+	}
+
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * Returns the share of the expected size transferred so far, or -1 if the
+	 * size is unknown.
+	 */
+	public synchronized double getFraction() {
+		return total > 0 ? Math.min(1.0, (double) bytes / total) : -1;
+	}
+
+	/**
+	 * Returns the smoothed rate in bytes per second, or -1 before the first
+	 * sample.
+	 */
+	public synchronized double getRate() {
+		return rate;
+	}
+
+	/**
+	 * Returns the estimated time remaining in milliseconds, or -1 if the size
+	 * or rate is unknown.
+	 */
+	public synchronized long getEtaMillis() {
+		if (total <= 0 || rate <= 0) {
+			return -1;
+		}
+		return (long) (Math.max(0, total - bytes) * 1000 / rate);
+	}
+
+	/**
+	 * Returns a status message such as "Downloading 12.5 of 40.0 MB at 3.1
+	 * MB/s, about 9 s left".
+	 */
+	public synchronized String getMessage() {
+		final StringBuilder message = new StringBuilder(action).append(' ');
+		message.append(String.format(Locale.ROOT, "%.1f", bytes / MB));
+		if (total > 0) {
+			message.append(String.format(Locale.ROOT, " of %.1f", total / MB));
+		}
+		message.append(" MB");
+		if (rate >= 0) {
+			message.append(String.format(Locale.ROOT, " at %.1f MB/s", rate / MB));
+		}
+		final long eta = getEtaMillis();
+		if (eta >= 0) {
+			message.append(", about ").append(formatDuration(eta)).append(" left");
+		}
+		return message.toString();
+	}
+
+	static String formatDuration(final long millis) {
+		final long seconds = (millis + 999) / 1000;
+		if (seconds < 60) {
+			return seconds + " s";
+		}
+		if (seconds < 3600) {
+			return (seconds / 60) + " min " + (seconds % 60) + " s";
+		}
+		return (seconds / 3600) + " h " + (seconds % 3600 / 60) + " min";
+	}
+}
@@ -0,0 +1,433 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Disk-backed cache of NDEx responses with their HTTP validators. Callers send
+ * conditional requests with {@link Entry#addValidators(HttpRequest)} and read
+ * the stored body when the server answers 304 Not Modified. Entries without
+ * validators keep the NDEx modification time of the network instead, so that
+ * callers can compare it with a fresh network summary.
+ *
+ * Recently used entries are kept in memory; bodies and metadata live on disk
+ * and the oldest bodies are deleted when the cache grows past its size limit.
+ */
+public class ValidationCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(ValidationCache.class);
+
+	public static final ValidationCache INSTANCE = new ValidationCache(256, 512L * 1024 * 1024);
+
+	public static final String CACHE_DIR = "ndex-cache";
+
+	// A single body may use at most this share of the size limit, so that one
+	// large network neither evicts everything else nor is evicted on arrival
+	private static final int MAX_ENTRY_SHARE = 4;
+
+	private static final String META_SUFFIX = ".meta";
+	private static final String BODY_SUFFIX = ".body";
+
+	public static class Entry {
+		public final String key;
+		public final String etag;
+		public final String lastModified;
+		public final long modificationTime;
+		private final File body;
+
+		private Entry(String key, String etag, String lastModified, long modificationTime, File body) {
+			this.key = key;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.modificationTime = modificationTime;
+			this.body = body;
+		}
+
+		public boolean hasValidators() {
+			return etag != null || lastModified != null;
+		}
+
+		public void addValidators(final HttpRequest request) {
+			if (etag != null) {
+				request.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+			}
+			if (lastModified != null) {
+				request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+			}
+		}
+	}
+
+	private final long maxBytes;
+	private final LinkedHashMap<String, Entry> entries;
+	private File directory;
+
+	private long lookups = 0;
+	private long hits = 0;
+	private long notModified = 0;
+	private long stores = 0;
+
+	ValidationCache(final int maxEntries, final long maxBytes) {
+		this.maxBytes = maxBytes;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ValidationCache.Entry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Sets the directory that holds cached bodies. Until this is called nothing
+	 * is cached.
+	 */
+	public synchronized void open(final File directory) {
+		this.directory = directory;
+		entries.clear();
+	}
+
+	/**
+	 * Returns the stored entry for the key, or null if there is none.
+	 */
+	public synchronized Entry lookup(final String key) {
+		if (directory == null) {
+			return null;
+		}
+		lookups++;
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			entry = readEntry(key);
+			if (entry != null) {
+				entries.put(key, entry);
+			}
+		}
+		if (entry != null && !entry.body.isFile()) {
+			entries.remove(key);
+			return null;
+		}
+		return entry;
+	}
+
+	/**
+	 * Opens the stored body of an entry. Call this when the server answered 304,
+	 * or when the entry's modification time still matches the network summary.
+	 */
+	public InputStream open(final Entry entry, final boolean validated) throws IOException {
+		synchronized (this) {
+			hits++;
+			if (validated) {
+				notModified++;
+			}
+		}
+		entry.body.setLastModified(System.currentTimeMillis());
+		return new BufferedInputStream(new FileInputStream(entry.body));
+	}
+
+	/**
+	 * Returns true if a body of the given length, or of unknown length when it
+	 * is 0 or less, is small enough to be cached.
+	 */
+	public boolean accepts(final long length) {
+		return length <= getMaxEntryBytes();
+	}
+
+	public long getMaxEntryBytes() {
+		return maxBytes / MAX_ENTRY_SHARE;
+	}
+
+	/**
+	 * Returns true if the stream is storing its body in the cache, so that
+	 * reading it to the end is worth it.
+	 */
+	public static boolean isCaching(final InputStream in) {
+		return in instanceof CachingInputStream && ((CachingInputStream) in).out != null;
+	}
+
+	/**
+	 * Wraps a response body so that it is stored under the key as it is read.
+	 * The entry is only written once the stream has been read to the end and
+	 * closed; a stream closed early leaves the cache unchanged. Bodies that
+	 * grow past {@link #getMaxEntryBytes()} are passed through without being
+	 * stored.
+	 */
+	public InputStream cache(final String key, final HttpResponse response, final long modificationTime,
+			final InputStream in) throws IOException {
+		return cache(key, headerValue(response, HttpHeaders.ETAG), headerValue(response, HttpHeaders.LAST_MODIFIED),
+				modificationTime, in);
+	}
+
+	public InputStream cache(final String key, final String etag, final String lastModified,
+			final long modificationTime, final InputStream in) throws IOException {
+		final File dir;
+		synchronized (this) {
+			dir = directory;
+		}
+		if (dir == null || (etag == null && lastModified == null && modificationTime <= 0)) {
+			return in;
+		}
+		dir.mkdirs();
+		final File temp = File.createTempFile("body", ".tmp", dir);
+		return new CachingInputStream(in, temp,
+				new Entry(key, etag, lastModified, modificationTime, new File(dir, getFileName(key) + BODY_SUFFIX)));
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of lookups whose stored body was not opened, because
+	 * there was none or because it was out of date.
+	 */
+	public synchronized long getMisses() {
+		return lookups - hits;
+	}
+
+	public synchronized long getNotModified() {
+		return notModified;
+	}
+
+	public synchronized long getStores() {
+		return stores;
+	}
+
+	private static String headerValue(final HttpResponse response, final String name) {
+		final Header header = response.getFirstHeader(name);
+		return header == null ? null : header.getValue();
+	}
+
+	private class CachingInputStream extends FilterInputStream {
+		private final File temp;
+		private final Entry entry;
+		private OutputStream out;
+		private long written = 0;
+		private boolean complete = false;
+		private boolean closed = false;
+
+		CachingInputStream(InputStream in, File temp, Entry entry) throws IOException {
+			super(in);
+			this.temp = temp;
+			this.entry = entry;
+			this.out = new BufferedOutputStream(new FileOutputStream(temp));
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (closed) {
+				return -1;
+			}
+			final int b = super.read();
+			if (b < 0) {
+				complete = true;
+			} else {
+				store(new byte[] { (byte) b }, 0, 1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (closed) {
+				return -1;
+			}
+			final int n = super.read(b, off, len);
+			if (n < 0) {
+				complete = true;
+			} else {
+				store(b, off, n);
+			}
+			return n;
+		}
+
+		private void store(byte[] b, int off, int n) throws IOException {
+			if (out == null) {
+				return;
+			}
+			written += n;
+			if (written > getMaxEntryBytes()) {
+				// Too large to keep; read on without storing
+				out.close();
+				out = null;
+				temp.delete();
+				return;
+			}
+			out.write(b, off, n);
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			// Skipped bytes must still be stored
+			final byte[] buffer = new byte[8192];
+			long skipped = 0;
+			while (skipped < n) {
+				final int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+				if (read < 0) {
+					break;
+				}
+				skipped += read;
+			}
+			return skipped;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				super.close();
+			} finally {
+				if (out != null) {
+					out.close();
+					if (complete) {
+						commit(entry, temp);
+					} else {
+						temp.delete();
+					}
+				}
+			}
+		}
+	}
+
+	private void commit(final Entry entry, final File temp) {
+		try {
+			Files.move(temp.toPath(), entry.body.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			writeEntry(entry);
+		} catch (IOException e) {
+			logger.warn("Could not store cached response for " + entry.key + ": " + e.getMessage());
+			temp.delete();
+			return;
+		}
+		synchronized (this) {
+			entries.put(entry.key, entry);
+			stores++;
+		}
+		trim();
+	}
+
+	private void writeEntry(final Entry entry) throws IOException {
+		final Properties props = new Properties();
+		props.setProperty("key", entry.key);
+		if (entry.etag != null) {
+			props.setProperty("etag", entry.etag);
+		}
+		if (entry.lastModified != null) {
+			props.setProperty("lastModified", entry.lastModified);
+		}
+		props.setProperty("modificationTime", Long.toString(entry.modificationTime));
+
+		final File meta = new File(entry.body.getParentFile(), getFileName(entry.key) + META_SUFFIX);
+		final File temp = new File(meta.getPath() + ".tmp");
+		try (OutputStream out = new FileOutputStream(temp)) {
+			props.store(out, null);
+		}
+		Files.move(temp.toPath(), meta.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private Entry readEntry(final String key) {
+		final String name = getFileName(key);
+		final File meta = new File(directory, name + META_SUFFIX);
+		final File body = new File(directory, name + BODY_SUFFIX);
+		if (!meta.isFile() || !body.isFile()) {
+			return null;
+		}
+		final Properties props = new Properties();
+		try (InputStream in = new FileInputStream(meta)) {
+			props.load(in);
+		} catch (IOException e) {
+			return null;
+		}
+		if (!key.equals(props.getProperty("key"))) {
+			return null;
+		}
+		long modificationTime = 0;
+		try {
+			modificationTime = Long.parseLong(props.getProperty("modificationTime", "0"));
+		} catch (NumberFormatException e) {
+			// Keep 0
+		}
+		return new Entry(key, props.getProperty("etag"), props.getProperty("lastModified"), modificationTime, body);
+	}
+
+	/**
+	 * Deletes the least recently used bodies until the cache fits its size
+	 * limit.
+	 */
+	private void trim() {
+		final File dir;
+		synchronized (this) {
+			dir = directory;
+		}
+		final File[] bodies = dir == null ? null : dir.listFiles((d, name) -> name.endsWith(BODY_SUFFIX));
+		if (bodies == null) {
+			return;
+		}
+		long total = 0;
+		for (File body : bodies) {
+			total += body.length();
+		}
+		if (total <= maxBytes) {
+			return;
+		}
+		final List<File> oldestFirst = new ArrayList<>(Arrays.asList(bodies));
+		oldestFirst.sort(Comparator.comparingLong(File::lastModified));
+		for (File body : oldestFirst) {
+			if (total <= maxBytes) {
+				break;
+			}
+			total -= body.length();
+			final String name = body.getName().substring(0, body.getName().length() - BODY_SUFFIX.length());
+			body.delete();
+			new File(dir, name + META_SUFFIX).delete();
+			synchronized (this) {
+				entries.values().removeIf(entry -> entry.body.equals(body));
+			}
+		}
+	}
+
+	private static String getFileName(final String key) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			final StringBuilder name = new StringBuilder();
+			for (byte b : digest.digest(key.getBytes(StandardCharsets.UTF_8))) {
+				name.append(String.format("%02x", b));
+			}
+			return name.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
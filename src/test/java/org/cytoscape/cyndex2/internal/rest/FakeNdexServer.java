@@ -0,0 +1,803 @@
+package org.cytoscape.cyndex2.internal.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Embedded stand-in for an NDEx v2 server, so that tests of the import and
+ * export paths run without a network. It serves network summaries (single and
+ * bulk), network search, CX downloads, samples, single aspects and their
+ * metadata, neighborhood and interconnect queries, CX uploads (POST and PUT),
+ * system properties, permissions and sign-in for the users and networks added
+ * to it. Searches match network names, and queries match node names with a
+ * depth of 1.
+ *
+ * Latency is added to every request, responses and uploads can be throttled
+ * to a bandwidth, and the next requests matching a pattern can be made to
+ * fail with a given status.
+ */
+public class FakeNdexServer implements AutoCloseable {
+
+	public static final String BASE_PATH = "/v2";
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static class Network {
+		final UUID id;
+		String name;
+		String owner;
+		byte[] cx;
+		byte[] sample;
+		long modificationTime = System.currentTimeMillis();
+		boolean readOnly = false;
+		final Map<String, Object> systemProperties = new LinkedHashMap<>();
+		final Map<String, String> permissions = new HashMap<>();
+
+		Network(UUID id) {
+			this.id = id;
+		}
+	}
+
+	private static class User {
+		final UUID id = UUID.randomUUID();
+		final String name;
+		final String password;
+
+		User(String name, String password) {
+			this.name = name;
+			this.password = password;
+		}
+	}
+
+	private static class Failure {
+		final String method;
+		final Pattern path;
+		final int status;
+		int remaining;
+
+		Failure(String method, Pattern path, int status, int remaining) {
+			this.method = method;
+			this.path = path;
+			this.status = status;
+			this.remaining = remaining;
+		}
+	}
+
+	private final Server server;
+	private final ServerConnector connector;
+
+	private final Map<UUID, Network> networks = new LinkedHashMap<>();
+	private final Map<String, User> users = new HashMap<>();
+	private final List<String> requests = new ArrayList<>();
+	private final List<Failure> failures = new ArrayList<>();
+
+	private volatile long latencyMs = 0;
+	private volatile long bytesPerSecond = 0;
+	private volatile boolean keepUploads = true;
+	private final AtomicLong bytesSent = new AtomicLong();
+	private final AtomicLong bytesReceived = new AtomicLong();
+
+	public FakeNdexServer() throws Exception {
+		server = new Server();
+		connector = new ServerConnector(server);
+		connector.setHost("127.0.0.1");
+		connector.setPort(0);
+		server.addConnector(connector);
+		server.setHandler(new NdexHandler());
+		server.start();
+	}
+
+	/**
+	 * Returns the base URL of the API, like http://www.ndexbio.org/v2.
+	 */
+	public String getUrl() {
+		return "http://127.0.0.1:" + connector.getLocalPort() + BASE_PATH;
+	}
+
+	/**
+	 * Delays every response by the given time before anything is sent.
+	 */
+	public void setLatency(final long millis) {
+		this.latencyMs = millis;
+	}
+
+	/**
+	 * Limits how fast CX is sent and received, or removes the limit if 0.
+	 */
+	public void setBandwidth(final long bytesPerSecond) {
+		this.bytesPerSecond = bytesPerSecond;
+	}
+
+	/**
+	 * Sets whether uploaded CX is kept. Discarded uploads are read to the end
+	 * and stored as empty, so that memory tests only see the client's heap.
+	 */
+	public void setKeepUploads(final boolean keepUploads) {
+		this.keepUploads = keepUploads;
+	}
+
+	/**
+	 * Returns the number of bytes of CX, samples and query results sent so
+	 * far. JSON answers such as summaries are not counted.
+	 */
+	public long getBytesSent() {
+		return bytesSent.get();
+	}
+
+	/**
+	 * Returns the number of bytes of uploads received so far, multipart
+	 * framing included.
+	 */
+	public long getBytesReceived() {
+		return bytesReceived.get();
+	}
+
+	/**
+	 * Answers the next requests whose method and path (below /v2) match with
+	 * the given HTTP status.
+	 */
+	public synchronized void failNext(final String method, final String pathRegex, final int count,
+			final int status) {
+		failures.add(new Failure(method, Pattern.compile(pathRegex), status, count));
+	}
+
+	public synchronized UUID addUser(final String userName, final String password) {
+		final User user = new User(userName, password);
+		users.put(userName, user);
+		return user.id;
+	}
+
+	/**
+	 * Adds a public network owned by the user. Owners get ADMIN permission.
+	 */
+	public synchronized UUID addNetwork(final String name, final String owner, final byte[] cx) {
+		final Network network = new Network(UUID.randomUUID());
+		network.name = name;
+		network.owner = owner;
+		network.cx = cx;
+		network.systemProperties.put("visibility", "PUBLIC");
+		networks.put(network.id, network);
+		return network.id;
+	}
+
+	/**
+	 * Sets the CX served as the sample of the network. Networks have none by
+	 * default.
+	 */
+	public synchronized void setSample(final UUID id, final byte[] sample) {
+		networks.get(id).sample = sample;
+	}
+
+	public synchronized void setReadOnly(final UUID id, final boolean readOnly) {
+		networks.get(id).readOnly = readOnly;
+	}
+
+	public synchronized void setPermission(final UUID id, final String userName, final String permission) {
+		networks.get(id).permissions.put(userName, permission);
+	}
+
+	public synchronized void setSystemProperty(final UUID id, final String name, final Object value) {
+		networks.get(id).systemProperties.put(name, value);
+	}
+
+	/**
+	 * Returns the CX of a network, or for uploaded networks the raw request
+	 * body including its multipart framing. Returns null if there is no such
+	 * network.
+	 */
+	public synchronized byte[] getCx(final UUID id) {
+		final Network network = networks.get(id);
+		return network == null ? null : network.cx;
+	}
+
+	public synchronized Map<String, Object> getSystemProperties(final UUID id) {
+		return new LinkedHashMap<>(networks.get(id).systemProperties);
+	}
+
+	/**
+	 * Returns the requests received so far as "METHOD /path", without the /v2
+	 * prefix and query.
+	 */
+	public synchronized List<String> getRequests() {
+		return new ArrayList<>(requests);
+	}
+
+	public synchronized int countRequests(final String method, final String pathRegex) {
+		final Pattern path = Pattern.compile(pathRegex);
+		int count = 0;
+		for (String request : requests) {
+			final int space = request.indexOf(' ');
+			if (request.substring(0, space).equals(method) && path.matcher(request.substring(space + 1)).matches()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public void close() throws Exception {
+		server.stop();
+	}
+
+	private class NdexHandler extends AbstractHandler {
+		@Override
+		public void handle(String target, Request baseRequest, HttpServletRequest request,
+				HttpServletResponse response) throws IOException {
+			baseRequest.setHandled(true);
+			final String method = request.getMethod();
+			final String path = target.startsWith(BASE_PATH) ? target.substring(BASE_PATH.length()) : target;
+
+			final Failure failure;
+			synchronized (FakeNdexServer.this) {
+				requests.add(method + " " + path);
+				failure = takeFailure(method, path);
+			}
+			sleep(TimeUnit.MILLISECONDS.toNanos(latencyMs));
+			if (failure != null) {
+				response.sendError(failure.status);
+				return;
+			}
+
+			final String user;
+			try {
+				user = authenticate(request);
+			} catch (SecurityException e) {
+				response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+				return;
+			}
+			try {
+				route(method, path.split("/"), user, request, response);
+			} catch (IllegalArgumentException e) {
+				// Malformed UUID or JSON
+				response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+			}
+		}
+	}
+
+	private Failure takeFailure(final String method, final String path) {
+		for (Failure failure : failures) {
+			if (failure.remaining > 0 && failure.method.equals(method) && failure.path.matcher(path).matches()) {
+				failure.remaining--;
+				return failure;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the user of a request with basic authentication, or null for
+	 * anonymous requests.
+	 */
+	private synchronized String authenticate(final HttpServletRequest request) {
+		final String header = request.getHeader("Authorization");
+		if (header == null || !header.startsWith("Basic ")) {
+			return null;
+		}
+		final String credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()),
+				StandardCharsets.UTF_8);
+		final int colon = credentials.indexOf(':');
+		final User user = colon < 0 ? null : users.get(credentials.substring(0, colon));
+		if (user == null || !user.password.equals(credentials.substring(colon + 1))) {
+			throw new SecurityException();
+		}
+		return user.name;
+	}
+
+	private void route(final String method, final String[] segments, final String user,
+			final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+		// Paths start with a slash, so segments[0] is empty
+		final String resource = segments.length > 1 ? segments[1] : "";
+		if (resource.equals("network")) {
+			if (segments.length == 2 && method.equals("POST")) {
+				createNetwork(user, request, response);
+				return;
+			}
+			if (segments.length >= 3) {
+				final UUID id = UUID.fromString(segments[2]);
+				if (segments.length == 5 && segments[3].equals("aspect") && method.equals("GET")) {
+					sendAspect(id, segments[4], response);
+					return;
+				}
+				final String aspect = segments.length == 4 ? segments[3] : null;
+				if (aspect == null && method.equals("GET")) {
+					sendCx(id, request, response);
+					return;
+				}
+				if (aspect == null && method.equals("PUT")) {
+					updateNetwork(id, user, request, response);
+					return;
+				}
+				if ("summary".equals(aspect) && method.equals("GET")) {
+					sendSummary(id, request, response);
+					return;
+				}
+				if ("systemproperty".equals(aspect) && method.equals("PUT")) {
+					setSystemProperties(id, user, request, response);
+					return;
+				}
+				if ("permission".equals(aspect) && method.equals("GET")) {
+					sendNetworkPermissions(id, response);
+					return;
+				}
+				if ("sample".equals(aspect) && method.equals("GET")) {
+					sendSample(id, response);
+					return;
+				}
+				if ("aspect".equals(aspect) && method.equals("GET")) {
+					sendAspectMetadata(id, response);
+					return;
+				}
+			}
+		} else if (resource.equals("search") && segments.length == 5 && segments[2].equals("network")
+				&& method.equals("POST")
+				&& (segments[4].equals("query") || segments[4].equals("interconnectquery"))) {
+			sendQueryResult(UUID.fromString(segments[3]), segments[4].equals("interconnectquery"), request,
+					response);
+			return;
+		} else if (resource.equals("search") && segments.length == 3 && segments[2].equals("network")
+				&& method.equals("POST")) {
+			sendSearchResult(request, response);
+			return;
+		} else if (resource.equals("batch") && segments.length == 4 && segments[2].equals("network")
+				&& segments[3].equals("summary") && method.equals("POST")) {
+			sendSummaries(request, response);
+			return;
+		} else if (resource.equals("user") && method.equals("GET")) {
+			if (segments.length == 2) {
+				sendCurrentUser(user, response);
+				return;
+			}
+			if (segments.length == 4 && segments[3].equals("permission")) {
+				sendUserPermissions(UUID.fromString(segments[2]), request.getParameter("networkid"), response);
+				return;
+			}
+		}
+		response.sendError(HttpServletResponse.SC_NOT_FOUND);
+	}
+
+	private void sendSummary(final UUID id, final HttpServletRequest request, final HttpServletResponse response)
+			throws IOException {
+		final Map<String, Object> summary;
+		final String etag;
+		synchronized (this) {
+			final Network network = networks.get(id);
+			if (network == null) {
+				response.sendError(HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+			summary = toSummary(network);
+			etag = "\"" + network.modificationTime + "\"";
+		}
+		if (etag.equals(request.getHeader("If-None-Match"))) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		response.setHeader("ETag", etag);
+		sendJson(response, summary);
+	}
+
+	private void sendSummaries(final HttpServletRequest request, final HttpServletResponse response)
+			throws IOException {
+		final List<String> ids = MAPPER.readValue(request.getInputStream(), new TypeReference<List<String>>() {
+		});
+		final List<Map<String, Object>> summaries = new ArrayList<>();
+		synchronized (this) {
+			for (String id : ids) {
+				final Network network = networks.get(UUID.fromString(id));
+				if (network != null) {
+					summaries.add(toSummary(network));
+				}
+			}
+		}
+		sendJson(response, summaries);
+	}
+
+	private void sendSearchResult(final HttpServletRequest request, final HttpServletResponse response)
+			throws IOException {
+		final Map<String, String> body = MAPPER.readValue(request.getInputStream(),
+				new TypeReference<Map<String, String>>() {
+				});
+		final String searchString = body.get("searchString") == null ? "" : body.get("searchString").toLowerCase();
+		final int start = Integer.parseInt(request.getParameter("start"));
+		final int size = Integer.parseInt(request.getParameter("size"));
+		final List<Map<String, Object>> matches = new ArrayList<>();
+		synchronized (this) {
+			for (Network network : networks.values()) {
+				if (network.name.toLowerCase().contains(searchString)) {
+					matches.add(toSummary(network));
+				}
+			}
+		}
+		final Map<String, Object> result = new LinkedHashMap<>();
+		result.put("numFound", matches.size());
+		result.put("start", start * size);
+		result.put("networks", matches.subList(Math.min(start * size, matches.size()),
+				Math.min((start + 1) * size, matches.size())));
+		sendJson(response, result);
+	}
+
+	private Map<String, Object> toSummary(final Network network) {
+		final Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("externalId", network.id.toString());
+		summary.put("name", network.name);
+		summary.put("description", "");
+		summary.put("owner", network.owner);
+		summary.put("visibility", network.systemProperties.get("visibility"));
+		summary.put("nodeCount", 0);
+		summary.put("edgeCount", 0);
+		summary.put("cxFileSize", network.cx == null ? 0 : network.cx.length);
+		summary.put("modificationTime", network.modificationTime);
+		summary.put("creationTime", network.modificationTime);
+		summary.put("isReadOnly", network.readOnly);
+		summary.put("properties", new ArrayList<>());
+		return summary;
+	}
+
+	private void sendCx(final UUID id, final HttpServletRequest request, final HttpServletResponse response)
+			throws IOException {
+		final byte[] cx;
+		final String etag;
+		synchronized (this) {
+			final Network network = networks.get(id);
+			if (network == null) {
+				response.sendError(HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+			cx = network.cx;
+			etag = "\"" + network.modificationTime + "\"";
+		}
+		if (etag.equals(request.getHeader("If-None-Match"))) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		response.setHeader("ETag", etag);
+		response.setContentType("application/json");
+		response.setContentLength(cx.length);
+		write(response.getOutputStream(), cx);
+	}
+
+	/**
+	 * Returns the elements of each aspect of the network's CX, in order.
+	 */
+	private synchronized Map<String, List<Object>> getAspects(final UUID id) throws IOException {
+		final Network network = networks.get(id);
+		if (network == null) {
+			return null;
+		}
+		final List<Map<String, List<Object>>> fragments = MAPPER.readValue(network.cx,
+				new TypeReference<List<Map<String, List<Object>>>>() {
+				});
+		final Map<String, List<Object>> aspects = new LinkedHashMap<>();
+		for (Map<String, List<Object>> fragment : fragments) {
+			for (Map.Entry<String, List<Object>> aspect : fragment.entrySet()) {
+				aspects.computeIfAbsent(aspect.getKey(), name -> new ArrayList<>()).addAll(aspect.getValue());
+			}
+		}
+		return aspects;
+	}
+
+	private void sendAspectMetadata(final UUID id, final HttpServletResponse response) throws IOException {
+		final Map<String, List<Object>> aspects = getAspects(id);
+		if (aspects == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		final List<Map<String, Object>> metadata = new ArrayList<>();
+		for (Map.Entry<String, List<Object>> aspect : aspects.entrySet()) {
+			if (aspect.getKey().equals("numberVerification") || aspect.getKey().equals("metaData")
+					|| aspect.getKey().equals("status")) {
+				continue;
+			}
+			final Map<String, Object> element = new LinkedHashMap<>();
+			element.put("name", aspect.getKey());
+			element.put("version", "1.0");
+			element.put("elementCount", aspect.getValue().size());
+			metadata.add(element);
+		}
+		sendJson(response, metadata);
+	}
+
+	private void sendSample(final UUID id, final HttpServletResponse response) throws IOException {
+		final byte[] body;
+		synchronized (this) {
+			final Network network = networks.get(id);
+			body = network == null ? null : network.sample;
+		}
+		if (body == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		response.setContentType("application/json");
+		response.setContentLength(body.length);
+		write(response.getOutputStream(), body);
+	}
+
+	private void sendAspect(final UUID id, final String name, final HttpServletResponse response)
+			throws IOException {
+		final Map<String, List<Object>> aspects = getAspects(id);
+		if (aspects == null || !aspects.containsKey(name)) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		final byte[] body = MAPPER.writeValueAsBytes(aspects.get(name));
+		response.setContentType("application/json");
+		response.setContentLength(body.length);
+		write(response.getOutputStream(), body);
+	}
+
+	/**
+	 * Returns the nodes named in the query with the edges touching them and
+	 * their other ends, or for interconnect queries only the edges between
+	 * them, with the attributes of those nodes and edges.
+	 */
+	@SuppressWarnings("unchecked")
+	private void sendQueryResult(final UUID id, final boolean interconnect, final HttpServletRequest request,
+			final HttpServletResponse response) throws IOException {
+		final Map<String, Object> query = MAPPER.readValue(request.getInputStream(),
+				new TypeReference<Map<String, Object>>() {
+				});
+		final Map<String, List<Object>> aspects = getAspects(id);
+		if (aspects == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		final List<String> terms = Arrays.asList(((String) query.get("searchString")).split("\\s+"));
+		final Set<Object> matched = new HashSet<>();
+		for (Object node : aspects.getOrDefault("nodes", Collections.emptyList())) {
+			if (terms.contains(((Map<String, Object>) node).get("n"))) {
+				matched.add(((Map<String, Object>) node).get("@id"));
+			}
+		}
+		final Set<Object> nodeIds = new HashSet<>(matched);
+		final Set<Object> edgeIds = new HashSet<>();
+		final List<Object> edges = new ArrayList<>();
+		for (Object element : aspects.getOrDefault("edges", Collections.emptyList())) {
+			final Map<String, Object> edge = (Map<String, Object>) element;
+			final boolean source = matched.contains(edge.get("s"));
+			final boolean target = matched.contains(edge.get("t"));
+			if (interconnect ? source && target : source || target) {
+				edges.add(edge);
+				edgeIds.add(edge.get("@id"));
+				nodeIds.add(edge.get("s"));
+				nodeIds.add(edge.get("t"));
+			}
+		}
+		final Object edgeLimit = query.get("edgeLimit");
+		if (edgeLimit != null && edges.size() > ((Number) edgeLimit).intValue()) {
+			response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+			final Map<String, Object> error = new LinkedHashMap<>();
+			error.put("errorCode", "NDEx_Bad_Request_Exception");
+			error.put("message", "EdgeLimitExceeded");
+			sendJson(response, error);
+			return;
+		}
+
+		final List<Map<String, Object>> cx = new ArrayList<>();
+		cx.add(Collections.singletonMap("nodes", filter(aspects.get("nodes"), "@id", nodeIds)));
+		cx.add(Collections.singletonMap("edges", edges));
+		cx.add(Collections.singletonMap("nodeAttributes", filter(aspects.get("nodeAttributes"), "po", nodeIds)));
+		cx.add(Collections.singletonMap("edgeAttributes", filter(aspects.get("edgeAttributes"), "po", edgeIds)));
+		final byte[] body = MAPPER.writeValueAsBytes(cx);
+		response.setContentType("application/json");
+		response.setContentLength(body.length);
+		write(response.getOutputStream(), body);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Object> filter(final List<Object> elements, final String key, final Set<Object> ids) {
+		final List<Object> kept = new ArrayList<>();
+		if (elements != null) {
+			for (Object element : elements) {
+				if (ids.contains(((Map<String, Object>) element).get(key))) {
+					kept.add(element);
+				}
+			}
+		}
+		return kept;
+	}
+
+	private void createNetwork(final String user, final HttpServletRequest request,
+			final HttpServletResponse response) throws IOException {
+		if (user == null) {
+			response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+			return;
+		}
+		final byte[] body = read(request.getInputStream());
+		final UUID id;
+		synchronized (this) {
+			id = addNetwork("Uploaded network", user, body);
+			networks.get(id).systemProperties.put("visibility", "PRIVATE");
+		}
+		final String location = request.getRequestURL().toString() + "/" + id;
+		response.setStatus(HttpServletResponse.SC_CREATED);
+		response.setHeader("Location", location);
+		response.setContentType("text/plain");
+		response.getOutputStream().write(location.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void updateNetwork(final UUID id, final String user, final HttpServletRequest request,
+			final HttpServletResponse response) throws IOException {
+		if (!canWrite(id, user, response)) {
+			return;
+		}
+		final byte[] body = read(request.getInputStream());
+		synchronized (this) {
+			final Network network = networks.get(id);
+			network.cx = body;
+			network.modificationTime = System.currentTimeMillis();
+		}
+		response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+	}
+
+	private void setSystemProperties(final UUID id, final String user, final HttpServletRequest request,
+			final HttpServletResponse response) throws IOException {
+		if (!canWrite(id, user, response)) {
+			return;
+		}
+		final Map<String, Object> properties = MAPPER.readValue(request.getInputStream(),
+				new TypeReference<Map<String, Object>>() {
+				});
+		synchronized (this) {
+			networks.get(id).systemProperties.putAll(properties);
+		}
+		response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+	}
+
+	private void sendNetworkPermissions(final UUID id, final HttpServletResponse response) throws IOException {
+		final Map<String, String> permissions = new LinkedHashMap<>();
+		synchronized (this) {
+			final Network network = networks.get(id);
+			if (network == null) {
+				response.sendError(HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+			for (Map.Entry<String, String> permission : getPermissions(network).entrySet()) {
+				permissions.put(users.get(permission.getKey()).id.toString(), permission.getValue());
+			}
+		}
+		sendJson(response, permissions);
+	}
+
+	private void sendUserPermissions(final UUID userId, final String networkId, final HttpServletResponse response)
+			throws IOException {
+		final Map<String, String> permissions = new LinkedHashMap<>();
+		synchronized (this) {
+			for (User user : users.values()) {
+				if (!user.id.equals(userId)) {
+					continue;
+				}
+				for (Network network : networks.values()) {
+					final String permission = getPermissions(network).get(user.name);
+					if (permission != null && (networkId == null || network.id.toString().equals(networkId))) {
+						permissions.put(network.id.toString(), permission);
+					}
+				}
+			}
+		}
+		sendJson(response, permissions);
+	}
+
+	private void sendCurrentUser(final String user, final HttpServletResponse response) throws IOException {
+		if (user == null) {
+			response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+			return;
+		}
+		final Map<String, Object> json = new LinkedHashMap<>();
+		synchronized (this) {
+			json.put("externalId", users.get(user).id.toString());
+			json.put("userName", user);
+		}
+		sendJson(response, json);
+	}
+
+	private synchronized boolean canWrite(final UUID id, final String user, final HttpServletResponse response)
+			throws IOException {
+		final Network network = networks.get(id);
+		if (network == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return false;
+		}
+		final String permission = user == null ? null : getPermissions(network).get(user);
+		if (permission == null || permission.equals("READ")) {
+			response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+			return false;
+		}
+		return true;
+	}
+
+	private static Map<String, String> getPermissions(final Network network) {
+		final Map<String, String> permissions = new LinkedHashMap<>(network.permissions);
+		if (network.owner != null) {
+			permissions.put(network.owner, "ADMIN");
+		}
+		return permissions;
+	}
+
+	private static void sendJson(final HttpServletResponse response, final Object value) throws IOException {
+		response.setContentType("application/json");
+		response.getOutputStream().write(MAPPER.writeValueAsBytes(value));
+	}
+
+	/**
+	 * Writes the body at the configured bandwidth.
+	 */
+	private void write(final OutputStream out, final byte[] body) throws IOException {
+		final long rate = bytesPerSecond;
+		bytesSent.addAndGet(body.length);
+		if (rate <= 0) {
+			out.write(body);
+			return;
+		}
+		final int chunk = (int) Math.max(1024, rate / 20);
+		final long start = System.nanoTime();
+		for (int offset = 0; offset < body.length; offset += chunk) {
+			final int length = Math.min(chunk, body.length - offset);
+			out.write(body, offset, length);
+			out.flush();
+			sleep(start + (offset + length) * TimeUnit.SECONDS.toNanos(1) / rate - System.nanoTime());
+		}
+	}
+
+	/**
+	 * Reads a request body at the configured bandwidth.
+	 */
+	private byte[] read(final InputStream in) throws IOException {
+		final long rate = bytesPerSecond;
+		final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		final boolean keep = keepUploads;
+		final byte[] buffer = new byte[rate <= 0 ? 65536 : (int) Math.max(1024, Math.min(65536, rate / 20))];
+		final long start = System.nanoTime();
+		long total = 0;
+		int n;
+		while ((n = in.read(buffer)) >= 0) {
+			total += n;
+			bytesReceived.addAndGet(n);
+			if (keep) {
+				body.write(buffer, 0, n);
+			}
+			if (rate > 0) {
+				sleep(start + total * TimeUnit.SECONDS.toNanos(1) / rate - System.nanoTime());
+			}
+		}
+		return body.toByteArray();
+	}
+
+	private static void sleep(final long nanos) {
+		if (nanos <= 0) {
+			return;
+		}
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
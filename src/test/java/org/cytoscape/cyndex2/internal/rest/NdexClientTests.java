@@ -0,0 +1,152 @@
+package org.cytoscape.cyndex2.internal.rest;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.Status;
+
+import org.cytoscape.cyndex2.internal.rest.errors.ErrorBuilder;
+import org.cytoscape.cyndex2.internal.rest.errors.ErrorType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NdexClientTests {
+
+	private static final byte[] CX = "[{\"numberVerification\":[{\"longNumber\":281474976710655}]}]"
+			.getBytes(StandardCharsets.UTF_8);
+
+	private FakeNdexServer server;
+	private WebApplicationException error;
+	private NdexClient client;
+
+	@Before
+	public void startServer() throws Exception {
+		server = new FakeNdexServer();
+		server.addUser("owner", "secret");
+		error = mock(WebApplicationException.class);
+		final ErrorBuilder errorBuilder = mock(ErrorBuilder.class);
+		when(errorBuilder.buildException(any(Status.class), anyString(), any(ErrorType.class))).thenReturn(error);
+		client = new NdexClient(errorBuilder);
+	}
+
+	@After
+	public void stopServer() throws Exception {
+		server.close();
+	}
+
+	@Test
+	public void getSummaryTest() {
+		final UUID id = server.addNetwork("Summary", "owner", CX);
+		final RemoteNetworkSummary summary = client.getSummary(server.getUrl(), id.toString());
+		assertEquals("Summary", summary.name);
+		assertEquals(CX.length, summary.cxFileSize);
+
+		// The second request is answered by the summary cache, with a copy the
+		// first caller's changes do not reach
+		summary.name = "Changed";
+		final RemoteNetworkSummary cached = client.getSummary(server.getUrl(), id.toString());
+		assertNotSame(summary, cached);
+		assertEquals("Summary", cached.name);
+		assertEquals(1, server.countRequests("GET", "/network/[^/]+/summary"));
+	}
+
+	@Test
+	public void getSummaryFailureTest() {
+		final UUID id = server.addNetwork("Failing", "owner", CX);
+		server.failNext("GET", "/network/[^/]+/summary", 1, 500);
+		try {
+			client.getSummary(server.getUrl(), id.toString());
+			fail();
+		} catch (WebApplicationException e) {
+			assertSame(error, e);
+		}
+		assertEquals("Failing", client.getSummary(server.getUrl(), id.toString()).name);
+	}
+
+	@Test
+	public void getSummariesTest() {
+		final UUID first = server.addNetwork("First", "owner", CX);
+		final UUID second = server.addNetwork("Second", "owner", CX);
+		final String unknown = UUID.randomUUID().toString();
+		server.setLatency(100);
+
+		final long start = System.nanoTime();
+		final Map<String, RemoteNetworkSummary> summaries = client.getSummaries(server.getUrl(),
+				Arrays.asList(second.toString(), unknown, first.toString()), null, null);
+		final long elapsedMs = (System.nanoTime() - start) / 1000000;
+
+		assertEquals(Arrays.asList(second.toString(), first.toString()), new ArrayList<>(summaries.keySet()));
+		assertEquals("First", summaries.get(first.toString()).name);
+		// One round trip for the whole batch
+		assertEquals(1, server.countRequests("POST", "/batch/network/summary"));
+		assertTrue(elapsedMs >= 100);
+	}
+
+	@Test
+	public void getSummariesOnceForAnyCaseTest() {
+		final UUID id = server.addNetwork("Mixed", "owner", CX);
+		final String upper = id.toString().toUpperCase(Locale.ROOT);
+
+		final Map<String, RemoteNetworkSummary> summaries = client.getSummaries(server.getUrl(),
+				Arrays.asList(upper, id.toString(), upper), null, null);
+		assertEquals(Arrays.asList(upper, id.toString()), new ArrayList<>(summaries.keySet()));
+		assertNotSame(summaries.get(upper), summaries.get(id.toString()));
+
+		// Changes to the returned summaries stay with the caller
+		summaries.get(upper).name = "Changed";
+		assertEquals("Mixed", client.getSummaries(server.getUrl(), Arrays.asList(upper), null, null).get(upper).name);
+		assertEquals("Mixed", client.getSummary(server.getUrl(), id.toString()).name);
+		assertEquals(1, server.countRequests("POST", "/batch/network/summary"));
+		assertEquals(0, server.countRequests("GET", "/network/[^/]+/summary"));
+	}
+
+	@Test
+	public void setVisibilityTest() {
+		final UUID id = server.addNetwork("Private", "owner", CX);
+		client.setVisibility(server.getUrl(), id.toString(), false, "owner", "secret");
+		assertEquals("PRIVATE", server.getSystemProperties(id).get("visibility"));
+
+		try {
+			client.setVisibility(server.getUrl(), id.toString(), true, "owner", "wrong");
+			fail();
+		} catch (WebApplicationException e) {
+			assertSame(error, e);
+		}
+		assertEquals("PRIVATE", server.getSystemProperties(id).get("visibility"));
+	}
+
+	@Test
+	public void readSummariesTest() throws IOException {
+		final String json = "[{\"externalId\":\"a\",\"name\":\"First\",\"nodeCount\":3,\"edgeCount\":2,\"unknown\":{\"x\":1}},"
+				+ "{\"externalId\":\"b\",\"name\":\"Second\",\"properties\":[{\"predicateString\":\"labels\",\"value\":\"x\"}]}]";
+		final List<RemoteNetworkSummary> summaries = new ArrayList<>();
+		NdexClient.readSummaries(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), summaries::add);
+
+		assertEquals(2, summaries.size());
+		assertEquals("First", summaries.get(0).name);
+		assertEquals(3, summaries.get(0).nodeCount);
+		assertEquals("x", summaries.get(1).properties.get(0).get("value"));
+	}
+
+	@Test
+	public void readEmptySummariesTest() throws IOException {
+		final List<RemoteNetworkSummary> summaries = new ArrayList<>();
+		NdexClient.readSummaries(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)), summaries::add);
+		assertTrue(summaries.isEmpty());
+	}
+}
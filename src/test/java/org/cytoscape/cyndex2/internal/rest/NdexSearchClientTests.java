@@ -0,0 +1,95 @@
+package org.cytoscape.cyndex2.internal.rest;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NdexSearchClientTests {
+
+	private static final byte[] CX = "[{\"numberVerification\":[{\"longNumber\":281474976710655}]}]"
+			.getBytes(StandardCharsets.UTF_8);
+
+	private FakeNdexServer server;
+	private NdexSearchClient client;
+
+	@Before
+	public void startServer() throws Exception {
+		server = new FakeNdexServer();
+		server.addNetwork("BRCA1 pathway", "owner", CX);
+		server.addNetwork("BRCA2 interactions", "owner", CX);
+		server.addNetwork("TP53 targets", "owner", CX);
+		client = new NdexSearchClient(server.getUrl());
+	}
+
+	@After
+	public void stopServer() throws Exception {
+		client.close();
+		server.close();
+	}
+
+	@Test
+	public void searchesGivenServerTest() throws Exception {
+		final NetworkSearchResult result = client.search("brca", 0, NdexSearchClient.PAGE_SIZE);
+
+		assertEquals(2, result.numFound);
+		assertEquals("BRCA1 pathway", result.networks.get(0).name);
+		assertEquals(1, server.countRequests("POST", "/search/network"));
+	}
+
+	@Test
+	public void returnsCopiesOfCachedPagesTest() throws Exception {
+		final NetworkSearchResult first = client.search("brca", 0, NdexSearchClient.PAGE_SIZE);
+		first.networks.get(0).name = "Changed";
+		first.networks.clear();
+
+		final NetworkSearchResult second = client.search("brca", 0, NdexSearchClient.PAGE_SIZE);
+		assertNotSame(first, second);
+		assertEquals(2, second.networks.size());
+		assertEquals("BRCA1 pathway", second.networks.get(0).name);
+		// The second page came from the cache
+		assertEquals(1, server.countRequests("POST", "/search/network"));
+	}
+
+	@Test
+	public void defaultsToPublicServerTest() {
+		final NdexSearchClient publicClient = new NdexSearchClient(null);
+		assertEquals(NdexClient.PUBLIC_NDEX_URL, publicClient.getServerUrl());
+		publicClient.close();
+	}
+
+	@Test
+	public void keepsTypeaheadOutOfSearchCacheTest() throws Exception {
+		client.prepareSuggestionSearch("brca", 10).get();
+		client.prepareSuggestionSearch("brca", 10).get();
+
+		assertEquals(0, client.getCache().size());
+		assertEquals(1, client.getSuggestionCache().size());
+		assertEquals(1, server.countRequests("POST", "/search/network"));
+	}
+
+	@Test
+	public void suggestsGeneSymbolsFromPropertiesTest() {
+		final RemoteNetworkSummary summary = new RemoteNetworkSummary();
+		summary.name = "Signaling of the ZZQ9 family";
+		summary.properties = new ArrayList<>();
+		final Map<String, Object> property = new HashMap<>();
+		property.put("predicateString", "labels");
+		property.put("value", "ZZQ9, ZZQ7-AS1 and their targets");
+		summary.properties.add(property);
+
+		NdexSearchClient.addSuggestions(Collections.singletonList(summary));
+
+		assertEquals(3, client.suggest("zzq", 10).size());
+		assertTrue(client.suggest("zzq", 10).contains("ZZQ7-AS1"));
+		assertTrue(client.suggest("zzq9", 10).contains("Signaling of the ZZQ9 family"));
+		assertTrue(client.suggest("their", 10).isEmpty());
+	}
+}
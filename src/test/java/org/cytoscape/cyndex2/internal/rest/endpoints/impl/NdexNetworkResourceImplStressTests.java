@@ -0,0 +1,410 @@
+package org.cytoscape.cyndex2.internal.rest.endpoints.impl;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.Status;
+
+import org.cytoscape.application.CyApplicationManager;
+import org.cytoscape.ci.CIResponseFactory;
+import org.cytoscape.ci.model.CIResponse;
+import org.cytoscape.cyndex2.external.SaveParameters;
+import org.cytoscape.cyndex2.internal.CxTaskFactoryManager;
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.cyndex2.internal.rest.FakeNdexServer;
+import org.cytoscape.cyndex2.internal.rest.NdexClient;
+import org.cytoscape.cyndex2.internal.rest.endpoints.NdexNetworkResource.CINdexBaseResponse;
+import org.cytoscape.cyndex2.internal.rest.errors.ErrorBuilder;
+import org.cytoscape.cyndex2.internal.rest.errors.ErrorType;
+import org.cytoscape.cyndex2.internal.rest.parameter.LoadParameters;
+import org.cytoscape.cyndex2.internal.rest.parameter.NDExImportParameters;
+import org.cytoscape.cyndex2.internal.rest.parameter.NDExSaveParameters;
+import org.cytoscape.cyndex2.internal.util.CIServiceManager;
+import org.cytoscape.io.read.AbstractCyNetworkReader;
+import org.cytoscape.io.read.InputStreamTaskFactory;
+import org.cytoscape.io.write.CyNetworkViewWriterFactory;
+import org.cytoscape.io.write.CyWriter;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.subnetwork.CyRootNetwork;
+import org.cytoscape.model.subnetwork.CySubNetwork;
+import org.cytoscape.service.util.CyServiceRegistrar;
+import org.cytoscape.work.FinishStatus;
+import org.cytoscape.work.ObservableTask;
+import org.cytoscape.work.Task;
+import org.cytoscape.work.TaskIterator;
+import org.cytoscape.work.TaskMonitor;
+import org.cytoscape.work.TaskObserver;
+import org.cytoscape.work.swing.DialogTaskManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Calls {@link NdexNetworkResourceImpl} from many threads at once, against
+ * mocked Cytoscape services and a {@link FakeNdexServer}. Every call carries
+ * its own network, so a response for another call's network shows cross-talk.
+ * Calls that do not finish in time fail the test with the stacks of the stuck
+ * threads, and throughput and latency percentiles are printed per operation.
+ */
+public class NdexNetworkResourceImplStressTests {
+
+	private static final int THREADS = 16;
+	private static final int CALLS_PER_THREAD = 20;
+	private static final long TIMEOUT_SECONDS = 120;
+
+	private static final int IMPORTED_NETWORKS = 8;
+	private static final long IMPORT_SUID = 1000;
+	private static final long EXPORT_SUID = 2000;
+	private static final long CX_SUID = 3000;
+
+	private static final Pattern SUID = Pattern.compile("\"suid\":(\\d+)");
+
+	private static final TaskMonitor NO_OP_MONITOR = new TaskMonitor() {
+		@Override
+		public void setTitle(String title) {
+		}
+
+		@Override
+		public void setProgress(double progress) {
+		}
+
+		@Override
+		public void setStatusMessage(String statusMessage) {
+		}
+
+		@Override
+		public void showMessage(Level level, String message) {
+		}
+	};
+
+	private FakeNdexServer server;
+	private ExecutorService taskThreads;
+	private DialogTaskManager taskManager;
+	private InputStreamTaskFactory readerFactory;
+	private CyNetworkViewWriterFactory writerFactory;
+	private NdexNetworkResourceImpl resource;
+
+	private final List<UUID> imported = new ArrayList<>();
+	private final Map<Long, CyNetwork> networks = new ConcurrentHashMap<>();
+	private final Map<String, Queue<Long>> latencies = new ConcurrentHashMap<>();
+
+	private static byte[] toCx(final long suid) {
+		return ("[{\"suid\":" + suid + "}]").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String readAll(final InputStream in) throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[1024];
+		int n;
+		while ((n = in.read(buffer)) >= 0) {
+			out.write(buffer, 0, n);
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static long findSuid(final String cx) {
+		final Matcher matcher = SUID.matcher(cx);
+		assertTrue(cx, matcher.find());
+		return Long.parseLong(matcher.group(1));
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		server = new FakeNdexServer();
+		server.addUser("owner", "secret");
+		for (int i = 0; i < IMPORTED_NETWORKS; i++) {
+			imported.add(server.addNetwork("Network " + i, "owner", toCx(IMPORT_SUID + i)));
+		}
+
+		final CyNetworkManager networkManager = mock(CyNetworkManager.class);
+		for (int i = 0; i < IMPORTED_NETWORKS; i++) {
+			addNetwork(IMPORT_SUID + i, networkManager);
+		}
+		for (int i = 0; i < THREADS; i++) {
+			addNetwork(EXPORT_SUID + i, networkManager);
+		}
+		for (int i = 0; i < THREADS * CALLS_PER_THREAD; i++) {
+			addNetwork(CX_SUID + i, networkManager);
+		}
+
+		// Reads the SUID of the network to return from the CX
+		readerFactory = mock(InputStreamTaskFactory.class);
+		when(readerFactory.createTaskIterator(any(InputStream.class), anyString())).thenAnswer(invocation -> {
+			final InputStream in = (InputStream) invocation.getArguments()[0];
+			final CyNetwork[] read = new CyNetwork[1];
+			final AbstractCyNetworkReader reader = mock(AbstractCyNetworkReader.class);
+			doAnswer(run -> {
+				read[0] = networks.get(findSuid(readAll(in)));
+				return null;
+			}).when(reader).run(any(TaskMonitor.class));
+			when(reader.getNetworks()).thenAnswer(get -> new CyNetwork[] { read[0] });
+			return new TaskIterator(reader);
+		});
+		CxTaskFactoryManager.INSTANCE.addReaderFactory(readerFactory,
+				Collections.singletonMap("id", "cytoscapeCxNetworkReaderFactory"));
+
+		// Writes the SUID of the exported network as its CX
+		writerFactory = mock(CyNetworkViewWriterFactory.class);
+		when(writerFactory.createWriter(any(OutputStream.class), any(CyNetwork.class))).thenAnswer(invocation -> {
+			final OutputStream out = (OutputStream) invocation.getArguments()[0];
+			final CyNetwork network = (CyNetwork) invocation.getArguments()[1];
+			final CyWriter writer = mock(CyWriter.class);
+			doAnswer(run -> {
+				out.write(toCx(network.getSUID()));
+				return null;
+			}).when(writer).run(any(TaskMonitor.class));
+			return writer;
+		});
+		CxTaskFactoryManager.INSTANCE.addWriterFactory(writerFactory,
+				Collections.singletonMap("id", "cxNetworkWriterFactory"));
+
+		// Runs tasks on other threads, like the dialog task manager
+		taskThreads = Executors.newCachedThreadPool();
+		taskManager = mock(DialogTaskManager.class);
+		doAnswer(invocation -> {
+			final TaskIterator tasks = (TaskIterator) invocation.getArguments()[0];
+			final TaskObserver observer = (TaskObserver) invocation.getArguments()[1];
+			taskThreads.submit(() -> runTasks(tasks, observer));
+			return null;
+		}).when(taskManager).execute(any(TaskIterator.class), any(TaskObserver.class));
+
+		final CyServiceRegistrar registrar = mock(CyServiceRegistrar.class);
+		when(registrar.getService(CyNetworkManager.class)).thenReturn(networkManager);
+		when(registrar.getService(DialogTaskManager.class)).thenReturn(taskManager);
+		CyServiceModule.setServiceRegistrar(registrar);
+
+		final ErrorBuilder errorBuilder = mock(ErrorBuilder.class);
+		when(errorBuilder.buildException(any(Status.class), anyString(), any(ErrorType.class)))
+				.thenReturn(mock(WebApplicationException.class));
+		CyServiceModule.setErrorBuilder(errorBuilder);
+
+		final CIResponseFactory responseFactory = mock(CIResponseFactory.class);
+		when(responseFactory.getCIResponse(any(), any(Class.class))).thenAnswer(invocation -> {
+			@SuppressWarnings("unchecked")
+			final CIResponse<Object> response = (CIResponse<Object>) ((Class<?>) invocation.getArguments()[1])
+					.newInstance();
+			response.data = invocation.getArguments()[0];
+			return response;
+		});
+		final CIServiceManager ciServiceManager = mock(CIServiceManager.class);
+		when(ciServiceManager.getCIResponseFactory()).thenReturn(responseFactory);
+
+		resource = new NdexNetworkResourceImpl(new NdexClient(errorBuilder), mock(CyApplicationManager.class),
+				networkManager, ciServiceManager);
+		resource.visibilityRetryDelay = 10;
+	}
+
+	private void addNetwork(final long suid, final CyNetworkManager networkManager) {
+		final CySubNetwork network = mock(CySubNetwork.class);
+		final CyRootNetwork root = mock(CyRootNetwork.class);
+		final CyRow row = mock(CyRow.class);
+		final CyTable hiddenTable = mock(CyTable.class);
+		when(network.getSUID()).thenReturn(suid);
+		when(network.getRootNetwork()).thenReturn(root);
+		when(network.getRow(network)).thenReturn(row);
+		when(root.getRow(root)).thenReturn(row);
+		when(row.get(CyNetwork.NAME, String.class)).thenReturn("Network " + suid);
+		when(network.getTable(CyNetwork.class, CyNetwork.HIDDEN_ATTRS)).thenReturn(hiddenTable);
+		when(hiddenTable.getRow(suid)).thenReturn(mock(CyRow.class));
+		when(networkManager.getNetwork(suid)).thenReturn(network);
+		networks.put(suid, network);
+	}
+
+	private static void runTasks(final TaskIterator tasks, final TaskObserver observer) {
+		Task task = null;
+		try {
+			while (tasks.hasNext()) {
+				task = tasks.next();
+				task.run(NO_OP_MONITOR);
+				if (task instanceof ObservableTask) {
+					observer.taskFinished((ObservableTask) task);
+				}
+			}
+			observer.allFinished(FinishStatus.getSucceeded());
+		} catch (Exception e) {
+			observer.allFinished(FinishStatus.newFailed(task, e));
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		CxTaskFactoryManager.INSTANCE.removeReaderFactory(readerFactory,
+				Collections.singletonMap("id", "cytoscapeCxNetworkReaderFactory"));
+		CxTaskFactoryManager.INSTANCE.removeWriterFactory(writerFactory,
+				Collections.singletonMap("id", "cxNetworkWriterFactory"));
+		taskThreads.shutdownNow();
+		server.close();
+	}
+
+	private NDExSaveParameters getSaveParameters() throws Exception {
+		final Constructor<NDExSaveParameters> constructor = NDExSaveParameters.class
+				.getDeclaredConstructor(String.class, String.class, String.class, Map.class, boolean.class);
+		constructor.setAccessible(true);
+		final NDExSaveParameters params = constructor.newInstance("owner", "secret", server.getUrl(), null, false);
+		params.isPublic = true;
+		return params;
+	}
+
+	private void call(final int thread, final int index) throws Exception {
+		final long start = System.nanoTime();
+		final String operation;
+		switch ((thread + index) % 3) {
+		case 0: {
+			operation = "createNetworkFromCx";
+			final long suid = CX_SUID + thread * CALLS_PER_THREAD + index;
+			final CINdexBaseResponse response = resource.createNetworkFromCx(new ByteArrayInputStream(toCx(suid)));
+			assertEquals(operation, Long.valueOf(suid), response.data.suid);
+			break;
+		}
+		case 1: {
+			operation = "createNetworkFromNdex";
+			final int network = (thread + index) % IMPORTED_NETWORKS;
+			final String uuid = imported.get(network).toString();
+			final CINdexBaseResponse response = resource
+					.createNetworkFromNdex(new NDExImportParameters(uuid, null, null, server.getUrl(), null, null));
+			assertEquals(operation, Long.valueOf(IMPORT_SUID + network), response.data.suid);
+			assertEquals(operation, uuid, response.data.uuid);
+			break;
+		}
+		default: {
+			operation = "saveNetworkToNdex";
+			final long suid = EXPORT_SUID + thread;
+			final CINdexBaseResponse response = resource.saveNetworkToNdex(suid, getSaveParameters());
+			final UUID uuid = UUID.fromString(response.data.uuid);
+			assertEquals(operation, suid, findSuid(new String(server.getCx(uuid), StandardCharsets.UTF_8)));
+			assertEquals(operation, "PUBLIC", server.getSystemProperties(uuid).get("visibility"));
+			break;
+		}
+		}
+		latencies.computeIfAbsent(operation, name -> new ConcurrentLinkedQueue<>()).add(System.nanoTime() - start);
+	}
+
+	/**
+	 * Fails with the stacks of the threads that are still running, and any
+	 * deadlock the JVM finds among them.
+	 */
+	private static void failStuck(final String message) {
+		final StringBuilder report = new StringBuilder(message);
+		final long[] deadlocked = ManagementFactory.getThreadMXBean().findDeadlockedThreads();
+		if (deadlocked != null) {
+			report.append("\nDeadlocked threads: ").append(deadlocked.length);
+		}
+		for (ThreadInfo info : ManagementFactory.getThreadMXBean().dumpAllThreads(true, true)) {
+			if (info.getThreadName().startsWith("stress-") || info.getThreadName().startsWith("AWT-EventQueue")) {
+				report.append('\n').append(info);
+			}
+		}
+		fail(report.toString());
+	}
+
+	private static double percentile(final List<Long> sorted, final double fraction) {
+		final int index = (int) Math.ceil(fraction * sorted.size()) - 1;
+		return sorted.get(Math.max(0, index)) / 1e6;
+	}
+
+	@Test
+	public void concurrentCallsTest() throws Exception {
+		final Long saveSuid = SaveParameters.INSTANCE.suid;
+		final String saveType = SaveParameters.INSTANCE.saveType;
+		final String searchTerm = LoadParameters.INSTANCE.searchTerm;
+
+		final ExecutorService callers = Executors.newFixedThreadPool(THREADS, runnable -> {
+			final Thread thread = new Thread(runnable);
+			thread.setName("stress-" + thread.getId());
+			return thread;
+		});
+		final List<Future<?>> results = new ArrayList<>();
+		final long start = System.nanoTime();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			results.add(callers.submit(() -> {
+				for (int i = 0; i < CALLS_PER_THREAD; i++) {
+					call(thread, i);
+				}
+				return null;
+			}));
+		}
+		callers.shutdown();
+		if (!callers.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+			failStuck("Calls did not finish within " + TIMEOUT_SECONDS + " s");
+		}
+		final double seconds = (System.nanoTime() - start) / 1e9;
+		for (Future<?> result : results) {
+			// Rethrows assertion errors from the callers
+			result.get();
+		}
+
+		System.out.println(String.format(Locale.ROOT, "%d calls from %d threads in %.2f s (%.1f calls/s)",
+				THREADS * CALLS_PER_THREAD, THREADS, seconds, THREADS * CALLS_PER_THREAD / seconds));
+		for (Map.Entry<String, Queue<Long>> operation : latencies.entrySet()) {
+			final List<Long> sorted = new ArrayList<>(operation.getValue());
+			Collections.sort(sorted);
+			System.out.println(String.format(Locale.ROOT, "%-22s %4d calls  p50 %7.1f ms  p99 %7.1f ms  max %7.1f ms",
+					operation.getKey(), sorted.size(), percentile(sorted, 0.5), percentile(sorted, 0.99),
+					percentile(sorted, 1)));
+		}
+
+		int calls = 0;
+		for (Queue<Long> operation : latencies.values()) {
+			calls += operation.size();
+		}
+		assertEquals(THREADS * CALLS_PER_THREAD, calls);
+		// REST calls must not touch the state shared with the dialogs
+		assertEquals(saveSuid, SaveParameters.INSTANCE.suid);
+		assertEquals(saveType, SaveParameters.INSTANCE.saveType);
+		assertEquals(searchTerm, LoadParameters.INSTANCE.searchTerm);
+	}
+
+	@Test
+	public void tasksFinishingBeforeWaitTest() throws Exception {
+		// Finishes the tasks before execute() returns to the caller
+		doAnswer(invocation -> {
+			runTasks((TaskIterator) invocation.getArguments()[0], (TaskObserver) invocation.getArguments()[1]);
+			return null;
+		}).when(taskManager).execute(any(TaskIterator.class), any(TaskObserver.class));
+
+		final ExecutorService caller = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "stress-caller"));
+		final Future<CINdexBaseResponse> response = caller
+				.submit(() -> resource.createNetworkFromCx(new ByteArrayInputStream(toCx(CX_SUID))));
+		try {
+			assertEquals(Long.valueOf(CX_SUID), response.get(10, TimeUnit.SECONDS).data.suid);
+		} catch (TimeoutException e) {
+			failStuck("createNetworkFromCx did not return");
+		} finally {
+			caller.shutdownNow();
+		}
+	}
+}
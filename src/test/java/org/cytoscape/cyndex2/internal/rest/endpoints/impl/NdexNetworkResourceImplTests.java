@@ -0,0 +1,93 @@
+package org.cytoscape.cyndex2.internal.rest.endpoints.impl;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.Status;
+
+import org.cytoscape.application.CyApplicationManager;
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.cyndex2.internal.rest.FakeNdexServer;
+import org.cytoscape.cyndex2.internal.rest.NdexClient;
+import org.cytoscape.cyndex2.internal.rest.errors.ErrorBuilder;
+import org.cytoscape.cyndex2.internal.rest.errors.ErrorType;
+import org.cytoscape.cyndex2.internal.rest.parameter.NDExSaveParameters;
+import org.cytoscape.cyndex2.internal.util.CIServiceManager;
+import org.cytoscape.cyndex2.internal.util.Metrics;
+import org.cytoscape.model.CyNetworkManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NdexNetworkResourceImplTests {
+
+	private FakeNdexServer server;
+	private WebApplicationException error;
+	private NdexNetworkResourceImpl resource;
+	private UUID id;
+
+	@Before
+	public void startServer() throws Exception {
+		server = new FakeNdexServer();
+		server.addUser("owner", "secret");
+		id = server.addNetwork("Uploaded", "owner", "[]".getBytes(StandardCharsets.UTF_8));
+
+		error = mock(WebApplicationException.class);
+		final ErrorBuilder errorBuilder = mock(ErrorBuilder.class);
+		when(errorBuilder.buildException(any(Status.class), anyString(), any(ErrorType.class))).thenReturn(error);
+		CyServiceModule.setErrorBuilder(errorBuilder);
+
+		resource = new NdexNetworkResourceImpl(new NdexClient(errorBuilder), mock(CyApplicationManager.class),
+				mock(CyNetworkManager.class), mock(CIServiceManager.class));
+		resource.visibilityRetryDelay = 10;
+	}
+
+	@After
+	public void stopServer() throws Exception {
+		server.close();
+	}
+
+	private NDExSaveParameters getParameters(final String password, final boolean isPublic) throws Exception {
+		final Constructor<NDExSaveParameters> constructor = NDExSaveParameters.class
+				.getDeclaredConstructor(String.class, String.class, String.class, Map.class, boolean.class);
+		constructor.setAccessible(true);
+		final NDExSaveParameters params = constructor.newInstance("owner", password, server.getUrl(), null, false);
+		params.isPublic = isPublic;
+		return params;
+	}
+
+	@Test
+	public void retriesVisibilityUpdateTest() throws Exception {
+		final Metrics.Counter retries = Metrics.INSTANCE.retries("visibility_update");
+		final long before = retries.get();
+		server.setSystemProperty(id, "visibility", "PRIVATE");
+		server.failNext("PUT", "/network/[^/]+/systemproperty", 2, 500);
+
+		resource.updateVisibility(getParameters("secret", true), id.toString());
+
+		assertEquals("PUBLIC", server.getSystemProperties(id).get("visibility"));
+		assertEquals(3, server.countRequests("PUT", "/network/[^/]+/systemproperty"));
+		assertEquals(before + 2, retries.get());
+	}
+
+	@Test
+	public void failsAfterLastRetryTest() throws Exception {
+		try {
+			resource.updateVisibility(getParameters("wrong", false), id.toString());
+			fail();
+		} catch (WebApplicationException e) {
+			assertSame(error, e);
+		}
+		assertEquals(5, server.countRequests("PUT", "/network/[^/]+/systemproperty"));
+		assertEquals("PUBLIC", server.getSystemProperties(id).get("visibility"));
+	}
+}
@@ -0,0 +1,136 @@
+package org.cytoscape.cyndex2.internal.task;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.cytoscape.cyndex2.internal.rest.FakeNdexServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class AspectCxStreamTests {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final String CX = "[{\"numberVerification\":[{\"longNumber\":281474976710655}]},"
+			+ "{\"nodes\":[{\"@id\":1,\"n\":\"A\"},{\"@id\":2,\"n\":\"B\"}]},"
+			+ "{\"edges\":[{\"@id\":3,\"s\":1,\"t\":2}]},"
+			+ "{\"nodeAttributes\":[{\"po\":1,\"n\":\"score\",\"v\":\"0.5\"}]},"
+			+ "{\"cartesianLayout\":[{\"node\":1,\"x\":0,\"y\":0},{\"node\":2,\"x\":10,\"y\":5}]},"
+			+ "{\"provenanceHistory\":[{\"entity\":{\"uri\":\"http://example.org\"}}]},"
+			+ "{\"status\":[{\"error\":\"\",\"success\":true}]}]";
+
+	private final CloseableHttpClient client = HttpClients.createDefault();
+	private FakeNdexServer server;
+	private UUID id;
+
+	@Before
+	public void startServer() throws Exception {
+		server = new FakeNdexServer();
+		id = server.addNetwork("Aspects", "owner", CX.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@After
+	public void stopServer() throws Exception {
+		server.close();
+		client.close();
+	}
+
+	private List<Map<String, List<Object>>> read(final List<String> aspects) throws IOException {
+		try (InputStream in = new AspectCxStream(client, server.getUrl(), id, null, null).open(aspects)) {
+			return MAPPER.readValue(in, new TypeReference<List<Map<String, List<Object>>>>() {
+			});
+		}
+	}
+
+	private List<Map<String, List<Object>>> read(final List<String> aspects, final long memoryBudget)
+			throws IOException {
+		try (InputStream in = new AspectCxStream(client, server.getUrl(), id, null, null).open(aspects, 4,
+				memoryBudget)) {
+			return MAPPER.readValue(in, new TypeReference<List<Map<String, List<Object>>>>() {
+			});
+		}
+	}
+
+	private static List<String> getNames(final List<Map<String, List<Object>>> cx) {
+		final List<String> names = new ArrayList<>();
+		for (Map<String, List<Object>> fragment : cx) {
+			names.addAll(fragment.keySet());
+		}
+		return names;
+	}
+
+	@Test
+	public void selectsAspectsTest() throws Exception {
+		final List<Map<String, List<Object>>> cx = read(Arrays.asList("edges", "nodeAttributes"));
+
+		assertEquals(Arrays.asList("numberVerification", "metaData", "nodes", "edges", "nodeAttributes", "status"),
+				getNames(cx));
+		assertEquals(3, cx.get(1).get("metaData").size());
+		assertEquals(2, cx.get(2).get("nodes").size());
+		assertEquals(1, cx.get(3).get("edges").size());
+		assertEquals(0, server.countRequests("GET", "/network/[^/]+/aspect/cartesianLayout"));
+		assertEquals(0, server.countRequests("GET", "/network/[^/]+/aspect/provenanceHistory"));
+		assertEquals(0, server.countRequests("GET", "/network/[^/]+"));
+	}
+
+	@Test
+	public void skipsMissingAspectsTest() throws Exception {
+		final List<Map<String, List<Object>>> cx = read(Collections.singletonList("cyVisualProperties"));
+
+		assertEquals(Arrays.asList("numberVerification", "metaData", "nodes", "status"), getNames(cx));
+		assertEquals(1, server.countRequests("GET", "/network/[^/]+/aspect/.+"));
+	}
+
+	@Test(expected = IOException.class)
+	public void failedAspectTest() throws Exception {
+		server.failNext("GET", "/network/[^/]+/aspect/edges", 1, 500);
+		read(Arrays.asList("nodes", "edges"));
+	}
+
+	@Test
+	public void parallelMatchesSequentialTest() throws Exception {
+		final List<Map<String, List<Object>>> sequential = read(null);
+		assertEquals(Arrays.asList("numberVerification", "metaData", "nodes", "edges", "nodeAttributes",
+				"cartesianLayout", "provenanceHistory", "status"), getNames(sequential));
+
+		assertEquals(sequential, read(null, 1 << 20));
+		// Every aspect goes to a temporary file
+		assertEquals(sequential, read(null, 0));
+		assertEquals(read(Arrays.asList("edges", "nodeAttributes")),
+				read(Arrays.asList("edges", "nodeAttributes"), 64));
+	}
+
+	@Test
+	public void parallelDownloadsOverlapTest() throws Exception {
+		server.setLatency(300);
+
+		final long start = System.nanoTime();
+		read(null, 1 << 20);
+		final long elapsedMs = (System.nanoTime() - start) / 1000000;
+
+		// The metadata and then five aspects on four connections, instead of six requests in turn
+		assertEquals(5, server.countRequests("GET", "/network/[^/]+/aspect/.+"));
+		assertTrue("Took " + elapsedMs + " ms", elapsedMs < 1500);
+	}
+
+	@Test(expected = IOException.class)
+	public void failedParallelDownloadTest() throws Exception {
+		server.failNext("GET", "/network/[^/]+/aspect/cartesianLayout", 1, 500);
+		read(null, 1 << 20);
+	}
+}
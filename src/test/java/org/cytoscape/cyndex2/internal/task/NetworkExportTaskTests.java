@@ -0,0 +1,153 @@
+package org.cytoscape.cyndex2.internal.task;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.cyndex2.internal.rest.FakeNdexServer;
+import org.cytoscape.cyndex2.internal.rest.parameter.NDExBasicSaveParameters;
+import org.cytoscape.cyndex2.internal.rest.response.TaskTrace;
+import org.cytoscape.cyndex2.internal.rest.response.TraceSpan;
+import org.cytoscape.cyndex2.internal.util.NetworkUUIDManager;
+import org.cytoscape.cyndex2.internal.util.RecordingTaskMonitor;
+import org.cytoscape.cyndex2.internal.util.TraceBuffer;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.subnetwork.CyRootNetwork;
+import org.cytoscape.model.subnetwork.CySubNetwork;
+import org.cytoscape.service.util.CyServiceRegistrar;
+import org.cytoscape.work.TaskMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Uploads CX to a {@link FakeNdexServer}, for a mocked network.
+ */
+public class NetworkExportTaskTests {
+
+	private static final long SUID = 42L;
+
+	private FakeNdexServer server;
+	private NDExBasicSaveParameters params;
+	private CyRow hiddenRow;
+
+	@Before
+	public void startServer() throws Exception {
+		server = new FakeNdexServer();
+		server.addUser("owner", "secret");
+		params = new NDExBasicSaveParameters();
+		params.username = "owner";
+		params.password = "secret";
+		params.serverUrl = server.getUrl();
+
+		final CySubNetwork network = mock(CySubNetwork.class);
+		final CyRootNetwork root = mock(CyRootNetwork.class);
+		final CyRow row = mock(CyRow.class);
+		final CyTable hiddenTable = mock(CyTable.class);
+		hiddenRow = mock(CyRow.class);
+		when(network.getSUID()).thenReturn(SUID);
+		when(network.getRootNetwork()).thenReturn(root);
+		when(network.getRow(network)).thenReturn(row);
+		when(root.getRow(root)).thenReturn(row);
+		when(row.get(CyNetwork.NAME, String.class)).thenReturn("Exported");
+		when(network.getTable(CyNetwork.class, CyNetwork.HIDDEN_ATTRS)).thenReturn(hiddenTable);
+		when(hiddenTable.getRow(SUID)).thenReturn(hiddenRow);
+
+		final CyNetworkManager networkManager = mock(CyNetworkManager.class);
+		when(networkManager.getNetwork(SUID)).thenReturn(network);
+		final CyServiceRegistrar registrar = mock(CyServiceRegistrar.class);
+		when(registrar.getService(CyNetworkManager.class)).thenReturn(networkManager);
+		CyServiceModule.setServiceRegistrar(registrar);
+	}
+
+	@After
+	public void stopServer() throws Exception {
+		server.close();
+	}
+
+	private static boolean contains(final byte[] body, final byte[] cx) {
+		return new String(body, StandardCharsets.UTF_8).contains(new String(cx, StandardCharsets.UTF_8));
+	}
+
+	private NetworkExportTask createTask(final byte[] cx, final boolean isUpdate) throws Exception {
+		return new NetworkExportTask(SUID, new ByteArrayInputStream(cx), cx.length, params, false, isUpdate,
+				new RecordingTaskMonitor(NetworkExportTask.TRACE_TYPE, String.valueOf(SUID)));
+	}
+
+	@Test
+	public void createThroughputTest() throws Exception {
+		final byte[] cx = NetworkImportTaskTests.createCx(256 * 1024);
+		server.setBandwidth(512 * 1024);
+		final TaskMonitor monitor = mock(TaskMonitor.class);
+
+		final NetworkExportTask task = createTask(cx, false);
+		task.run(monitor);
+
+		final UUID id = task.getUUID();
+		assertNotNull(id);
+		assertTrue(contains(server.getCx(id), cx));
+		verify(hiddenRow).set(NetworkUUIDManager.UUID_COLUMN, id.toString());
+		// The CX is uploaded once, in a single request with little multipart framing
+		assertEquals(1, server.countRequests("POST", "/network"));
+		assertTrue("Received " + server.getBytesReceived(), server.getBytesReceived() >= cx.length
+				&& server.getBytesReceived() < cx.length + 1024);
+
+		final List<TaskTrace> traces = TraceBuffer.INSTANCE.getTraces();
+		final TaskTrace trace = traces.get(traces.size() - 1);
+		assertEquals(TaskTrace.COMPLETED, trace.status);
+		assertEquals(cx.length, trace.bytesTransferred);
+		assertEquals(cx.length, trace.bytesTotal);
+		TraceSpan upload = null;
+		for (TraceSpan span : trace.spans) {
+			if (span.name.equals("cx_upload")) {
+				upload = span;
+			}
+		}
+		assertNotNull(upload);
+		assertEquals(cx.length, upload.bytes);
+
+		// Progress never goes backwards and ends complete
+		final ArgumentCaptor<Double> progress = ArgumentCaptor.forClass(Double.class);
+		verify(monitor, atLeastOnce()).setProgress(progress.capture());
+		final List<Double> values = progress.getAllValues();
+		for (int i = 1; i < values.size(); i++) {
+			assertTrue("Progress " + values, values.get(i) >= values.get(i - 1));
+		}
+		assertEquals(1.0, values.get(values.size() - 1), 0.0);
+	}
+
+	@Test
+	public void updateTest() throws Exception {
+		final UUID id = server.addNetwork("Exported", "owner", "[]".getBytes(StandardCharsets.UTF_8));
+		when(hiddenRow.get(NetworkUUIDManager.UUID_COLUMN, String.class)).thenReturn(id.toString());
+		final byte[] cx = NetworkImportTaskTests.createCx(4096);
+
+		final NetworkExportTask task = createTask(cx, true);
+		task.run(mock(TaskMonitor.class));
+
+		assertEquals(id, task.getUUID());
+		assertEquals(1, server.countRequests("PUT", "/network/" + id));
+		assertTrue(contains(server.getCx(id), cx));
+	}
+
+	@Test(expected = NetworkExportTask.NetworkExportException.class)
+	public void updateWithoutPermissionTest() throws Exception {
+		server.addUser("other", "secret");
+		final UUID id = server.addNetwork("Other", "other", "[]".getBytes(StandardCharsets.UTF_8));
+		when(hiddenRow.get(NetworkUUIDManager.UUID_COLUMN, String.class)).thenReturn(id.toString());
+
+		createTask(NetworkImportTaskTests.createCx(1024), true).run(mock(TaskMonitor.class));
+	}
+}
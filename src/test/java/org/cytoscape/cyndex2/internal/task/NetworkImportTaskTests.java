@@ -0,0 +1,296 @@
+package org.cytoscape.cyndex2.internal.task;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.cytoscape.cyndex2.internal.CxTaskFactoryManager;
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.cyndex2.internal.rest.FakeNdexServer;
+import org.cytoscape.cyndex2.internal.rest.response.TaskTrace;
+import org.cytoscape.cyndex2.internal.rest.response.TraceSpan;
+import org.cytoscape.cyndex2.internal.util.NetworkUUIDManager;
+import org.cytoscape.cyndex2.internal.util.TraceBuffer;
+import org.cytoscape.io.read.AbstractCyNetworkReader;
+import org.cytoscape.io.read.InputStreamTaskFactory;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.service.util.CyServiceRegistrar;
+import org.cytoscape.work.TaskIterator;
+import org.cytoscape.work.TaskMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Imports networks from a {@link FakeNdexServer}. The CX reader is replaced by
+ * one that only reads the stream to the end.
+ */
+public class NetworkImportTaskTests {
+
+	private static final Map<String, String> READER_PROPERTIES = Collections.singletonMap("id",
+			"cytoscapeCxNetworkReaderFactory");
+
+	private FakeNdexServer server;
+	private InputStreamTaskFactory readerFactory;
+	private CyNetworkManager networkManager;
+	private CyNetwork network;
+	private AbstractCyNetworkReader reader;
+	private final AtomicLong bytesRead = new AtomicLong();
+
+	/**
+	 * Returns a CX array of nodes that is about the given size.
+	 */
+	static byte[] createCx(final int size) {
+		final StringBuilder cx = new StringBuilder("[{\"nodes\":[");
+		for (int i = 0; cx.length() < size; i++) {
+			cx.append(i == 0 ? "" : ",").append("{\"@id\":").append(i).append('}');
+		}
+		return cx.append("]}]").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Before
+	public void startServer() throws Exception {
+		server = new FakeNdexServer();
+
+		network = mock(CyNetwork.class);
+		when(network.getSUID()).thenReturn(42L);
+		when(network.getNodeCount()).thenReturn(3);
+		when(network.getEdgeCount()).thenReturn(2);
+
+		readerFactory = mock(InputStreamTaskFactory.class);
+		when(readerFactory.createTaskIterator(any(InputStream.class), any(String.class))).thenAnswer(invocation -> {
+			final InputStream in = (InputStream) invocation.getArguments()[0];
+			reader = mock(AbstractCyNetworkReader.class);
+			doAnswer(run -> {
+				final byte[] buffer = new byte[8192];
+				int n;
+				while ((n = in.read(buffer)) >= 0) {
+					bytesRead.addAndGet(n);
+				}
+				return null;
+			}).when(reader).run(any(TaskMonitor.class));
+			when(reader.getNetworks()).thenReturn(new CyNetwork[] { network });
+			return new TaskIterator(reader);
+		});
+		CxTaskFactoryManager.INSTANCE.addReaderFactory(readerFactory, READER_PROPERTIES);
+
+		networkManager = mock(CyNetworkManager.class);
+		final CyServiceRegistrar registrar = mock(CyServiceRegistrar.class);
+		when(registrar.getService(CyNetworkManager.class)).thenReturn(networkManager);
+		CyServiceModule.setServiceRegistrar(registrar);
+	}
+
+	@After
+	public void stopServer() throws Exception {
+		CxTaskFactoryManager.INSTANCE.removeReaderFactory(readerFactory, READER_PROPERTIES);
+		server.close();
+	}
+
+	private static TaskTrace getLastTrace() {
+		final List<TaskTrace> traces = TraceBuffer.INSTANCE.getTraces();
+		return traces.get(traces.size() - 1);
+	}
+
+	private static TraceSpan getLastSpan(final String name) {
+		for (TraceSpan span : getLastTrace().spans) {
+			if (span.name.equals(name)) {
+				return span;
+			}
+		}
+		return null;
+	}
+
+	@Test
+	public void importThroughputTest() throws Exception {
+		final byte[] cx = createCx(256 * 1024);
+		final UUID id = server.addNetwork("Throughput", "owner", cx);
+		server.setBandwidth(512 * 1024);
+		final TaskMonitor monitor = mock(TaskMonitor.class);
+
+		final NetworkImportTask task = new NetworkImportTask(server.getUrl(), id, null, null);
+		task.run(monitor);
+
+		assertEquals(42L, task.getSUID());
+		verify(networkManager).addNetwork(network);
+		// The CX is downloaded once, in a single request, and read to the end
+		assertEquals(1, server.countRequests("GET", "/network/[^/]+"));
+		assertEquals(cx.length, server.getBytesSent());
+		assertEquals(cx.length, bytesRead.get());
+
+		final TaskTrace trace = getLastTrace();
+		assertEquals(cx.length, getLastSpan("cx_read").bytes);
+		assertEquals(cx.length, trace.bytesTransferred);
+		assertEquals(cx.length, trace.bytesTotal);
+		// Sampled while the server paces the body at 512 KB/s
+		assertTrue("Rate " + trace.bytesPerSecond,
+				trace.bytesPerSecond > 256 * 1024 && trace.bytesPerSecond < 1024 * 1024);
+
+		// The download moves the progress before it completes, never backwards
+		final ArgumentCaptor<Double> progress = ArgumentCaptor.forClass(Double.class);
+		verify(monitor, atLeastOnce()).setProgress(progress.capture());
+		final List<Double> values = progress.getAllValues();
+		int partial = 0;
+		for (int i = 0; i < values.size(); i++) {
+			if (i > 0) {
+				assertTrue("Progress " + values, values.get(i) >= values.get(i - 1));
+			}
+			if (values.get(i) > 0.05 && values.get(i) < 0.7) {
+				partial++;
+			}
+		}
+		assertTrue("Progress " + values, partial > 0);
+		assertEquals(1.0, values.get(values.size() - 1), 0.0);
+	}
+
+	@Test
+	public void importLatencyTest() throws Exception {
+		final UUID id = server.addNetwork("Latency", "owner", createCx(1024));
+		server.setLatency(200);
+
+		final NetworkImportTask task = new NetworkImportTask(server.getUrl(), id, null, null);
+		task.run(mock(TaskMonitor.class));
+
+		assertEquals(42L, task.getSUID());
+		// One round trip for the summary and one for the CX, nothing retried
+		assertEquals(Arrays.asList("GET /network/" + id + "/summary", "GET /network/" + id),
+				server.getRequests());
+		// The summary round trip is traced as its own phase
+		final TraceSpan summarySpan = getLastSpan("summary_fetch");
+		assertNotNull(summarySpan);
+		assertTrue("Summary took " + summarySpan.durationMs + " ms", summarySpan.durationMs >= 200);
+		assertEquals(TaskTrace.COMPLETED, getLastTrace().status);
+	}
+
+	@Test
+	public void fallsBackToNdexClientTest() throws Exception {
+		final byte[] cx = createCx(4096);
+		final UUID id = server.addNetwork("Fallback", "owner", cx);
+		server.failNext("GET", "/network/[^/]+", 1, 500);
+
+		final NetworkImportTask task = new NetworkImportTask(server.getUrl(), id, null, null);
+		task.run(mock(TaskMonitor.class));
+
+		assertEquals(42L, task.getSUID());
+		assertEquals(cx.length, bytesRead.get());
+		assertEquals(2, server.countRequests("GET", "/network/[^/]+"));
+	}
+
+	@Test
+	public void reportsNdexQueryErrorTest() throws Exception {
+		final String cx = "[{\"nodes\":[{\"@id\":1,\"n\":\"TP53\"},{\"@id\":2,\"n\":\"MDM2\"},"
+				+ "{\"@id\":3,\"n\":\"CDKN1A\"}]},{\"edges\":[{\"@id\":10,\"s\":1,\"t\":2},"
+				+ "{\"@id\":11,\"s\":1,\"t\":3}]}]";
+		final UUID id = server.addNetwork("Interactome", "owner", cx.getBytes(StandardCharsets.UTF_8));
+
+		final NetworkImportTask task = new NetworkImportTask(server.getUrl(), id, null, null);
+		task.setQuery("TP53", QueryCxStream.NEIGHBORHOOD, 1, 1);
+		try {
+			task.run(mock(TaskMonitor.class));
+			fail("The query result has two edges");
+		} catch (NetworkImportTask.NetworkImportException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("EdgeLimitExceeded"));
+		}
+		verify(networkManager, never()).addNetwork(any(CyNetwork.class));
+		assertEquals(TaskTrace.FAILED, getLastTrace().status);
+	}
+
+	@Test
+	public void createsViewBelowThresholdTest() throws Exception {
+		final NetworkImportTask task = new NetworkImportTask(new ByteArrayInputStream(createCx(1024)));
+		task.run(mock(TaskMonitor.class));
+
+		assertEquals(42L, task.getSUID());
+		verify(reader).buildCyNetworkView(network);
+		assertNotNull(getLastSpan("view_build"));
+	}
+
+	@Test
+	public void skipsViewAboveThresholdTest() throws Exception {
+		when(network.getNodeCount()).thenReturn(40000);
+		when(network.getEdgeCount()).thenReturn((int) NetworkImportTask.getViewThreshold());
+		final TaskMonitor monitor = mock(TaskMonitor.class);
+
+		final NetworkImportTask task = new NetworkImportTask(new ByteArrayInputStream(createCx(1024)));
+		task.run(monitor);
+
+		assertEquals(42L, task.getSUID());
+		verify(networkManager).addNetwork(network);
+		verify(reader, never()).buildCyNetworkView(any(CyNetwork.class));
+		verify(monitor).showMessage(any(TaskMonitor.Level.class), any(String.class));
+		assertNull(getLastSpan("view_build"));
+	}
+
+	private CyRow mockHiddenRow() {
+		final CyTable hiddenTable = mock(CyTable.class);
+		final CyRow hiddenRow = mock(CyRow.class);
+		when(hiddenTable.getRow(42L)).thenReturn(hiddenRow);
+		when(network.getTable(CyNetwork.class, CyNetwork.HIDDEN_ATTRS)).thenReturn(hiddenTable);
+		return hiddenRow;
+	}
+
+	@Test
+	public void previewTest() throws Exception {
+		final UUID id = server.addNetwork("Large", "owner", createCx(64 * 1024));
+		final byte[] sample = createCx(1024);
+		server.setSample(id, sample);
+		final CyRow hiddenRow = mockHiddenRow();
+		final CyRow row = mock(CyRow.class);
+		when(network.getRow(network)).thenReturn(row);
+		when(row.get(CyNetwork.NAME, String.class)).thenReturn("Large");
+
+		final NetworkImportTask task = new NetworkImportTask(server.getUrl(), id, null, null);
+		task.setPreview(true);
+		task.run(mock(TaskMonitor.class));
+
+		assertEquals(42L, task.getSUID());
+		assertEquals(sample.length, bytesRead.get());
+		verify(hiddenRow).set(NetworkUUIDManager.PREVIEW_COLUMN, id.toString());
+		verify(hiddenRow, never()).set(NetworkUUIDManager.UUID_COLUMN, id.toString());
+		verify(row).set(CyNetwork.NAME, "Large" + NetworkImportTask.PREVIEW_SUFFIX);
+		assertEquals(1, server.countRequests("GET", "/network/[^/]+/sample"));
+		assertEquals(0, server.countRequests("GET", "/network/[^/]+"));
+	}
+
+	@Test(expected = NetworkImportTask.NetworkImportException.class)
+	public void previewWithoutSampleTest() throws Exception {
+		final UUID id = server.addNetwork("Small", "owner", createCx(1024));
+
+		final NetworkImportTask task = new NetworkImportTask(server.getUrl(), id, null, null);
+		task.setPreview(true);
+		task.run(mock(TaskMonitor.class));
+	}
+
+	@Test
+	public void reusesSummaryTest() throws Exception {
+		final UUID id = server.addNetwork("Large", "owner", createCx(4096));
+		final NetworkImportTask preview = new NetworkImportTask(server.getUrl(), id, null, null);
+		assertEquals(1, server.countRequests("GET", "/network/[^/]+/summary"));
+
+		final NetworkImportTask task = new NetworkImportTask(server.getUrl(), id, null, null,
+				preview.getNetworkSummary());
+		task.run(mock(TaskMonitor.class));
+
+		assertEquals(42L, task.getSUID());
+		assertEquals(1, server.countRequests("GET", "/network/[^/]+/summary"));
+		assertEquals(1, server.countRequests("GET", "/network/[^/]+"));
+	}
+}
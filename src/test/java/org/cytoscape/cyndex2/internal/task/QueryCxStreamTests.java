@@ -0,0 +1,107 @@
+package org.cytoscape.cyndex2.internal.task;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.cytoscape.cyndex2.internal.rest.FakeNdexServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class QueryCxStreamTests {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	// TP53 - MDM2 - CDKN1A, MDM2 - MDM4, and EGFR - GRB2 apart
+	private static final String CX = "[{\"nodes\":[{\"@id\":1,\"n\":\"TP53\"},{\"@id\":2,\"n\":\"MDM2\"},"
+			+ "{\"@id\":3,\"n\":\"CDKN1A\"},{\"@id\":4,\"n\":\"MDM4\"},{\"@id\":5,\"n\":\"EGFR\"},{\"@id\":6,\"n\":\"GRB2\"}]},"
+			+ "{\"edges\":[{\"@id\":10,\"s\":1,\"t\":2},{\"@id\":11,\"s\":1,\"t\":3},{\"@id\":12,\"s\":2,\"t\":4},"
+			+ "{\"@id\":13,\"s\":5,\"t\":6}]},"
+			+ "{\"nodeAttributes\":[{\"po\":1,\"n\":\"type\",\"v\":\"protein\"},{\"po\":5,\"n\":\"type\",\"v\":\"protein\"}]},"
+			+ "{\"edgeAttributes\":[{\"po\":10,\"n\":\"interaction\",\"v\":\"binds\"}]}]";
+
+	private final CloseableHttpClient client = HttpClients.createDefault();
+	private FakeNdexServer server;
+	private UUID id;
+
+	@Before
+	public void startServer() throws Exception {
+		server = new FakeNdexServer();
+		id = server.addNetwork("Interactome", "owner", CX.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@After
+	public void stopServer() throws Exception {
+		server.close();
+		client.close();
+	}
+
+	private Map<String, List<Map<String, Object>>> query(final String genes, final String type,
+			final Integer edgeLimit) throws IOException {
+		try (InputStream in = new QueryCxStream(client, server.getUrl(), id, null, null).open(genes, type, 1,
+				edgeLimit)) {
+			final List<Map<String, List<Map<String, Object>>>> fragments = MAPPER.readValue(in,
+					new TypeReference<List<Map<String, List<Map<String, Object>>>>>() {
+					});
+			final Map<String, List<Map<String, Object>>> aspects = new HashMap<>();
+			for (Map<String, List<Map<String, Object>>> fragment : fragments) {
+				aspects.putAll(fragment);
+			}
+			return aspects;
+		}
+	}
+
+	private static Set<Object> getIds(final List<Map<String, Object>> elements) {
+		final Set<Object> ids = new HashSet<>();
+		for (Map<String, Object> element : elements) {
+			ids.add(element.get("@id"));
+		}
+		return ids;
+	}
+
+	@Test
+	public void neighborhoodTest() throws Exception {
+		final Map<String, List<Map<String, Object>>> cx = query("TP53", QueryCxStream.NEIGHBORHOOD, null);
+
+		assertEquals(new HashSet<Object>(Arrays.asList(1, 2, 3)), getIds(cx.get("nodes")));
+		assertEquals(new HashSet<Object>(Arrays.asList(10, 11)), getIds(cx.get("edges")));
+		assertEquals(1, cx.get("nodeAttributes").size());
+		assertEquals(1, cx.get("edgeAttributes").size());
+		assertEquals(1, server.countRequests("POST", "/search/network/[^/]+/query"));
+		assertEquals(0, server.countRequests("GET", "/network/[^/]+"));
+	}
+
+	@Test
+	public void interconnectTest() throws Exception {
+		final Map<String, List<Map<String, Object>>> cx = query("TP53 MDM4 MDM2", QueryCxStream.INTERCONNECT, null);
+
+		assertEquals(new HashSet<Object>(Arrays.asList(1, 2, 4)), getIds(cx.get("nodes")));
+		assertEquals(new HashSet<Object>(Arrays.asList(10, 12)), getIds(cx.get("edges")));
+		assertEquals(1, server.countRequests("POST", "/search/network/[^/]+/interconnectquery"));
+	}
+
+	@Test
+	public void edgeLimitTest() throws Exception {
+		try {
+			query("TP53 MDM2", QueryCxStream.NEIGHBORHOOD, 2);
+			fail("The result has three edges");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("EdgeLimitExceeded"));
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BrowserCacheTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Writes a cache laid out like Chromium's simple cache: an index directory
+	 * and data files that refer to each other.
+	 */
+	private File writeCache(File dataDir) throws IOException {
+		final File cacheDir = new File(dataDir, BrowserCache.CACHE_DIR);
+		new File(cacheDir, "index-dir").mkdirs();
+		Files.write(new File(cacheDir, "index").toPath(), new byte[24]);
+		Files.write(new File(cacheDir, "index-dir/the-real-index").toPath(), new byte[100]);
+		Files.write(new File(cacheDir, "data_0").toPath(), new byte[100]);
+		Files.write(new File(cacheDir, "f_000001").toPath(), new byte[100]);
+		return cacheDir;
+	}
+
+	@Test
+	public void sizeSwitchTest() {
+		assertEquals("--disk-cache-size=268435456", BrowserCache.getSizeSwitch(256L * 1024 * 1024));
+	}
+
+	@Test
+	public void clearRemovesWholeCacheTest() throws IOException {
+		final File dataDir = folder.newFolder("data");
+		BrowserCache.checkVersion(dataDir, "1");
+		final File cacheDir = writeCache(dataDir);
+
+		BrowserCache.clear(dataDir);
+
+		assertFalse(cacheDir.exists());
+		assertTrue(new File(dataDir, BrowserCache.VERSION_FILE).exists());
+	}
+
+	@Test
+	public void versionChangeClearsCacheTest() throws IOException {
+		final File dataDir = folder.newFolder("data");
+		BrowserCache.checkVersion(dataDir, "1");
+
+		final File cacheDir = writeCache(dataDir);
+		BrowserCache.checkVersion(dataDir, "1");
+		assertEquals(4, cacheDir.list().length);
+
+		BrowserCache.checkVersion(dataDir, "2");
+		assertFalse(cacheDir.exists());
+	}
+}
@@ -0,0 +1,225 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.event.CyEvent;
+import org.cytoscape.event.CyEventHelper;
+import org.cytoscape.event.CyPayloadEvent;
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.SUIDFactory;
+import org.cytoscape.model.events.AddedEdgesEvent;
+import org.cytoscape.model.events.AddedNodesEvent;
+import org.cytoscape.model.events.RowSetRecord;
+import org.cytoscape.model.events.RowsCreatedEvent;
+import org.cytoscape.model.events.RowsSetEvent;
+import org.cytoscape.model.subnetwork.CyRootNetwork;
+import org.cytoscape.model.subnetwork.CySubNetwork;
+import org.cytoscape.service.util.CyServiceRegistrar;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Builds networks from mocks and checks the events a listener receives
+ * through an event helper that, like Cytoscape's, drops events from silenced
+ * sources.
+ */
+public class BulkImportEventsTests {
+
+	private static class RecordingEventHelper implements CyEventHelper {
+		final List<CyEvent<?>> received = new ArrayList<>();
+		final Set<Object> silenced = new HashSet<>();
+
+		@Override
+		public <E extends CyEvent<?>> void fireEvent(E event) {
+			if (!silenced.contains(event.getSource())) {
+				received.add(event);
+			}
+		}
+
+		@Override
+		public <S, P, E extends CyPayloadEvent<S, P>> void addEventPayload(S source, P payload, Class<E> eventType) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void silenceEventSource(Object source) {
+			silenced.add(source);
+		}
+
+		@Override
+		public void unsilenceEventSource(Object source) {
+			silenced.remove(source);
+		}
+
+		@Override
+		public void flushPayloadEvents() {
+		}
+
+		@SuppressWarnings("unchecked")
+		<E extends CyEvent<?>> List<E> getReceived(final Class<E> type) {
+			final List<E> events = new ArrayList<>();
+			for (CyEvent<?> event : received) {
+				if (type.isInstance(event)) {
+					events.add((E) event);
+				}
+			}
+			return events;
+		}
+	}
+
+	/**
+	 * A table keyed by SUID with a "name" column, whose rows can be added
+	 * while it is in use.
+	 */
+	private static class TableFixture {
+		final CyTable table = mock(CyTable.class);
+		final List<CyRow> rows = new ArrayList<>();
+
+		TableFixture() {
+			final CyColumn suid = mock(CyColumn.class);
+			when(suid.getName()).thenReturn("SUID");
+			final CyColumn name = mock(CyColumn.class);
+			when(name.getName()).thenReturn("name");
+			when(table.getPrimaryKey()).thenReturn(suid);
+			when(table.getColumns()).thenReturn(Arrays.asList(suid, name));
+			when(table.getAllRows()).thenReturn(rows);
+		}
+
+		CyRow addRow(final long key, final String name) {
+			final CyRow row = mock(CyRow.class);
+			final Map<String, Object> values = new HashMap<>();
+			values.put("SUID", key);
+			values.put("name", name);
+			when(row.getRaw("SUID")).thenReturn(key);
+			when(row.getRaw("name")).thenReturn(name);
+			when(row.getAllValues()).thenReturn(values);
+			when(row.getTable()).thenReturn(table);
+			rows.add(row);
+			return row;
+		}
+	}
+
+	private RecordingEventHelper eventHelper;
+	private CySubNetwork network;
+	private TableFixture nodeTable;
+	private List<CyNode> nodes;
+
+	private static CyNode createNode() {
+		final CyNode node = mock(CyNode.class);
+		when(node.getSUID()).thenReturn(SUIDFactory.getNextSUID());
+		return node;
+	}
+
+	@Before
+	public void setUp() {
+		eventHelper = new RecordingEventHelper();
+		final CyServiceRegistrar registrar = mock(CyServiceRegistrar.class);
+		when(registrar.getService(CyEventHelper.class)).thenReturn(eventHelper);
+		CyServiceModule.setServiceRegistrar(registrar);
+
+		// A network as the reader leaves it, with two nodes
+		final CyRootNetwork root = mock(CyRootNetwork.class);
+		network = mock(CySubNetwork.class);
+		nodeTable = new TableFixture();
+		nodes = new ArrayList<>(Arrays.asList(createNode(), createNode()));
+		for (CyNode node : nodes) {
+			nodeTable.addRow(node.getSUID(), "read");
+		}
+		when(network.getRootNetwork()).thenReturn(root);
+		when(network.getDefaultNodeTable()).thenReturn(nodeTable.table);
+		when(network.getNodeList()).thenReturn(nodes);
+		when(network.getEdgeList()).thenReturn(Collections.<CyEdge>emptyList());
+		when(network.getNodeCount()).thenReturn(60000);
+		when(network.getEdgeCount()).thenReturn(60000);
+		when(root.getNodeList()).thenReturn(nodes);
+		when(root.getEdgeList()).thenReturn(Collections.<CyEdge>emptyList());
+	}
+
+	/**
+	 * Adds a node while the network is registered, with the events Cytoscape
+	 * would raise for it.
+	 */
+	private CyNode addNodeDuringRegistration() {
+		final CyNode node = createNode();
+		nodes.add(node);
+		final CyRow row = nodeTable.addRow(node.getSUID(), "registered");
+		eventHelper.fireEvent(new AddedNodesEvent(network, Collections.singletonList(node)));
+		eventHelper.fireEvent(new RowsCreatedEvent(nodeTable.table, Collections.<Object>singletonList(node.getSUID())));
+		eventHelper.fireEvent(new RowsSetEvent(nodeTable.table,
+				Collections.singletonList(new RowSetRecord(row, "name", "registered", "registered"))));
+		return node;
+	}
+
+	@Test
+	public void sendsCreatedElementsOnceOnCloseTest() {
+		final CyNode node;
+		try (BulkImportEvents events = BulkImportEvents.start(120000).add(network)) {
+			assertTrue(events.getSourceCount() > 0);
+			node = addNodeDuringRegistration();
+			// Nothing reaches listeners while the network is registered
+			assertTrue(eventHelper.received.isEmpty());
+		}
+		assertTrue(eventHelper.silenced.isEmpty());
+
+		// The network and its root each report the new node, not the ones read before
+		final List<AddedNodesEvent> added = eventHelper.getReceived(AddedNodesEvent.class);
+		assertEquals(2, added.size());
+		for (AddedNodesEvent event : added) {
+			assertEquals(Collections.singletonList(node), new ArrayList<>(event.getPayloadCollection()));
+		}
+		assertTrue(eventHelper.getReceived(AddedEdgesEvent.class).isEmpty());
+
+		final List<RowsCreatedEvent> created = eventHelper.getReceived(RowsCreatedEvent.class);
+		assertEquals(1, created.size());
+		assertSame(nodeTable.table, created.get(0).getSource());
+		assertEquals(Collections.singletonList(node.getSUID()), new ArrayList<>(created.get(0).getPayloadCollection()));
+
+		final List<RowsSetEvent> set = eventHelper.getReceived(RowsSetEvent.class);
+		assertEquals(1, set.size());
+		final RowSetRecord record = set.get(0).getPayloadCollection().iterator().next();
+		assertEquals(1, set.get(0).getPayloadCollection().size());
+		assertEquals("name", record.getColumn());
+		assertEquals("registered", record.getValue());
+	}
+
+	@Test
+	public void passesEventsBelowThresholdTest() {
+		try (BulkImportEvents events = BulkImportEvents.start(1000).add(network)) {
+			assertEquals(0, events.getSourceCount());
+			addNodeDuringRegistration();
+		}
+		// Listeners got the events as they were raised, and no summary
+		assertEquals(3, eventHelper.received.size());
+		assertEquals(1, eventHelper.getReceived(AddedNodesEvent.class).size());
+	}
+
+	@Test
+	public void decidesFromNetworksWhenSizeUnknownTest() {
+		try (BulkImportEvents events = BulkImportEvents.start(-1).add(network)) {
+			assertTrue(events.getSourceCount() > 0);
+		}
+		when(network.getNodeCount()).thenReturn(10);
+		when(network.getEdgeCount()).thenReturn(10);
+		try (BulkImportEvents events = BulkImportEvents.start(-1).add(network)) {
+			assertEquals(0, events.getSourceCount());
+		}
+		// Nothing was created in between, so there was nothing to report
+		assertTrue(eventHelper.received.isEmpty());
+	}
+}
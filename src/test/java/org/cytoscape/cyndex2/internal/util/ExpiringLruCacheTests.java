@@ -0,0 +1,32 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ExpiringLruCacheTests {
+
+	@Test
+	public void evictsLeastRecentlyUsedTest() {
+		final ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(2, 60000);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+		cache.put("c", 3);
+
+		assertNull(cache.get("b"));
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+		assertEquals(Integer.valueOf(3), cache.get("c"));
+		assertEquals(3, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void expiresEntriesTest() throws InterruptedException {
+		final ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(2, 10);
+		cache.put("a", 1);
+		Thread.sleep(30);
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.size());
+	}
+}
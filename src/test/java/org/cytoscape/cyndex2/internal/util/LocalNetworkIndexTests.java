@@ -0,0 +1,117 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cytoscape.cyndex2.internal.rest.NetworkSearchResult;
+import org.cytoscape.cyndex2.internal.rest.RemoteNetworkSummary;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LocalNetworkIndexTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static RemoteNetworkSummary summary(String id, String name, String description, long modified) {
+		final RemoteNetworkSummary summary = new RemoteNetworkSummary();
+		summary.externalId = id;
+		summary.name = name;
+		summary.description = description;
+		summary.owner = "ndexbutler";
+		summary.modificationTime = modified;
+		return summary;
+	}
+
+	@Test
+	public void ranksNameMatchesFirstTest() throws IOException {
+		final LocalNetworkIndex index = new LocalNetworkIndex(100);
+		index.open(folder.getRoot());
+		final RemoteNetworkSummary described = summary("a", "NCI PID", "<p>Signaling events mediated by <b>TP53</b></p>", 1);
+		final Map<String, Object> property = new HashMap<>();
+		property.put("predicateString", "labels");
+		property.put("value", "apoptosis");
+		described.properties = Collections.singletonList(property);
+		index.addAll(Arrays.asList(described, summary("b", "TP53 interactions", null, 2)));
+
+		final NetworkSearchResult result = index.search("tp5", 10);
+		assertEquals(2, result.numFound);
+		assertEquals("b", result.networks.get(0).externalId);
+		assertEquals("a", result.networks.get(1).externalId);
+
+		assertEquals(1, index.search("TP53 signaling", 10).numFound);
+		assertEquals(1, index.search("apoptosis", 10).numFound);
+		assertEquals(0, index.search("tp53 kinase", 10).numFound);
+	}
+
+	@Test
+	public void persistsAndReplacesEntriesTest() throws IOException {
+		LocalNetworkIndex index = new LocalNetworkIndex(100);
+		index.open(folder.getRoot());
+		index.addAll(Collections.singletonList(summary("a", "Old name", null, 1)));
+		index.addAll(Collections.singletonList(summary("a", "New name", null, 2)));
+		index.addAll(Collections.singletonList(summary("b", "Other", null, 1)));
+		index.close();
+
+		final File file = new File(folder.getRoot(), LocalNetworkIndex.INDEX_FILE);
+		assertEquals(2, Files.readAllLines(file.toPath()).size());
+
+		index = new LocalNetworkIndex(100);
+		index.open(folder.getRoot());
+		assertEquals(2, index.size());
+		assertEquals(0, index.search("old", 10).numFound);
+		assertEquals("New name", index.search("new", 10).networks.get(0).name);
+	}
+
+	@Test
+	public void loadsOnRequestTest() throws Exception {
+		LocalNetworkIndex index = new LocalNetworkIndex(100);
+		index.open(folder.getRoot());
+		index.addAll(Collections.singletonList(summary("a", "Loaded later", null, 1)));
+		index.close();
+
+		index = new LocalNetworkIndex(100);
+		index.open(folder.getRoot());
+		assertFalse(index.isLoaded());
+		index.load();
+		assertTrue(index.isLoaded());
+		assertEquals(1, index.search("loaded", 10).numFound);
+	}
+
+	@Test
+	public void dropsLeastRecentlySeenTest() {
+		final LocalNetworkIndex index = new LocalNetworkIndex(2);
+		index.open(folder.getRoot());
+		index.addAll(Arrays.asList(summary("a", "alpha", null, 1), summary("b", "beta", null, 1)));
+		index.addAll(Collections.singletonList(summary("a", "alpha", null, 1)));
+		index.addAll(Collections.singletonList(summary("c", "gamma", null, 1)));
+
+		assertEquals(2, index.size());
+		assertEquals(0, index.search("beta", 10).numFound);
+		assertEquals(1, index.search("alpha", 10).numFound);
+	}
+
+	@Test
+	public void returnsCopiesTest() {
+		final LocalNetworkIndex index = new LocalNetworkIndex(100);
+		index.open(folder.getRoot());
+		final RemoteNetworkSummary added = summary("a", "alpha", null, 1);
+		index.addAll(Collections.singletonList(added));
+
+		// Neither the added summary nor a search result is the indexed entry
+		added.name = "changed by caller";
+		final RemoteNetworkSummary found = index.search("alpha", 10).networks.get(0);
+		assertNotSame(added, found);
+		assertEquals("alpha", found.name);
+		found.name = "changed by search caller";
+		assertEquals("alpha", index.search("alpha", 10).networks.get(0).name);
+	}
+}
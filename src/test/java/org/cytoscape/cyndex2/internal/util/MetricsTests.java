@@ -0,0 +1,63 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.cytoscape.cyndex2.internal.rest.response.MetricSample;
+import org.junit.Test;
+
+public class MetricsTests {
+
+	@Test
+	public void reusesMetricsByNameAndLabelsTest() {
+		final Metrics metrics = new Metrics();
+		metrics.retries("visibility_update").inc();
+		metrics.retries("visibility_update").inc();
+		metrics.retries("network_update").inc();
+
+		assertEquals(2, metrics.retries("visibility_update").get());
+		assertEquals(1, metrics.retries("network_update").get());
+		assertEquals(2, metrics.getSamples().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsTypeMismatchTest() {
+		final Metrics metrics = new Metrics();
+		metrics.counter("cyndex2_test", "Test");
+		metrics.gauge("cyndex2_test", "Test");
+	}
+
+	@Test
+	public void histogramBucketsTest() {
+		final Metrics metrics = new Metrics();
+		final Metrics.Histogram histogram = metrics.phase("cx_read");
+		histogram.observe(0.003);
+		histogram.observe(0.2);
+		histogram.observe(1000);
+
+		final List<MetricSample> samples = metrics.getSamples();
+		final MetricSample sample = samples.get(0);
+		assertEquals(Long.valueOf(3), sample.count);
+		assertEquals(Long.valueOf(1), sample.buckets.get("0.005"));
+		assertEquals(Long.valueOf(2), sample.buckets.get("0.25"));
+		assertEquals(Long.valueOf(2), sample.buckets.get("300"));
+		assertEquals(Long.valueOf(3), sample.buckets.get("+Inf"));
+	}
+
+	@Test
+	public void prometheusFormatTest() {
+		final Metrics metrics = new Metrics();
+		metrics.bytesDownloaded().add(1024);
+		metrics.registerCache("search", () -> 3, () -> 1);
+		metrics.phase("view_build").observe(0.02);
+
+		final String text = metrics.toPrometheus();
+		assertTrue(text.contains("# TYPE cyndex2_bytes_downloaded_total counter\ncyndex2_bytes_downloaded_total 1024\n"));
+		assertTrue(text.contains("cyndex2_cache_hit_ratio{cache=\"search\"} 0.75\n"));
+		assertTrue(text.contains("cyndex2_phase_duration_seconds_bucket{phase=\"view_build\",le=\"0.025\"} 1\n"));
+		assertTrue(text.contains("cyndex2_phase_duration_seconds_count{phase=\"view_build\"} 1\n"));
+		assertEquals(1, text.split("# TYPE cyndex2_cache_hits_total counter\n", -1).length - 1);
+		assertTrue(text.contains("cyndex2_cache_misses_total{cache=\"search\"} 1\n"));
+	}
+}
@@ -0,0 +1,34 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PrefixIndexTests {
+
+	@Test
+	public void matchesTermAndWordPrefixesTest() {
+		final PrefixIndex index = new PrefixIndex(10);
+		index.add("TP53");
+		index.add("BioGRID: Protein-Protein Interactions (TP53)");
+		index.add("NCI PID - Complete Interactions");
+
+		assertEquals(Arrays.asList("TP53", "BioGRID: Protein-Protein Interactions (TP53)"), index.lookup("tp5", 5));
+		assertEquals(2, index.lookup("interact", 5).size());
+		assertTrue(index.lookup("xyz", 5).isEmpty());
+	}
+
+	@Test
+	public void dropsOldestTermsTest() {
+		final PrefixIndex index = new PrefixIndex(2);
+		index.add("alpha");
+		index.add("beta");
+		index.add("gamma");
+
+		assertEquals(2, index.size());
+		assertTrue(index.lookup("al", 5).isEmpty());
+		assertEquals(Arrays.asList("gamma"), index.lookup("ga", 5));
+	}
+}
@@ -0,0 +1,98 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+
+import org.cytoscape.cyndex2.internal.CyServiceModule;
+import org.cytoscape.cyndex2.internal.rest.parameter.NDExImportParameters;
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.service.util.CyServiceRegistrar;
+import org.junit.Before;
+import org.junit.Test;
+import org.ndexbio.model.object.network.NetworkSummary;
+
+public class PreviewNetworksTests {
+
+	private CyNetworkManager networkManager;
+
+	@Before
+	public void setUp() {
+		networkManager = mock(CyNetworkManager.class);
+		final CyServiceRegistrar registrar = mock(CyServiceRegistrar.class);
+		when(registrar.getService(CyNetworkManager.class)).thenReturn(networkManager);
+		CyServiceModule.setServiceRegistrar(registrar);
+	}
+
+	/**
+	 * Returns a network tagged as a preview of the given NDEx network.
+	 */
+	private CyNetwork createNetwork(final long suid, final UUID previewOf) {
+		final CyNetwork network = mock(CyNetwork.class);
+		final CyTable table = mock(CyTable.class);
+		final CyRow row = mock(CyRow.class);
+		when(network.getSUID()).thenReturn(suid);
+		when(network.getTable(CyNetwork.class, CyNetwork.HIDDEN_ATTRS)).thenReturn(table);
+		when(table.getRow(suid)).thenReturn(row);
+		when(table.getColumn(NetworkUUIDManager.PREVIEW_COLUMN)).thenReturn(mock(CyColumn.class));
+		when(row.get(NetworkUUIDManager.PREVIEW_COLUMN, String.class))
+				.thenReturn(previewOf == null ? null : previewOf.toString());
+		when(networkManager.networkExists(suid)).thenReturn(true);
+		return network;
+	}
+
+	private static NDExImportParameters createParams(final UUID uuid) {
+		final NDExImportParameters params = new NDExImportParameters(uuid.toString(), null, null,
+				"http://ndexbio.org/v2", null, null);
+		params.preview = true;
+		return params;
+	}
+
+	@Test
+	public void addAndGetTest() {
+		final PreviewNetworks previews = new PreviewNetworks();
+		final UUID uuid = UUID.randomUUID();
+		final CyNetwork preview = createNetwork(1, uuid);
+		final NetworkSummary summary = new NetworkSummary();
+
+		previews.add(preview, createParams(uuid), summary);
+
+		assertSame(summary, previews.get(preview).summary);
+		assertEquals(uuid.toString(), previews.get(preview).params.uuid);
+		assertNull(previews.get(createNetwork(2, uuid)));
+
+		previews.remove(preview);
+		assertNull(previews.get(preview));
+	}
+
+	@Test
+	public void ignoresUntaggedNetworksTest() {
+		final PreviewNetworks previews = new PreviewNetworks();
+		final UUID uuid = UUID.randomUUID();
+		previews.add(createNetwork(1, uuid), createParams(uuid), new NetworkSummary());
+
+		// Another network that got the SUID, or a preview of another network
+		assertNull(previews.get(createNetwork(1, null)));
+		assertNull(previews.get(createNetwork(1, UUID.randomUUID())));
+	}
+
+	@Test
+	public void dropsDestroyedNetworksTest() {
+		final PreviewNetworks previews = new PreviewNetworks();
+		final UUID uuid = UUID.randomUUID();
+		final CyNetwork destroyed = createNetwork(1, uuid);
+		previews.add(destroyed, createParams(uuid), new NetworkSummary());
+		when(networkManager.networkExists(1)).thenReturn(false);
+
+		previews.add(createNetwork(2, uuid), createParams(uuid), new NetworkSummary());
+
+		assertEquals(1, previews.size());
+		assertNull(previews.get(destroyed));
+	}
+}
@@ -0,0 +1,100 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cytoscape.cyndex2.internal.rest.response.TaskTrace;
+import org.cytoscape.work.TaskMonitor;
+import org.junit.Test;
+
+public class RecordingTaskMonitorTests {
+
+	@Test
+	public void recordsSpansAndForwardsTest() {
+		final List<Double> progress = new ArrayList<>();
+		final RecordingTaskMonitor recorder = new RecordingTaskMonitor("import", "uuid");
+		recorder.setDelegate(new TaskMonitor() {
+			@Override
+			public void setTitle(String title) {
+			}
+
+			@Override
+			public void setProgress(double value) {
+				progress.add(value);
+			}
+
+			@Override
+			public void setStatusMessage(String statusMessage) {
+			}
+		});
+
+		try (RecordingTaskMonitor.Span span = recorder.startSpan("test_phase")) {
+			span.addBytes(100);
+			span.addBytes(50);
+			span.addElements(7);
+		}
+		final RecordingTaskMonitor.Span open = recorder.startSpan("unfinished");
+		recorder.setStatusMessage("Working");
+		recorder.nested().setStatusMessage("Nested");
+		recorder.nested().setProgress(0.9);
+		recorder.setProgress(0.5);
+		recorder.finish(TaskTrace.COMPLETED, null);
+		open.end();
+
+		final List<TaskTrace> traces = TraceBuffer.INSTANCE.getTraces();
+		final TaskTrace trace = traces.get(traces.size() - 1);
+		assertEquals("import", trace.type);
+		assertEquals(TaskTrace.COMPLETED, trace.status);
+		assertEquals(2, trace.spans.size());
+		assertEquals(150, trace.spans.get(0).bytes);
+		assertEquals(7, trace.spans.get(0).elements);
+		assertTrue(trace.spans.get(0).durationMs >= 0);
+		assertEquals(-1, trace.spans.get(1).durationMs);
+		assertEquals(2, trace.messages.size());
+		assertEquals(1, progress.size());
+	}
+
+	@Test
+	public void listsRunningTasksTest() {
+		final RecordingTaskMonitor recorder = new RecordingTaskMonitor("import", "running-uuid");
+		recorder.setDelegate(null);
+		recorder.setProgress(0.25);
+		recorder.reportTransfer(new TransferProgress("Downloading", 1000, () -> 0L));
+
+		TaskTrace running = findRunning("running-uuid");
+		assertNotNull(running);
+		assertEquals(TaskTrace.RUNNING, running.status);
+		assertEquals(0.25, running.progress, 0.0);
+		assertEquals(1000, running.bytesTotal);
+
+		recorder.finish(TaskTrace.COMPLETED, null);
+		assertNull(findRunning("running-uuid"));
+		final List<TaskTrace> traces = TraceBuffer.INSTANCE.getTraces();
+		assertEquals(running.id, traces.get(traces.size() - 1).id);
+	}
+
+	private static TaskTrace findRunning(String target) {
+		for (TaskTrace trace : TraceBuffer.INSTANCE.getRunning()) {
+			if (target.equals(trace.target)) {
+				return trace;
+			}
+		}
+		return null;
+	}
+
+	@Test
+	public void ringBufferKeepsNewestTest() {
+		final TraceBuffer buffer = new TraceBuffer(2);
+		for (int i = 0; i < 3; i++) {
+			final TaskTrace trace = new TaskTrace();
+			trace.target = "n" + i;
+			buffer.add(trace);
+		}
+		final List<TaskTrace> traces = buffer.getTraces();
+		assertEquals(2, traces.size());
+		assertEquals("n1", traces.get(0).target);
+		assertEquals(3, traces.get(1).id);
+	}
+}
@@ -0,0 +1,34 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.cytoscape.cyndex2.internal.rest.response.PhaseTiming;
+import org.junit.Test;
+
+public class StartupTimingsTests {
+
+	@Test
+	public void keepsRepeatedPhasesInRingBufferTest() {
+		final StartupTimings timings = new StartupTimings(3);
+		timings.start("activation").end();
+		for (int i = 0; i < 10; i++) {
+			timings.transition("browser.stage", "STARTING_BROWSER");
+			timings.endGroup("browser.stage");
+			timings.start("browser.pageLoad").end();
+		}
+
+		final List<PhaseTiming> phases = timings.getPhases();
+		assertEquals(3, phases.size());
+		assertEquals("activation", phases.get(0).name);
+		assertEquals("browser.stage.STARTING_BROWSER", phases.get(1).name);
+		assertEquals("browser.pageLoad", phases.get(2).name);
+
+		final List<PhaseTiming> recent = timings.getRecentPhases();
+		assertEquals(3, recent.size());
+		assertEquals("browser.pageLoad", recent.get(0).name);
+		assertEquals("browser.stage.STARTING_BROWSER", recent.get(1).name);
+		assertEquals("browser.pageLoad", recent.get(2).name);
+	}
+}
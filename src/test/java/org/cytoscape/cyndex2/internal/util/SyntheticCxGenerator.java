@@ -0,0 +1,526 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes CX networks of a configurable size and shape for load and memory
+ * tests. Every element is derived from its id and the seed, so output is
+ * streamed without keeping the network in memory and the same settings always
+ * give the same bytes.
+ *
+ * Edge sources go round the nodes and targets are pseudo-random. With
+ * subnetworks, node i belongs to subnetwork i % subnetworks and edges stay
+ * within one subnetwork, like a collection written by Cytoscape.
+ *
+ * Run {@link #main(String[])} to write fixtures from the command line, for
+ * example {@code --edges 20M --node-columns 10 --layout --output big.cx}.
+ */
+public class SyntheticCxGenerator {
+
+	private static final JsonFactory JSON = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+	private static final String[] TYPES = { "string", "integer", "double" };
+
+	private long nodes = -1;
+	private long edges = 1000;
+	private int nodeColumns = 0;
+	private int edgeColumns = 0;
+	private long cardinality = 0;
+	private int subnetworks = 0;
+	private boolean visualProperties = false;
+	private boolean layout = false;
+	private long seed = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Sets the number of nodes. Defaults to half the number of edges.
+	 */
+	public SyntheticCxGenerator nodes(final long nodes) {
+		if (nodes < 1) {
+			throw new IllegalArgumentException("A network needs at least one node");
+		}
+		this.nodes = nodes;
+		return this;
+	}
+
+	public SyntheticCxGenerator edges(final long edges) {
+		if (edges < 0) {
+			throw new IllegalArgumentException("Edge count must not be negative");
+		}
+		this.edges = edges;
+		return this;
+	}
+
+	/**
+	 * Sets the number of node attribute columns. Columns cycle through the
+	 * string, integer and double types.
+	 */
+	public SyntheticCxGenerator nodeColumns(final int columns) {
+		this.nodeColumns = Math.max(0, columns);
+		return this;
+	}
+
+	public SyntheticCxGenerator edgeColumns(final int columns) {
+		this.edgeColumns = Math.max(0, columns);
+		return this;
+	}
+
+	/**
+	 * Sets the number of distinct values in each attribute column, or 0 for a
+	 * different value on every element.
+	 */
+	public SyntheticCxGenerator cardinality(final long cardinality) {
+		this.cardinality = Math.max(0, cardinality);
+		return this;
+	}
+
+	/**
+	 * Writes a collection with the given number of subnetworks, or a plain
+	 * network if 0.
+	 */
+	public SyntheticCxGenerator subnetworks(final int subnetworks) {
+		this.subnetworks = Math.max(0, subnetworks);
+		return this;
+	}
+
+	/**
+	 * Adds default network, node and edge styles.
+	 */
+	public SyntheticCxGenerator visualProperties(final boolean visualProperties) {
+		this.visualProperties = visualProperties;
+		return this;
+	}
+
+	/**
+	 * Adds a position for every node.
+	 */
+	public SyntheticCxGenerator layout(final boolean layout) {
+		this.layout = layout;
+		return this;
+	}
+
+	public SyntheticCxGenerator seed(final long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	public long getNodeCount() {
+		return nodes < 0 ? Math.max(2, edges / 2) : nodes;
+	}
+
+	public long getEdgeCount() {
+		return edges;
+	}
+
+	private int getGroups() {
+		return Math.max(1, subnetworks);
+	}
+
+	private boolean hasViews() {
+		return subnetworks > 0 && (visualProperties || layout);
+	}
+
+	/**
+	 * Writes the network to a file, replacing it if it exists.
+	 */
+	public void write(final File file) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+			write(out);
+		}
+	}
+
+	/**
+	 * Writes the network to the stream, which is left open.
+	 */
+	public void write(final OutputStream out) throws IOException {
+		final long nodeCount = getNodeCount();
+		if (nodeCount < getGroups()) {
+			throw new IllegalArgumentException("Every subnetwork needs at least one node");
+		}
+		try (JsonGenerator generator = JSON.createGenerator(out)) {
+			generator.writeStartArray();
+			writeNumberVerification(generator);
+			writeMetaData(generator, nodeCount);
+			writeNetworkAttributes(generator);
+			writeNodes(generator, nodeCount);
+			writeEdges(generator, nodeCount);
+			if (subnetworks > 0) {
+				writeSubNetworks(generator, nodeCount);
+			}
+			if (nodeColumns > 0) {
+				writeAttributes(generator, "nodeAttributes", 0, nodeCount, nodeColumns);
+			}
+			if (edgeColumns > 0) {
+				writeAttributes(generator, "edgeAttributes", nodeCount, edges, edgeColumns);
+			}
+			if (layout) {
+				writeLayout(generator, nodeCount);
+			}
+			if (visualProperties) {
+				writeVisualProperties(generator);
+			}
+			writeStatus(generator);
+			generator.writeEndArray();
+		}
+	}
+
+	/**
+	 * Returns a well-mixed number for a key (SplitMix64), so that any element
+	 * can be generated again without state.
+	 */
+	private long mix(final long key) {
+		long z = seed + key * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	long getSource(final long edge, final long nodeCount) {
+		return edge % nodeCount;
+	}
+
+	long getTarget(final long edge, final long nodeCount) {
+		final int groups = getGroups();
+		final long group = getSource(edge, nodeCount) % groups;
+		// Nodes of a group are group, group + groups, group + 2 * groups...
+		final long groupSize = (nodeCount - group + groups - 1) / groups;
+		return Math.floorMod(mix(edge), groupSize) * groups + group;
+	}
+
+	private long getSubNetworkId(final long nodeCount, final int subnetwork) {
+		return nodeCount + edges + subnetwork;
+	}
+
+	private long getViewId(final long nodeCount, final int subnetwork) {
+		return nodeCount + edges + subnetworks + subnetwork;
+	}
+
+	private static void writeNumberVerification(final JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("numberVerification");
+		generator.writeStartObject();
+		generator.writeNumberField("longNumber", 281474976710655L);
+		generator.writeEndObject();
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private void writeMetaData(final JsonGenerator generator, final long nodeCount) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("metaData");
+		writeMetaData(generator, "networkAttributes", 2);
+		writeMetaData(generator, "nodes", nodeCount);
+		writeMetaData(generator, "edges", edges);
+		if (subnetworks > 0) {
+			writeMetaData(generator, "networkRelations", hasViews() ? 2L * subnetworks : subnetworks);
+			writeMetaData(generator, "subNetworks", subnetworks);
+			if (hasViews()) {
+				writeMetaData(generator, "cyViews", subnetworks);
+			}
+		}
+		if (nodeColumns > 0) {
+			writeMetaData(generator, "nodeAttributes", nodeCount * nodeColumns);
+		}
+		if (edgeColumns > 0) {
+			writeMetaData(generator, "edgeAttributes", edges * edgeColumns);
+		}
+		if (layout) {
+			writeMetaData(generator, "cartesianLayout", nodeCount);
+		}
+		if (visualProperties) {
+			writeMetaData(generator, "cyVisualProperties", 3L * Math.max(1, subnetworks));
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private static void writeMetaData(final JsonGenerator generator, final String name, final long count)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("name", name);
+		generator.writeNumberField("elementCount", count);
+		generator.writeStringField("version", "1.0");
+		generator.writeNumberField("consistencyGroup", 1);
+		generator.writeEndObject();
+	}
+
+	private void writeNetworkAttributes(final JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("networkAttributes");
+		writeAttribute(generator, null, "name", "Synthetic " + edges, null);
+		writeAttribute(generator, null, "description",
+				String.format(Locale.ROOT, "%d nodes, %d edges, %d subnetworks", getNodeCount(), edges, subnetworks),
+				null);
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private static void writeNodes(final JsonGenerator generator, final long nodeCount) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("nodes");
+		for (long i = 0; i < nodeCount; i++) {
+			generator.writeStartObject();
+			generator.writeNumberField("@id", i);
+			generator.writeStringField("n", "N" + i);
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private void writeEdges(final JsonGenerator generator, final long nodeCount) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("edges");
+		for (long i = 0; i < edges; i++) {
+			generator.writeStartObject();
+			generator.writeNumberField("@id", nodeCount + i);
+			generator.writeNumberField("s", getSource(i, nodeCount));
+			generator.writeNumberField("t", getTarget(i, nodeCount));
+			generator.writeStringField("i", "interacts with");
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private void writeSubNetworks(final JsonGenerator generator, final long nodeCount) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("networkRelations");
+		for (int j = 0; j < subnetworks; j++) {
+			generator.writeStartObject();
+			generator.writeNumberField("c", getSubNetworkId(nodeCount, j));
+			generator.writeStringField("r", "subnetwork");
+			generator.writeStringField("name", "Subnetwork " + j);
+			generator.writeEndObject();
+		}
+		if (hasViews()) {
+			for (int j = 0; j < subnetworks; j++) {
+				generator.writeStartObject();
+				generator.writeNumberField("p", getSubNetworkId(nodeCount, j));
+				generator.writeNumberField("c", getViewId(nodeCount, j));
+				generator.writeStringField("r", "view");
+				generator.writeStringField("name", "Subnetwork " + j);
+				generator.writeEndObject();
+			}
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("subNetworks");
+		for (int j = 0; j < subnetworks; j++) {
+			generator.writeStartObject();
+			generator.writeNumberField("@id", getSubNetworkId(nodeCount, j));
+			generator.writeArrayFieldStart("nodes");
+			for (long i = j; i < nodeCount; i += subnetworks) {
+				generator.writeNumber(i);
+			}
+			generator.writeEndArray();
+			generator.writeArrayFieldStart("edges");
+			for (long i = 0; i < edges; i++) {
+				if (getSource(i, nodeCount) % subnetworks == j) {
+					generator.writeNumber(nodeCount + i);
+				}
+			}
+			generator.writeEndArray();
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+
+		if (hasViews()) {
+			generator.writeStartObject();
+			generator.writeArrayFieldStart("cyViews");
+			for (int j = 0; j < subnetworks; j++) {
+				generator.writeStartObject();
+				generator.writeNumberField("@id", getViewId(nodeCount, j));
+				generator.writeNumberField("s", getSubNetworkId(nodeCount, j));
+				generator.writeEndObject();
+			}
+			generator.writeEndArray();
+			generator.writeEndObject();
+		}
+	}
+
+	private void writeAttributes(final JsonGenerator generator, final String aspect, final long firstId,
+			final long count, final int columns) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart(aspect);
+		for (long i = 0; i < count; i++) {
+			final long id = firstId + i;
+			for (int c = 0; c < columns; c++) {
+				final long value = cardinality > 0 ? Math.floorMod(mix(id * 31 + c), cardinality) : i;
+				final String type = TYPES[c % TYPES.length];
+				final String text;
+				if (type.equals("string")) {
+					text = "value " + value;
+				} else if (type.equals("integer")) {
+					text = Long.toString(value);
+				} else {
+					text = value + ".5";
+				}
+				writeAttribute(generator, id, "attribute" + c, text, type.equals("string") ? null : type);
+			}
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private static void writeAttribute(final JsonGenerator generator, final Long id, final String name,
+			final String value, final String type) throws IOException {
+		generator.writeStartObject();
+		if (id != null) {
+			generator.writeNumberField("po", id);
+		}
+		generator.writeStringField("n", name);
+		generator.writeStringField("v", value);
+		if (type != null) {
+			generator.writeStringField("d", type);
+		}
+		generator.writeEndObject();
+	}
+
+	private void writeLayout(final JsonGenerator generator, final long nodeCount) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("cartesianLayout");
+		for (long i = 0; i < nodeCount; i++) {
+			// Sunflower spiral, which spreads any number of nodes evenly
+			final double radius = 10 * Math.sqrt(i);
+			final double angle = i * 2.399963229728653;
+			generator.writeStartObject();
+			generator.writeNumberField("node", i);
+			generator.writeNumberField("x", Math.round(radius * Math.cos(angle) * 100) / 100.0);
+			generator.writeNumberField("y", Math.round(radius * Math.sin(angle) * 100) / 100.0);
+			if (hasViews()) {
+				generator.writeNumberField("view", getViewId(nodeCount, (int) (i % subnetworks)));
+			}
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private void writeVisualProperties(final JsonGenerator generator) throws IOException {
+		final long nodeCount = getNodeCount();
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("cyVisualProperties");
+		for (int j = 0; j < Math.max(1, subnetworks); j++) {
+			final Long view = hasViews() ? getViewId(nodeCount, j) : null;
+			writeVisualProperties(generator, "network", view, "NETWORK_BACKGROUND_PAINT", "#FFFFFF");
+			writeVisualProperties(generator, "nodes:default", view, "NODE_FILL_COLOR", "#89D0F5", "NODE_SHAPE",
+					"ROUND_RECTANGLE", "NODE_SIZE", "35.0", "NODE_LABEL_FONT_SIZE", "12");
+			writeVisualProperties(generator, "edges:default", view, "EDGE_STROKE_UNSELECTED_PAINT", "#848484",
+					"EDGE_WIDTH", "2.0", "EDGE_TARGET_ARROW_SHAPE", "NONE");
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private static void writeVisualProperties(final JsonGenerator generator, final String propertiesOf,
+			final Long view, final String... properties) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("properties_of", propertiesOf);
+		if (view != null) {
+			generator.writeNumberField("applies_to", view);
+		}
+		generator.writeObjectFieldStart("properties");
+		for (int i = 0; i < properties.length; i += 2) {
+			generator.writeStringField(properties[i], properties[i + 1]);
+		}
+		generator.writeEndObject();
+		generator.writeEndObject();
+	}
+
+	private static void writeStatus(final JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("status");
+		generator.writeStartObject();
+		generator.writeStringField("error", "");
+		generator.writeBooleanField("success", true);
+		generator.writeEndObject();
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Parses a count like 2000, 50k or 20M.
+	 */
+	static long parseCount(final String count) {
+		final String text = count.trim().toUpperCase(Locale.ROOT);
+		if (text.endsWith("K")) {
+			return Long.parseLong(text.substring(0, text.length() - 1)) * 1000;
+		}
+		if (text.endsWith("M")) {
+			return Long.parseLong(text.substring(0, text.length() - 1)) * 1000000;
+		}
+		return Long.parseLong(text);
+	}
+
+	private static final String USAGE = "Options: --nodes N --edges N --node-columns N --edge-columns N "
+			+ "--cardinality N --subnetworks N --visual-properties --layout --seed N --output FILE\n"
+			+ "Counts accept k and M suffixes. Without --output, CX is written to standard output.";
+
+	public static void main(final String[] args) throws IOException {
+		final SyntheticCxGenerator generator = new SyntheticCxGenerator();
+		File output = null;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--nodes":
+					generator.nodes(parseCount(args[++i]));
+					break;
+				case "--edges":
+					generator.edges(parseCount(args[++i]));
+					break;
+				case "--node-columns":
+					generator.nodeColumns(Integer.parseInt(args[++i]));
+					break;
+				case "--edge-columns":
+					generator.edgeColumns(Integer.parseInt(args[++i]));
+					break;
+				case "--cardinality":
+					generator.cardinality(parseCount(args[++i]));
+					break;
+				case "--subnetworks":
+					generator.subnetworks(Integer.parseInt(args[++i]));
+					break;
+				case "--visual-properties":
+					generator.visualProperties(true);
+					break;
+				case "--layout":
+					generator.layout(true);
+					break;
+				case "--seed":
+					generator.seed(Long.parseLong(args[++i]));
+					break;
+				case "--output":
+					output = new File(args[++i]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + args[i]);
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println(e.getMessage() == null ? "Missing value" : e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+
+		if (output == null) {
+			final OutputStream out = new BufferedOutputStream(System.out, 1 << 16);
+			generator.write(out);
+			out.flush();
+		} else {
+			generator.write(output);
+			System.err.println(String.format(Locale.ROOT, "Wrote %d nodes and %d edges (%d bytes) to %s",
+					generator.getNodeCount(), generator.getEdgeCount(), output.length(), output));
+		}
+	}
+}
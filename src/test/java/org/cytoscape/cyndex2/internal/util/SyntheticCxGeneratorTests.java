@@ -0,0 +1,143 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class SyntheticCxGeneratorTests {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static Map<String, JsonNode> readAspects(final SyntheticCxGenerator generator) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		generator.write(out);
+		final Map<String, JsonNode> aspects = new HashMap<>();
+		for (JsonNode fragment : MAPPER.readTree(out.toByteArray())) {
+			final String name = fragment.fieldNames().next();
+			assertNull("Aspect " + name + " is written once", aspects.put(name, fragment.get(name)));
+		}
+		return aspects;
+	}
+
+	@Test
+	public void writesPlainNetworkTest() throws IOException {
+		final Map<String, JsonNode> aspects = readAspects(new SyntheticCxGenerator().edges(100));
+
+		assertEquals(50, aspects.get("nodes").size());
+		assertEquals(100, aspects.get("edges").size());
+		for (JsonNode edge : aspects.get("edges")) {
+			assertTrue(edge.get("t").asLong() < 50);
+		}
+		assertTrue(aspects.get("status").get(0).get("success").asBoolean());
+		assertFalse(aspects.containsKey("subNetworks"));
+		assertFalse(aspects.containsKey("nodeAttributes"));
+		assertFalse(aspects.containsKey("cartesianLayout"));
+	}
+
+	@Test
+	public void metaDataMatchesAspectsTest() throws IOException {
+		final Map<String, JsonNode> aspects = readAspects(new SyntheticCxGenerator().nodes(30).edges(90).nodeColumns(4)
+				.edgeColumns(2).subnetworks(3).visualProperties(true).layout(true));
+
+		for (JsonNode metaData : aspects.get("metaData")) {
+			final String name = metaData.get("name").asText();
+			assertEquals(name, metaData.get("elementCount").asLong(), aspects.get(name).size());
+		}
+		assertEquals(120, aspects.get("nodeAttributes").size());
+		assertEquals(180, aspects.get("edgeAttributes").size());
+		assertEquals(9, aspects.get("cyVisualProperties").size());
+	}
+
+	@Test
+	public void limitsCardinalityTest() throws IOException {
+		final Map<String, JsonNode> aspects = readAspects(
+				new SyntheticCxGenerator().nodes(1000).edges(10).nodeColumns(3).cardinality(7));
+
+		final Map<String, Set<String>> values = new HashMap<>();
+		for (JsonNode attribute : aspects.get("nodeAttributes")) {
+			values.computeIfAbsent(attribute.get("n").asText(), name -> new HashSet<>()).add(attribute.get("v").asText());
+		}
+		assertEquals(3, values.size());
+		assertEquals(7, values.get("attribute0").size());
+		assertEquals(7, values.get("attribute1").size());
+		assertEquals("integer", aspects.get("nodeAttributes").get(1).get("d").asText());
+		assertEquals("double", aspects.get("nodeAttributes").get(2).get("d").asText());
+	}
+
+	@Test
+	public void keepsEdgesWithinSubnetworksTest() throws IOException {
+		final Map<String, JsonNode> aspects = readAspects(
+				new SyntheticCxGenerator().nodes(40).edges(200).subnetworks(4).layout(true));
+
+		final Map<Long, Integer> nodeGroups = new HashMap<>();
+		final Set<Long> edgeIds = new HashSet<>();
+		int group = 0;
+		for (JsonNode subnetwork : aspects.get("subNetworks")) {
+			for (JsonNode node : subnetwork.get("nodes")) {
+				assertNull(nodeGroups.put(node.asLong(), group));
+			}
+			for (JsonNode edge : subnetwork.get("edges")) {
+				assertTrue(edgeIds.add(edge.asLong()));
+			}
+			group++;
+		}
+		assertEquals(40, nodeGroups.size());
+		assertEquals(200, edgeIds.size());
+		for (JsonNode edge : aspects.get("edges")) {
+			assertEquals(nodeGroups.get(edge.get("s").asLong()), nodeGroups.get(edge.get("t").asLong()));
+		}
+		assertEquals(4, aspects.get("cyViews").size());
+		assertTrue(aspects.get("cartesianLayout").get(0).has("view"));
+	}
+
+	@Test
+	public void isDeterministicTest() throws IOException {
+		final ByteArrayOutputStream first = new ByteArrayOutputStream();
+		new SyntheticCxGenerator().edges(500).nodeColumns(2).cardinality(10).write(first);
+		final ByteArrayOutputStream second = new ByteArrayOutputStream();
+		new SyntheticCxGenerator().edges(500).nodeColumns(2).cardinality(10).write(second);
+		assertArrayEquals(first.toByteArray(), second.toByteArray());
+
+		final ByteArrayOutputStream seeded = new ByteArrayOutputStream();
+		new SyntheticCxGenerator().edges(500).nodeColumns(2).cardinality(10).seed(1).write(seeded);
+		assertFalse(Arrays.equals(first.toByteArray(), seeded.toByteArray()));
+	}
+
+	@Test
+	public void streamsLargeNetworkTest() throws IOException {
+		final long[] bytes = new long[1];
+		final OutputStream counter = new OutputStream() {
+			@Override
+			public void write(int b) {
+				bytes[0]++;
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				bytes[0] += len;
+			}
+		};
+		// Nothing is kept per element, so this runs in a small heap
+		new SyntheticCxGenerator().edges(1000000).write(counter);
+		assertTrue(bytes[0] > 1000000L * 50);
+	}
+
+	@Test
+	public void parsesCountsTest() {
+		assertEquals(2000, SyntheticCxGenerator.parseCount("2000"));
+		assertEquals(50000, SyntheticCxGenerator.parseCount("50k"));
+		assertEquals(20000000, SyntheticCxGenerator.parseCount("20M"));
+	}
+}
@@ -0,0 +1,53 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class TransferProgressTests {
+
+	private static final long MB = 1024 * 1024;
+
+	@Test
+	public void computesRateAndEtaTest() {
+		final AtomicLong now = new AtomicLong();
+		final TransferProgress transfer = new TransferProgress("Downloading", 10 * MB, now::get);
+
+		assertFalse(transfer.update(MB / 2));
+		assertEquals(-1, transfer.getRate(), 0.0);
+		assertEquals(-1, transfer.getEtaMillis());
+
+		now.set(1000000000L);
+		assertTrue(transfer.update(2 * MB));
+		assertEquals(2 * MB, transfer.getRate(), 1.0);
+		assertEquals(4000, transfer.getEtaMillis());
+		assertEquals(0.2, transfer.getFraction(), 1e-9);
+		assertEquals("Downloading 2.0 of 10.0 MB at 2.0 MB/s, about 4 s left", transfer.getMessage());
+
+		// The last bytes are reported even within the sample interval
+		now.set(1100000000L);
+		assertTrue(transfer.update(10 * MB));
+		assertFalse(transfer.update(10 * MB));
+		assertEquals(0, transfer.getEtaMillis());
+	}
+
+	@Test
+	public void unknownSizeTest() {
+		final AtomicLong now = new AtomicLong();
+		final TransferProgress transfer = new TransferProgress("Uploading", -1, now::get);
+		now.set(500000000L);
+		assertTrue(transfer.update(MB));
+		assertEquals(-1, transfer.getFraction(), 0.0);
+		assertEquals(-1, transfer.getEtaMillis());
+		assertEquals("Uploading 1.0 MB at 2.0 MB/s", transfer.getMessage());
+	}
+
+	@Test
+	public void formatsDurationsTest() {
+		assertEquals("1 s", TransferProgress.formatDuration(10));
+		assertEquals("2 min 5 s", TransferProgress.formatDuration(125000));
+		assertEquals("1 h 1 min", TransferProgress.formatDuration(3660000));
+	}
+}
@@ -0,0 +1,120 @@
+package org.cytoscape.cyndex2.internal.util;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ValidationCacheTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static InputStream body(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String readAll(InputStream in) throws IOException {
+		final StringBuilder text = new StringBuilder();
+		final byte[] buffer = new byte[3];
+		int n;
+		while ((n = in.read(buffer)) >= 0) {
+			text.append(new String(buffer, 0, n, StandardCharsets.UTF_8));
+		}
+		in.close();
+		return text.toString();
+	}
+
+	@Test
+	public void storesBodyWithValidatorsTest() throws IOException {
+		ValidationCache cache = new ValidationCache(10, 1024);
+		cache.open(folder.getRoot());
+		assertEquals("[{\"a\":1}]", readAll(cache.cache("key", "\"v1\"", null, 0, body("[{\"a\":1}]"))));
+
+		// A fresh instance reads the entry back from disk
+		cache = new ValidationCache(10, 1024);
+		cache.open(folder.getRoot());
+		final ValidationCache.Entry entry = cache.lookup("key");
+		assertNotNull(entry);
+		assertTrue(entry.hasValidators());
+
+		final HttpGet request = new HttpGet("http://localhost/");
+		entry.addValidators(request);
+		assertEquals("\"v1\"", request.getFirstHeader(HttpHeaders.IF_NONE_MATCH).getValue());
+		assertNull(request.getFirstHeader(HttpHeaders.IF_MODIFIED_SINCE));
+
+		assertEquals("[{\"a\":1}]", readAll(cache.open(entry, true)));
+		assertEquals(1, cache.getNotModified());
+		assertEquals(1, cache.getHits());
+		assertEquals(0, cache.getMisses());
+
+		// A lookup that finds nothing, or whose body is not opened, is a miss
+		assertNull(cache.lookup("other"));
+		cache.lookup("key");
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void keepsModificationTimeWithoutValidatorsTest() throws IOException {
+		final ValidationCache cache = new ValidationCache(10, 1024);
+		cache.open(folder.getRoot());
+		readAll(cache.cache("key", null, null, 42L, body("cx")));
+
+		final ValidationCache.Entry entry = cache.lookup("key");
+		assertFalse(entry.hasValidators());
+		assertEquals(42L, entry.modificationTime);
+	}
+
+	@Test
+	public void skipsIncompleteBodiesTest() throws IOException {
+		final ValidationCache cache = new ValidationCache(10, 1024);
+		cache.open(folder.getRoot());
+		final InputStream in = cache.cache("key", "\"v1\"", null, 0, body("partial body"));
+		in.read(new byte[4]);
+		in.close();
+
+		assertNull(cache.lookup("key"));
+		assertEquals(0, folder.getRoot().list().length);
+	}
+
+	@Test
+	public void trimsOldestBodiesTest() throws IOException {
+		// Bodies of up to 5 bytes are kept
+		final ValidationCache cache = new ValidationCache(10, 20);
+		cache.open(folder.getRoot());
+		readAll(cache.cache("old", "\"1\"", null, 0, body("12345")));
+		cache.lookup("old");
+		folder.getRoot().listFiles((d, name) -> name.endsWith(".body"))[0].setLastModified(1000);
+		for (int i = 0; i < 4; i++) {
+			readAll(cache.cache("new" + i, "\"2\"", null, 0, body("67890")));
+		}
+
+		assertNull(cache.lookup("old"));
+		assertNotNull(cache.lookup("new3"));
+	}
+
+	@Test
+	public void passesLargeBodiesThroughTest() throws IOException {
+		final ValidationCache cache = new ValidationCache(10, 40);
+		cache.open(folder.getRoot());
+		assertTrue(cache.accepts(10));
+		assertTrue(cache.accepts(0));
+		assertFalse(cache.accepts(11));
+
+		final InputStream in = cache.cache("key", "\"v1\"", null, 0, body("larger than ten bytes"));
+		assertTrue(ValidationCache.isCaching(in));
+		assertEquals("larger than ten bytes", readAll(in));
+		assertFalse(ValidationCache.isCaching(in));
+
+		assertNull(cache.lookup("key"));
+		assertEquals(0, folder.getRoot().list().length);
+	}
+}
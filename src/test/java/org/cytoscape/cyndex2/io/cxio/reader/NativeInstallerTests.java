@@ -2,15 +2,25 @@ package org.cytoscape.cyndex2.io.cxio.reader;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.Properties;
 
 import org.cytoscape.cyndex2.internal.util.NativeInstaller;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class NativeInstallerTests {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void getJarNameTest() throws IOException {
 		final String jarName = NativeInstaller.getJarName("MYOS");
@@ -49,5 +59,84 @@ public class NativeInstallerTests {
 		final int responseCode = httpConn.getResponseCode();
 		assertEquals (responseCode, HttpURLConnection.HTTP_OK);
 	}
-	
+
+	@Test
+	public void manifestRoundTripTest() throws IOException {
+		final File installDir = folder.newFolder("bin");
+		assertFalse(NativeInstaller.isInstalled(installDir, NativeInstaller.PLATFORM_LINUX));
+
+		Files.write(new File(installDir, "chromium").toPath(), new byte[] { 1, 2, 3 });
+		NativeInstaller.writeManifest(installDir, NativeInstaller.PLATFORM_LINUX);
+
+		assertTrue(NativeInstaller.isInstalled(installDir, NativeInstaller.PLATFORM_LINUX));
+		assertFalse(NativeInstaller.isInstalled(installDir, NativeInstaller.PLATFORM_MAC));
+
+		final Properties manifest = new Properties();
+		try (InputStream is = Files.newInputStream(new File(installDir, NativeInstaller.MANIFEST_NAME).toPath())) {
+			manifest.load(is);
+		}
+		assertEquals("1", manifest.getProperty("files"));
+		assertEquals("3", manifest.getProperty("file.chromium"));
+	}
+
+	@Test
+	public void manifestChangedFilesTest() throws IOException {
+		final File installDir = folder.newFolder("bin");
+		final File chromium = new File(installDir, "chromium");
+		Files.write(chromium.toPath(), new byte[] { 1, 2, 3 });
+		Files.write(new File(installDir, "icudtl.dat").toPath(), new byte[] { 4 });
+		NativeInstaller.writeManifest(installDir, NativeInstaller.PLATFORM_LINUX);
+		assertTrue(NativeInstaller.isInstalled(installDir, NativeInstaller.PLATFORM_LINUX));
+
+		// A truncated binary
+		Files.write(chromium.toPath(), new byte[] { 1 });
+		assertFalse(NativeInstaller.isInstalled(installDir, NativeInstaller.PLATFORM_LINUX));
+
+		// A deleted binary
+		Files.write(chromium.toPath(), new byte[] { 1, 2, 3 });
+		assertTrue(NativeInstaller.isInstalled(installDir, NativeInstaller.PLATFORM_LINUX));
+		assertTrue(chromium.delete());
+		assertFalse(NativeInstaller.isInstalled(installDir, NativeInstaller.PLATFORM_LINUX));
+	}
+
+	@Test
+	public void manifestFileCountMismatchTest() throws IOException {
+		final File installDir = folder.newFolder("bin");
+		Files.write(new File(installDir, "chromium").toPath(), new byte[] { 1, 2, 3 });
+		final Properties manifest = new Properties();
+		manifest.setProperty("version", NativeInstaller.JXBROWSER_VERSION);
+		manifest.setProperty("platform", NativeInstaller.PLATFORM_LINUX);
+		manifest.setProperty("file.chromium", "3");
+		final File manifestFile = new File(installDir, NativeInstaller.MANIFEST_NAME);
+		try (FileOutputStream fos = new FileOutputStream(manifestFile)) {
+			manifest.store(fos, null);
+		}
+		// No file count, as written by an older install
+		assertFalse(NativeInstaller.isInstalled(installDir, NativeInstaller.PLATFORM_LINUX));
+
+		manifest.setProperty("files", "2");
+		try (FileOutputStream fos = new FileOutputStream(manifestFile)) {
+			manifest.store(fos, null);
+		}
+		assertFalse(NativeInstaller.isInstalled(installDir, NativeInstaller.PLATFORM_LINUX));
+
+		manifest.setProperty("files", "1");
+		try (FileOutputStream fos = new FileOutputStream(manifestFile)) {
+			manifest.store(fos, null);
+		}
+		assertTrue(NativeInstaller.isInstalled(installDir, NativeInstaller.PLATFORM_LINUX));
+	}
+
+	@Test
+	public void manifestVersionMismatchTest() throws IOException {
+		final File installDir = folder.newFolder("bin");
+		final Properties manifest = new Properties();
+		manifest.setProperty("version", "0.0.0");
+		manifest.setProperty("platform", NativeInstaller.PLATFORM_LINUX);
+		try (FileOutputStream fos = new FileOutputStream(new File(installDir, NativeInstaller.MANIFEST_NAME))) {
+			manifest.store(fos, null);
+		}
+		assertFalse(NativeInstaller.isInstalled(installDir, NativeInstaller.PLATFORM_LINUX));
+	}
+
 }